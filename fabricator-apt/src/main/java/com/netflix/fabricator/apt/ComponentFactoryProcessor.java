@@ -0,0 +1,510 @@
+package com.netflix.fabricator.apt;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.collect.Maps;
+import com.netflix.fabricator.component.GeneratedComponentFactories;
+
+/**
+ * Annotation processor that generates a ComponentFactory for each concrete class
+ * annotated with {@link com.netflix.fabricator.annotations.Type} or
+ * {@link com.netflix.fabricator.annotations.TypeImplementation}.  The generated
+ * factory calls the builder's withXXX/setXXX methods directly so that no reflection
+ * over the builder is needed at startup.  See {@link GeneratedComponentFactories}
+ * for the naming convention used to find the factory at runtime.
+ *
+ * Code is only generated when every property of the builder is one of the simple
+ * types that does not require dependency injection (String, primitives and their
+ * wrappers, enums, Class, Properties, Supplier/ListenableSupplier of String or
+ * wrappers and the primitive listenable suppliers) and the builder itself has no @Inject members.  All other classes are
+ * skipped and continue to use the reflection based BindingComponentFactory.
+ */
+@SupportedAnnotationTypes({
+    "com.netflix.fabricator.annotations.Type",
+    "com.netflix.fabricator.annotations.TypeImplementation"
+})
+public class ComponentFactoryProcessor extends AbstractProcessor {
+    private static final String BUILDER_INTERFACE   = "com.netflix.fabricator.Builder";
+    private static final String BUILDER_METHOD_NAME = "builder";
+    private static final String BUILDER_CLASS_NAME  = "Builder";
+    private static final String BUILD_METHOD_NAME   = "build";
+    private static final String ID_PROPERTY_NAME    = "id";
+    private static final String WITH_METHOD_PREFIX  = "with";
+    private static final String SET_METHOD_PREFIX   = "set";
+
+    private static final String[] INJECT_ANNOTATIONS = {
+        "com.google.inject.Inject",
+        "javax.inject.Inject"
+    };
+
+    private static final String[] SUPPLIER_TYPES = {
+        "com.google.common.base.Supplier",
+        "com.netflix.fabricator.supplier.ListenableSupplier"
+    };
+
+    /**
+     * Primitive supplier parameter type -> {boxed value type, PrimitiveSuppliers factory method}
+     */
+    private static final String[][] PRIMITIVE_SUPPLIER_TYPES = {
+        {"com.netflix.fabricator.supplier.ListenableIntSupplier",     "java.lang.Integer", "ofInt"},
+        {"java.util.function.IntSupplier",                            "java.lang.Integer", "ofInt"},
+        {"com.netflix.fabricator.supplier.ListenableLongSupplier",    "java.lang.Long",    "ofLong"},
+        {"java.util.function.LongSupplier",                           "java.lang.Long",    "ofLong"},
+        {"com.netflix.fabricator.supplier.ListenableDoubleSupplier",  "java.lang.Double",  "ofDouble"},
+        {"java.util.function.DoubleSupplier",                         "java.lang.Double",  "ofDouble"},
+        {"com.netflix.fabricator.supplier.ListenableBooleanSupplier", "java.lang.Boolean", "ofBoolean"},
+        {"java.util.function.BooleanSupplier",                        "java.lang.Boolean", "ofBoolean"},
+    };
+
+    /**
+     * A builder method that sets a single property
+     */
+    private static class Setter {
+        final String  methodName;
+        final String  valueType;    // Type passed to ConfigurationNode.getValue()/getDynamicValue()
+        final String  paramType;
+        final boolean dynamic;
+        final boolean isEnum;
+        final boolean isClass;
+        String        primitiveFactory; // PrimitiveSuppliers method wrapping a dynamic value
+
+        Setter(String methodName, String paramType, String valueType, boolean dynamic, boolean isEnum, boolean isClass) {
+            this.methodName = methodName;
+            this.paramType  = paramType;
+            this.valueType  = valueType;
+            this.dynamic    = dynamic;
+            this.isEnum     = isEnum;
+            this.isClass    = isClass;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    process((TypeElement)element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void process(TypeElement type) {
+        if (!isAccessible(type) || type.getModifiers().contains(Modifier.ABSTRACT) || !type.getTypeParameters().isEmpty()) {
+            return;
+        }
+
+        // Determine the builder and how to instantiate it, using the same rules
+        // as BindingComponentFactory
+        TypeElement builder;
+        String      instantiation;
+        TypeElement builderInterface = processingEnv.getElementUtils().getTypeElement(BUILDER_INTERFACE);
+        ExecutableElement builderMethod = findMethod(type, BUILDER_METHOD_NAME, true);
+        if (builderInterface != null && processingEnv.getTypeUtils().isAssignable(
+                    processingEnv.getTypeUtils().erasure(type.asType()),
+                    processingEnv.getTypeUtils().erasure(builderInterface.asType()))) {
+            builder       = type;
+            instantiation = "new " + type.getQualifiedName() + "()";
+        }
+        else if (builderMethod != null && builderMethod.getReturnType().getKind() == TypeKind.DECLARED) {
+            builder       = (TypeElement)((DeclaredType)builderMethod.getReturnType()).asElement();
+            instantiation = type.getQualifiedName() + "." + BUILDER_METHOD_NAME + "()";
+        }
+        else {
+            builder = null;
+            for (TypeElement inner : ElementFilter.typesIn(type.getEnclosedElements())) {
+                if (inner.getSimpleName().contentEquals(BUILDER_CLASS_NAME) && inner.getModifiers().contains(Modifier.STATIC)) {
+                    builder = inner;
+                    break;
+                }
+            }
+            if (builder == null) {
+                return;
+            }
+            instantiation = "new " + builder.getQualifiedName() + "()";
+        }
+
+        if (!isAccessible(builder) || !builder.getTypeParameters().isEmpty()) {
+            skip(type, "builder " + builder.getQualifiedName() + " is not accessible");
+            return;
+        }
+
+        if (instantiation.startsWith("new ") && !hasPublicDefaultConstructor(builder)) {
+            skip(type, "builder " + builder.getQualifiedName() + " has no public default constructor");
+            return;
+        }
+
+        if (hasInjectMembers(builder)) {
+            skip(type, "builder " + builder.getQualifiedName() + " requires injection");
+            return;
+        }
+
+        ExecutableElement buildMethod = findMethod(builder, BUILD_METHOD_NAME, false);
+        if (buildMethod == null) {
+            skip(type, "builder " + builder.getQualifiedName() + " has no build() method");
+            return;
+        }
+        if (buildMethod.getReturnType().getKind() != TypeKind.DECLARED
+                || !isAccessible((TypeElement)((DeclaredType)buildMethod.getReturnType()).asElement())) {
+            skip(type, "build() of " + builder.getQualifiedName() + " does not return an accessible type");
+            return;
+        }
+
+        // Collect all properties
+        Map<String, Setter> properties = Maps.newTreeMap();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(builder))) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (hasInjectAnnotation(method)) {
+                continue;
+            }
+
+            String propertyName = getPropertyName(method.getSimpleName().toString());
+            if (propertyName == null || method.getParameters().size() != 1) {
+                continue;
+            }
+
+            Setter setter = createSetter(method);
+            if (setter == null) {
+                skip(type, String.format("property '%s' of type %s requires injection", propertyName, method.getParameters().get(0).asType()));
+                return;
+            }
+
+            // Prefer the dynamic variant when there are multiple methods for the same property
+            Setter existing = properties.get(propertyName);
+            if (existing == null || (!existing.dynamic && setter.dynamic)) {
+                properties.put(propertyName, setter);
+            }
+        }
+
+        try {
+            write(type, builder, instantiation, buildMethod.getReturnType().toString(), properties);
+        }
+        catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to generate ComponentFactory: " + e.getMessage(), type);
+        }
+    }
+
+    private void write(TypeElement type, TypeElement builder, String instantiation, String productType, Map<String, Setter> properties) throws IOException {
+        String factoryName = GeneratedComponentFactories.getFactoryClassName(processingEnv.getElementUtils().getBinaryName(type).toString());
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String simpleName  = packageName.isEmpty() ? factoryName : factoryName.substring(packageName.length() + 1);
+        String builderName = builder.getQualifiedName().toString();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(factoryName, type);
+        Writer writer = file.openWriter();
+        try {
+            PrintWriter out = new PrintWriter(writer);
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import java.util.Collections;");
+            out.println("import java.util.LinkedHashMap;");
+            out.println("import java.util.Map;");
+            out.println();
+            out.println("import com.netflix.fabricator.ConfigurationNode;");
+            out.println("import com.netflix.fabricator.PropertyBinder;");
+            out.println("import com.netflix.fabricator.PropertyInfo;");
+            out.println("import com.netflix.fabricator.component.ComponentFactory;");
+            out.println();
+            out.println("/**");
+            out.println(" * ComponentFactory for {@link " + type.getQualifiedName() + "} generated by " + getClass().getSimpleName());
+            out.println(" */");
+            out.println("@" + getGeneratedAnnotation() + "(\"" + getClass().getName() + "\")");
+            out.println("public final class " + simpleName + " implements ComponentFactory<" + productType + "> {");
+            out.println("    private static final Map<String, PropertyInfo> PROPERTIES;");
+            out.println();
+            out.println("    static {");
+            out.println("        Map<String, PropertyInfo> properties = new LinkedHashMap<String, PropertyInfo>();");
+            for (Entry<String, Setter> entry : properties.entrySet()) {
+                String binder = "bind" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, entry.getKey());
+                out.println("        {");
+                out.println("            PropertyInfo prop = new PropertyInfo(\"" + entry.getKey() + "\");");
+                out.println("            prop." + (entry.getValue().dynamic ? "addDynamic" : "addSimple") + "(new PropertyBinder() {");
+                out.println("                @Override");
+                out.println("                public boolean bind(Object obj, ConfigurationNode node) throws Exception {");
+                out.println("                    return " + binder + "((" + builderName + ")obj, node);");
+                out.println("                }");
+                out.println("            });");
+                out.println("            properties.put(\"" + entry.getKey() + "\", prop);");
+                out.println("        }");
+            }
+            out.println("        PROPERTIES = Collections.unmodifiableMap(properties);");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + productType + " create(ConfigurationNode config) {");
+            out.println("        try {");
+            out.println("            " + builderName + " builder = " + instantiation + ";");
+            Setter idSetter = properties.get(ID_PROPERTY_NAME);
+            if (idSetter != null && !idSetter.dynamic && idSetter.valueType.equals(String.class.getName())) {
+                out.println("            if (config.getId() != null) {");
+                out.println("                builder." + idSetter.methodName + "(config.getId());");
+                out.println("            }");
+            }
+            out.println("            ConfigurationNode child;");
+            for (Entry<String, Setter> entry : properties.entrySet()) {
+                String binder = "bind" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, entry.getKey());
+                out.println("            child = config.getChild(\"" + entry.getKey() + "\");");
+                out.println("            if (child != null) {");
+                out.println("                try {");
+                out.println("                    " + binder + "(builder, child);");
+                out.println("                }");
+                out.println("                catch (Exception e) {");
+                out.println("                    throw new Exception(\"Failed to map property: " + entry.getKey() + "\", e);");
+                out.println("                }");
+                out.println("            }");
+            }
+            out.println("            return builder.build();");
+            out.println("        }");
+            out.println("        catch (Exception e) {");
+            out.println("            throw new RuntimeException(String.format(\"Error creating component '%s' of type '%s'\", config.getId(), \"" + type.getQualifiedName() + "\"), e);");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Map<String, PropertyInfo> getProperties() {");
+            out.println("        return PROPERTIES;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public Class<?> getRawType() {");
+            out.println("        return " + type.getQualifiedName() + ".class;");
+            out.println("    }");
+            for (Entry<String, Setter> entry : properties.entrySet()) {
+                Setter setter = entry.getValue();
+                String binder = "bind" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, entry.getKey());
+                out.println();
+                out.println("    private static boolean " + binder + "(" + builderName + " builder, ConfigurationNode node) throws Exception {");
+                if (setter.dynamic) {
+                    // Invoke method only when the property exists.  Otherwise, let builder
+                    // plug-in default values
+                    out.println("        com.netflix.fabricator.supplier.ListenableSupplier<" + setter.valueType + "> value = node.getDynamicValue(" + setter.valueType + ".class);");
+                    out.println("        if (value == null) {");
+                    out.println("            return false;");
+                    out.println("        }");
+                    out.println("        if (value.get() != null) {");
+                    if (setter.primitiveFactory != null) {
+                        out.println("            builder." + setter.methodName + "(com.netflix.fabricator.supplier.PrimitiveSuppliers." + setter.primitiveFactory + "(value));");
+                    }
+                    else {
+                        out.println("            builder." + setter.methodName + "(value);");
+                    }
+                    out.println("        }");
+                    out.println("        return true;");
+                }
+                else {
+                    out.println("        " + setter.valueType + " value = node.getValue(" + setter.valueType + ".class);");
+                    out.println("        if (value == null) {");
+                    out.println("            return false;");
+                    out.println("        }");
+                    if (setter.isEnum) {
+                        out.println("        builder." + setter.methodName + "(" + setter.paramType + ".valueOf(value));");
+                    }
+                    else if (setter.isClass) {
+                        out.println("        builder." + setter.methodName + "(Class.forName(value));");
+                    }
+                    else {
+                        out.println("        builder." + setter.methodName + "(value);");
+                    }
+                    out.println("        return true;");
+                }
+                out.println("    }");
+            }
+            out.println("}");
+            out.flush();
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * javax.annotation.Generated was removed from the JDK in Java 11 and replaced by
+     * javax.annotation.processing.Generated in Java 9
+     * 
+     * @return Name of the annotation marking generated sources for the source version
+     */
+    private String getGeneratedAnnotation() {
+        if (processingEnv.getSourceVersion().compareTo(SourceVersion.RELEASE_8) > 0) {
+            return "javax.annotation.processing.Generated";
+        }
+        return "javax.annotation.Generated";
+    }
+
+    /**
+     * Determine how the property will be read from the configuration.
+     * @return The setter or null if the parameter type is not supported
+     */
+    private Setter createSetter(ExecutableElement method) {
+        String methodName = method.getSimpleName().toString();
+        TypeMirror param = method.getParameters().get(0).asType();
+
+        if (param.getKind().isPrimitive()) {
+            String boxed = processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType)param).getQualifiedName().toString();
+            if (isSimpleValueType(boxed)) {
+                return new Setter(methodName, param.toString(), boxed, false, false, false);
+            }
+            return null;
+        }
+
+        if (param.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        DeclaredType declared = (DeclaredType)param;
+        TypeElement  element  = (TypeElement)declared.asElement();
+        String       rawName  = element.getQualifiedName().toString();
+
+        if (element.getKind() == ElementKind.ENUM) {
+            return new Setter(methodName, rawName, String.class.getName(), false, true, false);
+        }
+        if (rawName.equals(Class.class.getName())) {
+            return new Setter(methodName, rawName, String.class.getName(), false, false, true);
+        }
+        if (rawName.equals(java.util.Properties.class.getName()) || isSimpleValueType(rawName)) {
+            return new Setter(methodName, rawName, rawName, false, false, false);
+        }
+        for (String[] primitiveSupplier : PRIMITIVE_SUPPLIER_TYPES) {
+            if (rawName.equals(primitiveSupplier[0])) {
+                Setter setter = new Setter(methodName, rawName, primitiveSupplier[1], true, false, false);
+                setter.primitiveFactory = primitiveSupplier[2];
+                return setter;
+            }
+        }
+        for (String supplierType : SUPPLIER_TYPES) {
+            if (rawName.equals(supplierType) && declared.getTypeArguments().size() == 1) {
+                TypeMirror arg = declared.getTypeArguments().get(0);
+                if (arg.getKind() == TypeKind.DECLARED) {
+                    String argName = ((TypeElement)((DeclaredType)arg).asElement()).getQualifiedName().toString();
+                    if (isSimpleValueType(argName)) {
+                        return new Setter(methodName, rawName, argName, true, false, false);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSimpleValueType(String name) {
+        return name.equals(String.class.getName())
+            || name.equals(Integer.class.getName())
+            || name.equals(Long.class.getName())
+            || name.equals(Double.class.getName())
+            || name.equals(Boolean.class.getName());
+    }
+
+    private static String getPropertyName(String methodName) {
+        if (methodName.startsWith(WITH_METHOD_PREFIX)) {
+            return CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, methodName.substring(WITH_METHOD_PREFIX.length()));
+        }
+        if (methodName.startsWith(SET_METHOD_PREFIX)) {
+            return CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, methodName.substring(SET_METHOD_PREFIX.length()));
+        }
+        return null;
+    }
+
+    private ExecutableElement findMethod(TypeElement type, String name, boolean isStatic) {
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(name)
+                    && method.getParameters().isEmpty()
+                    && method.getModifiers().contains(Modifier.PUBLIC)
+                    && method.getModifiers().contains(Modifier.STATIC) == isStatic) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasPublicDefaultConstructor(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT) || type.getKind() != ElementKind.CLASS) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasInjectMembers(TypeElement type) {
+        for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+            if (hasInjectAnnotation(member)) {
+                return true;
+            }
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (hasInjectAnnotation(constructor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasInjectAnnotation(Element element) {
+        for (javax.lang.model.element.AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = ((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            for (String inject : INJECT_ANNOTATIONS) {
+                if (name.equals(inject)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if the type, and all its enclosing types, can be referenced from generated code
+     */
+    private static boolean isAccessible(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            TypeElement current = (TypeElement)element;
+            if (!current.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            if (current.getNestingKind() == NestingKind.MEMBER && !current.getModifiers().contains(Modifier.STATIC) && current.getKind() == ElementKind.CLASS) {
+                return false;
+            }
+            element = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private void skip(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Kind.NOTE,
+                String.format("Not generating ComponentFactory for %s: %s", type.getQualifiedName(), reason));
+    }
+}
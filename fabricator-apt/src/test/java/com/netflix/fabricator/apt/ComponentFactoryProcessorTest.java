@@ -0,0 +1,119 @@
+package com.netflix.fabricator.apt;
+
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.component.ComponentFactory;
+import com.netflix.fabricator.component.GeneratedComponentFactories;
+import com.netflix.fabricator.properties.PropertiesComponentConfiguration;
+import com.netflix.fabricator.supplier.ListenableIntSupplier;
+
+public class ComponentFactoryProcessorTest {
+    public static enum Color {
+        RED, GREEN
+    }
+
+    @Type("simple")
+    public static class SimpleComponent {
+        public static class Builder {
+            private String id;
+            private String name;
+            private int    count;
+            private Color  color;
+            private Supplier<String> dynamic;
+            private ListenableIntSupplier limit;
+
+            public Builder withId(String id) {
+                this.id = id;
+                return this;
+            }
+
+            public Builder withName(String name) {
+                this.name = name;
+                return this;
+            }
+
+            public Builder withCount(int count) {
+                this.count = count;
+                return this;
+            }
+
+            public Builder withColor(Color color) {
+                this.color = color;
+                return this;
+            }
+
+            public Builder withDynamic(Supplier<String> dynamic) {
+                this.dynamic = dynamic;
+                return this;
+            }
+
+            public Builder withLimit(ListenableIntSupplier limit) {
+                this.limit = limit;
+                return this;
+            }
+
+            public SimpleComponent build() {
+                return new SimpleComponent(this);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final Builder builder;
+
+        private SimpleComponent(Builder builder) {
+            this.builder = builder;
+        }
+    }
+
+    public static interface Dependency {
+    }
+
+    @Type("injected")
+    public static class InjectedComponent {
+        public static class Builder {
+            public Builder withDependency(Dependency dependency) {
+                return this;
+            }
+
+            public InjectedComponent build() {
+                return new InjectedComponent();
+            }
+        }
+    }
+
+    @Test
+    public void testGeneratedFactory() throws Exception {
+        ComponentFactory<SimpleComponent> factory = GeneratedComponentFactories.find(SimpleComponent.class);
+        Assert.assertNotNull(factory);
+        Assert.assertEquals(SimpleComponent.class, factory.getRawType());
+        Assert.assertTrue(factory.getProperties().keySet().contains("name"));
+
+        Properties props = new Properties();
+        props.setProperty("id1.simple.name",    "foo");
+        props.setProperty("id1.simple.count",   "3");
+        props.setProperty("id1.simple.color",   "GREEN");
+        props.setProperty("id1.simple.dynamic", "bar");
+        props.setProperty("id1.simple.limit",   "7");
+
+        SimpleComponent component = factory.create(new PropertiesComponentConfiguration("id1", "simple", props, "id1.simple"));
+        Assert.assertEquals("id1",       component.builder.id);
+        Assert.assertEquals("foo",       component.builder.name);
+        Assert.assertEquals(3,           component.builder.count);
+        Assert.assertEquals(Color.GREEN, component.builder.color);
+        Assert.assertEquals("bar",       component.builder.dynamic.get());
+        Assert.assertEquals(7,           component.builder.limit.getAsInt());
+    }
+
+    @Test
+    public void testSkipsInjectedProperties() {
+        Assert.assertNull(GeneratedComponentFactories.find(InjectedComponent.class));
+    }
+}
@@ -1,11 +1,16 @@
 package com.netflix.fabricator.archaius;
 
+import java.lang.ref.WeakReference;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.configuration.AbstractConfiguration;
 import org.apache.commons.configuration.Configuration;
@@ -14,17 +19,27 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Function;
-import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.netflix.config.ConfigurationManager;
 import com.netflix.config.DynamicProperty;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.properties.AbstractPropertiesComponentConfiguration;
 import com.netflix.fabricator.supplier.ListenableSupplier;
+import com.netflix.fabricator.util.ChildNodeCache;
 
 public class ArchaiusComponentConfiguration extends AbstractPropertiesComponentConfiguration {
     private static final Logger LOG = LoggerFactory.getLogger(ArchaiusComponentConfiguration.class);
     
+    /**
+     * When true, dynamic values are parsed once and then only when the archaius property
+     * changes.  See {@link CachedListenableSupplier}.  Only affects suppliers created 
+     * after the flag was set.
+     */
+    public static final String CACHED_DYNAMIC_VALUES = "com.netflix.fabricator.archaius.cachedDynamicValues";
+    
     public static ArchaiusComponentConfiguration forPrefix(String prefix) {
         AbstractConfiguration config = ConfigurationManager.getConfigInstance();
         String type = config.getString(prefix + "type");
@@ -34,38 +49,214 @@ public class ArchaiusComponentConfiguration extends AbstractPropertiesComponentC
     
     private final AbstractConfiguration config;
     
+    /**
+     * Full names of the properties that have been bound to a dynamic value, shared by all
+     * configurations of the same resolver.  These are updated in place and are not 
+     * compared by equals().
+     */
+    private final Set<String> dynamicKeys;
+    
+    /**
+     * Values of all keys of the component when this configuration was resolved, or null
+     * if the values are not known.  See {@link #equals(Object)}.
+     */
+    private final Map<String, Object> values;
+    
     public ArchaiusComponentConfiguration(String id, String type, AbstractConfiguration config, String prefix) {
-        super(id, type, prefix);
-        this.config = config;
+        this(id, type, config, prefix, Sets.<String>newConcurrentHashSet(), null, null);
     }
 
     public ArchaiusComponentConfiguration(String id, String type, AbstractConfiguration config) {
         super(id, type);
-        this.config = config;
+        this.config      = config;
+        this.dynamicKeys = Sets.newConcurrentHashSet();
+        this.values      = null;
+    }
+    
+    ArchaiusComponentConfiguration(String id, String type, AbstractConfiguration config, String prefix, Set<String> dynamicKeys, Map<String, Object> values, ChildNodeCache cache) {
+        super(id, type, prefix, cache);
+        this.config      = config;
+        this.dynamicKeys = dynamicKeys;
+        this.values      = values;
+    }
+    
+    /**
+     * @return True if the key, or a prefix of the key, was bound to a dynamic value 
+     */
+    static boolean isDynamic(Set<String> dynamicKeys, String key) {
+        if (dynamicKeys.isEmpty()) {
+            return false;
+        }
+        while (true) {
+            if (dynamicKeys.contains(key)) {
+                return true;
+            }
+            int pos = key.lastIndexOf('.');
+            if (pos == -1) {
+                return false;
+            }
+            key = key.substring(0, pos);
+        }
     }
 
     public static abstract class DynamicListenableSupplier<T> implements ListenableSupplier<T> {
         private final DynamicProperty prop;
         
+        /**
+         * Callback added to the DynamicProperty for each onChange function 
+         */
+        private final ConcurrentMap<Function<T, Void>, Runnable> callbacks = Maps.newConcurrentMap();
+        
         DynamicListenableSupplier(DynamicProperty prop) {
             this.prop = prop;
         }
         
         @Override
         public void onChange(final Function<T, Void> func) {
-            prop.addCallback(new Runnable() {
+            Runnable callback = new Runnable() {
                 @Override
                 public void run() {
                     func.apply(get());
                 }
-            });
+            };
+            if (callbacks.putIfAbsent(func, callback) == null) {
+                prop.addCallback(callback);
+            }
+        }
+        
+        @Override
+        public void removeOnChange(Function<T, Void> func) {
+            Runnable callback = callbacks.remove(func);
+            if (callback != null) {
+                prop.removeCallback(callback);
+            }
+        }
+    }
+    
+    /**
+     * Supplier that keeps the last value read from the source in a volatile field, so that 
+     * get() does not go back to the DynamicProperty and parse the string every time.  The 
+     * value is refreshed from the DynamicProperty's change callback, after which the onChange 
+     * listeners are called.  If the new value fails to parse the previous value is kept.
+     * 
+     * The callback is registered before the initial value is read so that a change in 
+     * between is not lost.  It only holds a weak reference to the supplier and is removed 
+     * from the DynamicProperty on the first change after the supplier was collected.
+     */
+    public static class CachedListenableSupplier<T> implements ListenableSupplier<T> {
+        private final ListenableSupplier<T>   source;
+        private final List<Function<T, Void>> listeners = new CopyOnWriteArrayList<Function<T, Void>>();
+        private volatile T value;
+        
+        /**
+         * Set once a change was received.  Guarded by this.
+         */
+        private boolean changed = false;
+        
+        CachedListenableSupplier(DynamicProperty prop, ListenableSupplier<T> source) {
+            this.source = source;
+            
+            Runnable callback = weakCallback(new WeakReference<CachedListenableSupplier<T>>(this), prop);
+            prop.addCallback(callback);
+            
+            T initial;
+            try {
+                initial = source.get();
+            }
+            catch (RuntimeException e) {
+                prop.removeCallback(callback);
+                throw e;
+            }
+            synchronized (this) {
+                // A change received after registering is at least as recent as initial
+                if (!changed) {
+                    value = initial;
+                }
+            }
+        }
+        
+        /**
+         * Created in a static method since an anonymous class created by an instance 
+         * would hold a strong reference to it
+         */
+        private static <T> Runnable weakCallback(final WeakReference<CachedListenableSupplier<T>> ref, final DynamicProperty prop) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    CachedListenableSupplier<T> supplier = ref.get();
+                    if (supplier == null) {
+                        prop.removeCallback(this);
+                    }
+                    else {
+                        supplier.refresh(prop);
+                    }
+                }
+            };
+        }
+        
+        private void refresh(DynamicProperty prop) {
+            T next;
+            try {
+                next = source.get();
+            }
+            catch (Exception e) {
+                LOG.warn(String.format("Failed to read new value for '%s'. Keeping '%s'", prop.getName(), value), e);
+                return;
+            }
+            
+            // Depending on the archaius version a value that can't be parsed is either 
+            // an exception or null.  Null is only a valid value if the property was removed.
+            if (next == null && prop.getString() != null) {
+                LOG.warn(String.format("Failed to parse new value '%s' for '%s'. Keeping '%s'", prop.getString(), prop.getName(), value));
+                return;
+            }
+            
+            T current;
+            synchronized (this) {
+                value   = next;
+                changed = true;
+                current = next;
+            }
+            for (Function<T, Void> listener : listeners) {
+                listener.apply(current);
+            }
+        }
+        
+        @Override
+        public T get() {
+            return value;
+        }
+
+        @Override
+        public void onChange(Function<T, Void> func) {
+            listeners.add(func);
+        }
+
+        @Override
+        public void removeOnChange(Function<T, Void> func) {
+            listeners.remove(func);
         }
     }
     
-    @SuppressWarnings("unchecked")
     @Override
     public <T> ListenableSupplier<T> getDynamicValue(Class<T> type) {
         final DynamicProperty prop = DynamicProperty.getInstance(getFullName());
+        final ListenableSupplier<T> supplier = getUncachedDynamicValue(prop, type);
+        if (supplier != null) {
+            dynamicKeys.add(getFullName());
+        }
+        
+        // Properties are read from many keys which are not covered by the callback on prop
+        if (supplier != null
+                && !Properties.class.isAssignableFrom(type)
+                && config.getBoolean(CACHED_DYNAMIC_VALUES, false)) {
+            return new CachedListenableSupplier<T>(prop, supplier);
+        }
+        return supplier;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> ListenableSupplier<T> getUncachedDynamicValue(final DynamicProperty prop, Class<T> type) {
         if ( String.class.isAssignableFrom(type) ) {
             return (ListenableSupplier<T>) new DynamicListenableSupplier<String>(prop) {
                 @Override
@@ -142,14 +333,13 @@ public class ArchaiusComponentConfiguration extends AbstractPropertiesComponentC
     }
 
     @Override
-    public ConfigurationNode getChild(String name) {
-        String fullName = Joiner.on(".").skipNulls().join(getFullName(), name);
-        
-        return new ArchaiusComponentConfiguration(
-                name, 
-                config.getString(Joiner.on(".").skipNulls().join(fullName, "type")),
-                config, 
-                fullName);
+    protected ConfigurationNode createChild(String name, String fullName) {
+        return new ArchaiusComponentConfiguration(name, null, config, fullName, dynamicKeys, null, getChildNodeCache());
+    }
+
+    @Override
+    protected String lookupType(String typeName) {
+        return config.getString(typeName);
     }
 
     @Override
@@ -230,4 +420,45 @@ public class ArchaiusComponentConfiguration extends AbstractPropertiesComponentC
             return null;
         }
     }
+    
+    /**
+     * Configurations are equal if they refer to the same prefix of the same underlying
+     * configuration.  Configurations resolved by ArchaiusTypeConfigurationResolver also
+     * keep the values of their keys when they were resolved, and must have the same
+     * values for all keys that are not bound to a dynamic value.  This is the same rule
+     * the resolver uses to report changes to an ObservableComponentConfigurationResolver
+     * listener.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId(), getType(), getFullName(), System.identityHashCode(config));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        ArchaiusComponentConfiguration other = (ArchaiusComponentConfiguration) obj;
+        return config == other.config
+            && Objects.equal(getId(),       other.getId())
+            && Objects.equal(getType(),     other.getType())
+            && Objects.equal(getFullName(), other.getFullName())
+            && staticValuesEqual(other);
+    }
+    
+    private boolean staticValuesEqual(ArchaiusComponentConfiguration other) {
+        if (values == null || other.values == null) {
+            return values == other.values;
+        }
+        for (String key : Sets.union(values.keySet(), other.values.keySet())) {
+            if (!isDynamic(dynamicKeys, key) && !Objects.equal(values.get(key), other.values.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,40 @@
+package com.netflix.fabricator.archaius;
+
+import java.util.Iterator;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+
+import com.google.common.base.Joiner;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.fabricator.snapshot.ConfigurationSnapshot;
+
+/**
+ * Build a {@link ConfigurationSnapshot} from the current state of an archaius
+ * configuration.  Values split into lists by the configuration are joined back
+ * using the configuration's list delimiter.
+ */
+public final class ArchaiusConfigurationSnapshots {
+    private ArchaiusConfigurationSnapshots() {
+    }
+
+    public static ConfigurationSnapshot from(AbstractConfiguration config) {
+        ConfigurationSnapshot.Builder builder = ConfigurationSnapshot.builder();
+        Joiner joiner = Joiner.on(config.getListDelimiter());
+        Iterator<String> keys = config.getKeys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            String[] values = config.getStringArray(key);
+            if (values.length > 0) {
+                builder.put(key, joiner.join(values));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return Snapshot of the archaius configuration returned by ConfigurationManager
+     */
+    public static ConfigurationSnapshot current() {
+        return from(ConfigurationManager.getConfigInstance());
+    }
+}
@@ -1,23 +1,36 @@
 package com.netflix.fabricator.archaius;
 
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.commons.configuration.AbstractConfiguration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
 import org.apache.commons.lang.StringUtils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.config.ConcurrentCompositeConfiguration;
 import com.netflix.config.ConfigurationManager;
+import com.netflix.fabricator.ComponentConfigurationListener;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.ComponentConfigurationResolver;
+import com.netflix.fabricator.ObservableComponentConfigurationResolver;
 import com.netflix.fabricator.TypeConfigurationResolver;
 import com.netflix.fabricator.jackson.JacksonComponentConfiguration;
+import com.netflix.fabricator.jackson.JsonNodeCache;
+import com.netflix.fabricator.util.ChildNodeCache;
+import com.netflix.fabricator.util.ConfigurationKeyIndex;
 
 /**
  * Main configuration access using Archaius as the configuration source.
@@ -33,6 +46,16 @@ import com.netflix.fabricator.jackson.JacksonComponentConfiguration;
  *  'type' is the component interface type and not the type of a specified
  *         implementation of the compoennt
  *  
+ * A component's configuration changes when any of its keys changes, except for keys
+ * bound to a dynamic value (a Supplier or ListenableSupplier builder property), which 
+ * update the component in place.  This applies both to the ids reported to a 
+ * ComponentConfigurationListener and to equals() of the configurations returned by
+ * getAllConfigurations().
+ * 
+ * The global archaius configuration is only listened to while a listener is registered
+ * with one of the resolvers returned by getConfigurationFactory(), so a resolver that 
+ * nobody observes can simply be dropped.  Keys are then indexed on every lookup.
+ *  
  * @author elandau
  *
  */
@@ -48,6 +71,63 @@ public class ArchaiusTypeConfigurationResolver implements TypeConfigurationResol
     
     private final ObjectMapper mapper = new ObjectMapper();
     
+    private final JsonNodeCache jsonCache = new JsonNodeCache(mapper);
+    
+    /**
+     * Children of the configurations returned by this resolver, by full property name 
+     * and by JsonNode.  See {@link ChildNodeCache}.
+     */
+    private final ChildNodeCache propertyChildren = ChildNodeCache.byName();
+    private final ChildNodeCache jsonChildren     = ChildNodeCache.byIdentity();
+    
+    /**
+     * Index of all keys by type and id.  Built when the first listener is added and
+     * then kept up to date from configuration change events until the last listener
+     * is removed.
+     */
+    private final ConfigurationKeyIndex index = new ConfigurationKeyIndex();
+    
+    /**
+     * Number of ObservableResolvers with at least one listener.  Guarded by index.
+     */
+    private int observers = 0;
+    
+    /**
+     * Full names of the properties bound to a dynamic value by any configuration of this resolver
+     */
+    private final Set<String> dynamicKeys = Sets.newConcurrentHashSet();
+    
+    /**
+     * Keeps the index up to date
+     */
+    private final ConfigurationListener indexListener = new ConfigurationListener() {
+        @Override
+        public void configurationChanged(ConfigurationEvent event) {
+            if (event.isBeforeUpdate()) {
+                return;
+            }
+            
+            switch (event.getType()) {
+            case AbstractConfiguration.EVENT_ADD_PROPERTY:
+            case AbstractConfiguration.EVENT_SET_PROPERTY:
+                index.add(event.getPropertyName());
+                break;
+            case AbstractConfiguration.EVENT_CLEAR_PROPERTY:
+                // The key may still be provided by another configuration in the composite
+                if (!config.containsKey(event.getPropertyName())) {
+                    index.remove(event.getPropertyName());
+                }
+                break;
+            case AbstractConfiguration.EVENT_CLEAR:
+            case ConcurrentCompositeConfiguration.EVENT_CONFIGURATION_SOURCE_CHANGED:
+                index.rebuild(config.getKeys());
+                break;
+            default:
+                break;
+            }
+        }
+    };
+    
     @Inject
     public ArchaiusTypeConfigurationResolver(Map<String, ComponentConfigurationResolver> overrides) {
         if (overrides == null) {
@@ -58,68 +138,203 @@ public class ArchaiusTypeConfigurationResolver implements TypeConfigurationResol
         }
     }
     
+    /**
+     * Stop keeping the index up to date even though listeners are still registered.  
+     * Keys are indexed on every lookup from then on.
+     */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (index) {
+            if (observers > 0) {
+                observers = 0;
+                config.removeConfigurationListener(indexListener);
+            }
+        }
+    }
+    
+    private void startIndexing() {
+        synchronized (index) {
+            if (observers++ == 0) {
+                // Register before building the index so no updates are missed
+                config.addConfigurationListener(indexListener);
+                index.rebuild(config.getKeys());
+            }
+        }
+    }
+    
+    private void stopIndexing() {
+        synchronized (index) {
+            if (observers > 0 && --observers == 0) {
+                config.removeConfigurationListener(indexListener);
+            }
+        }
+    }
+    
+    /**
+     * @return The maintained index while it is kept up to date, otherwise a new index 
+     *         of the current keys
+     */
+    private ConfigurationKeyIndex getIndex() {
+        synchronized (index) {
+            if (observers > 0) {
+                return index;
+            }
+        }
+        ConfigurationKeyIndex keys = new ConfigurationKeyIndex();
+        keys.rebuild(config.getKeys());
+        return keys;
+    }
+    
     @Override
     public ComponentConfigurationResolver getConfigurationFactory(final String componentType) {
         ComponentConfigurationResolver factory = overrides.get(componentType);
         if (factory != null)
             return factory;
         
-        return new ComponentConfigurationResolver() {
-            @Override
-            public ConfigurationNode getConfiguration(final String key) {
-                String prefix    = String.format(DEFAULT_FORMAT_STRING, key, componentType);
-                
-                if (config.containsKey(prefix)) {
-                    String json = Joiner.on(config.getListDelimiter()).join(config.getStringArray(prefix)).trim();
-                    if (!json.isEmpty() && json.startsWith("{") && json.endsWith("}")) {
-                        try {
-                            JsonNode node = mapper.readTree(json);
-                            if (node.get(TYPE_FIELD) == null)
-                                throw new Exception("Missing 'type' field");
-                            return new JacksonComponentConfiguration(key, node.get(TYPE_FIELD).asText(), node);
-                        } catch (Exception e) {
-                            throw new RuntimeException(
-                                    String.format("Unable to parse json from '%s'. (%s)", 
-                                            prefix, 
-                                            StringUtils.abbreviate(json, 256)), 
-                                    e);
-                        }
+        return new ObservableResolver(componentType);
+    }
+    
+    /**
+     * Resolver for a single component type that follows the ${id}.${type} naming convention.
+     * Changes are observed by registering a ConfigurationListener with the underlying
+     * configuration once the first listener is added, which also starts maintaining the 
+     * index.
+     */
+    private class ObservableResolver implements ObservableComponentConfigurationResolver, ConfigurationListener {
+        private final String componentType;
+        private final List<ComponentConfigurationListener> listeners = new CopyOnWriteArrayList<ComponentConfigurationListener>();
+        
+        ObservableResolver(String componentType) {
+            this.componentType = componentType;
+        }
+        
+        @Override
+        public ConfigurationNode getConfiguration(final String key) {
+            return getConfiguration(key, null);
+        }
+        
+        /**
+         * @param keys Index to use or null to get one only if it is needed
+         */
+        private ConfigurationNode getConfiguration(final String key, ConfigurationKeyIndex keys) {
+            String prefix    = String.format(DEFAULT_FORMAT_STRING, key, componentType);
+            
+            if (config.containsKey(prefix)) {
+                String json = Joiner.on(config.getListDelimiter()).join(config.getStringArray(prefix)).trim();
+                if (!json.isEmpty() && json.startsWith("{") && json.endsWith("}")) {
+                    try {
+                        JsonNode node = jsonCache.readTree(json);
+                        if (node.get(TYPE_FIELD) == null)
+                            throw new Exception("Missing 'type' field");
+                        return new JacksonComponentConfiguration(key, node.get(TYPE_FIELD).asText(), node, jsonChildren);
+                    } catch (Exception e) {
+                        throw new RuntimeException(
+                                String.format("Unable to parse json from '%s'. (%s)", 
+                                        prefix, 
+                                        StringUtils.abbreviate(json, 256)), 
+                                e);
                     }
                 }
+            }
 
-                String typeField = Joiner.on(".").join(prefix, TYPE_FIELD);
-                String typeValue = config.getString(typeField);
-                
-                if (componentType == null) {
-                    throw new RuntimeException(String.format("Type for '%s' not specified '%s'", typeField, componentType));
-                }
-                
-                return new ArchaiusComponentConfiguration(
-                        key,
-                        typeValue,
-                        config,
-                        prefix);
+            String typeField = prefix + "." + TYPE_FIELD;
+            String typeValue = config.getString(typeField);
+            
+            if (componentType == null) {
+                throw new RuntimeException(String.format("Type for '%s' not specified '%s'", typeField, componentType));
+            }
+            
+            if (keys == null) {
+                keys = getIndex();
+            }
+            Map<String, Object> values = Maps.newHashMap();
+            for (String name : keys.getKeys(componentType, key)) {
+                values.put(name, config.getProperty(name));
+            }
+            
+            return new ArchaiusComponentConfiguration(
+                    key,
+                    typeValue,
+                    config,
+                    prefix,
+                    dynamicKeys,
+                    values,
+                    propertyChildren);
+        }
+
+        @Override
+        public Map<String, ConfigurationNode> getAllConfigurations() {
+            ConfigurationKeyIndex keys = getIndex();
+            Map<String, ConfigurationNode> configs = Maps.newHashMap();
+            for (String id : keys.getIds(componentType)) {
+                configs.put(id, getConfiguration(id, keys));
+            }
+            return configs;
+        }
+
+        @Override
+        public boolean hasConfiguration(String id) {
+            return getIndex().contains(componentType, id);
+        }
+
+        @Override
+        public synchronized void addListener(ComponentConfigurationListener listener) {
+            if (listeners.isEmpty()) {
+                startIndexing();
+                config.addConfigurationListener(this);
+            }
+            listeners.add(listener);
+        }
+
+        @Override
+        public synchronized void removeListener(ComponentConfigurationListener listener) {
+            if (listeners.remove(listener) && listeners.isEmpty()) {
+                config.removeConfigurationListener(this);
+                stopIndexing();
             }
+        }
 
-            @Override
-            public Map<String, ConfigurationNode> getAllConfigurations() {
-                Map<String, ConfigurationNode> configs = Maps.newHashMap();
-                Iterator<String> keys = config.getKeys();
-                while (keys.hasNext()) {
-                    String key = keys.next();
-                    String[] parts = StringUtils.split(key, ".");
-                    if (parts.length > 1) {
-                        String type = parts[1];
-                        if (type.equals(componentType)) {
-                            String id = parts[0];
-                            if (!configs.containsKey(id)) {
-                                configs.put(id, getConfiguration(id));
-                            }
-                        }
+        @Override
+        public void configurationChanged(ConfigurationEvent event) {
+            if (event.isBeforeUpdate()) {
+                return;
+            }
+            
+            switch (event.getType()) {
+            case AbstractConfiguration.EVENT_ADD_PROPERTY:
+            case AbstractConfiguration.EVENT_SET_PROPERTY:
+            case AbstractConfiguration.EVENT_CLEAR_PROPERTY:
+                String id = getComponentId(event.getPropertyName());
+                // Dynamic values update in place unless the whole component was removed
+                if (id != null && (!ArchaiusComponentConfiguration.isDynamic(dynamicKeys, event.getPropertyName()) 
+                                   || !getIndex().contains(componentType, id))) {
+                    Set<String> ids = Collections.singleton(id);
+                    for (ComponentConfigurationListener listener : listeners) {
+                        listener.onChange(ids);
                     }
                 }
-                return configs;
+                break;
+            case AbstractConfiguration.EVENT_CLEAR:
+            case ConcurrentCompositeConfiguration.EVENT_CONFIGURATION_SOURCE_CHANGED:
+                for (ComponentConfigurationListener listener : listeners) {
+                    listener.onReset();
+                }
+                break;
+            default:
+                break;
             }
-        };
+        }
+        
+        /**
+         * @return Id of the component of this type to which the key belongs or null 
+         *         if the key does not belong to a component of this type
+         */
+        private String getComponentId(String key) {
+            String[] parts = ConfigurationKeyIndex.split(key);
+            if (parts != null && parts[1].equals(componentType)) {
+                return parts[0];
+            }
+            return null;
+        }
     }
 }
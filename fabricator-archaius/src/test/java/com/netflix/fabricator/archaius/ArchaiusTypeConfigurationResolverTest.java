@@ -1,15 +1,62 @@
 package com.netflix.fabricator.archaius;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
 import com.netflix.config.ConfigurationManager;
+import com.netflix.config.DynamicProperty;
+import com.netflix.fabricator.ComponentConfigurationListener;
 import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.ObservableComponentConfigurationResolver;
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.component.ComponentManager;
+import com.netflix.fabricator.component.SynchronizedComponentManager;
+import com.netflix.fabricator.guice.ComponentModuleBuilder;
+import com.netflix.fabricator.supplier.ListenableIntSupplier;
+import com.netflix.fabricator.supplier.ListenableSupplier;
 
 public class ArchaiusTypeConfigurationResolverTest {
+    @Type("primitivetype")
+    public static class PrimitiveComponent {
+        public static class Builder {
+            private ListenableIntSupplier limit;
+
+            public Builder withLimit(ListenableIntSupplier limit) {
+                this.limit = limit;
+                return this;
+            }
+
+            public PrimitiveComponent build() {
+                return new PrimitiveComponent(this);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final ListenableIntSupplier limit;
+
+        private PrimitiveComponent(Builder builder) {
+            this.limit = builder.limit;
+        }
+    }
+
     @Test
     public void testReadAll() {
         Properties properties = new Properties();
@@ -33,4 +80,203 @@ public class ArchaiusTypeConfigurationResolverTest {
         Assert.assertEquals(1, someOtherTypeConfigs.keySet().size());
         Assert.assertEquals("_a", someOtherTypeConfigs.get("id1").getChild("a").getValue(String.class));
     }
+    
+    @Test
+    public void testChangeNotification() {
+        ArchaiusTypeConfigurationResolver resolver = new ArchaiusTypeConfigurationResolver(null);
+        ObservableComponentConfigurationResolver typeResolver = (ObservableComponentConfigurationResolver)resolver.getConfigurationFactory("observedtype");
+        
+        final Set<String> changed = Sets.newHashSet();
+        ComponentConfigurationListener listener = new ComponentConfigurationListener() {
+            @Override
+            public void onChange(Set<String> ids) {
+                changed.addAll(ids);
+            }
+
+            @Override
+            public void onReset() {
+            }
+        };
+        typeResolver.addListener(listener);
+        
+        ConfigurationManager.getConfigInstance().setProperty("id1.observedtype.a", "_a1");
+        ConfigurationManager.getConfigInstance().setProperty("id2.othertype.a", "_a2");
+        Assert.assertEquals(ImmutableSet.of("id1"), changed);
+        Assert.assertTrue(typeResolver.hasConfiguration("id1"));
+        
+        changed.clear();
+        ConfigurationManager.getConfigInstance().clearProperty("id1.observedtype.a");
+        Assert.assertEquals(ImmutableSet.of("id1"), changed);
+        Assert.assertFalse(typeResolver.hasConfiguration("id1"));
+        
+        changed.clear();
+        typeResolver.removeListener(listener);
+        ConfigurationManager.getConfigInstance().setProperty("id1.observedtype.a", "_a1");
+        Assert.assertTrue(changed.isEmpty());
+    }
+
+    /**
+     * Changes to keys bound to a dynamic value are neither reported to listeners nor 
+     * make configurations unequal, while changes to any other key are.
+     */
+    @Test
+    public void testDynamicKeysAreNotChanges() {
+        ConfigurationManager.getConfigInstance().setProperty("id1.detecttype.a", "1");
+        ConfigurationManager.getConfigInstance().setProperty("id1.detecttype.b", "x");
+        
+        int listenerCount = ConfigurationManager.getConfigInstance().getConfigurationListeners().size();
+        ArchaiusTypeConfigurationResolver resolver = new ArchaiusTypeConfigurationResolver(null);
+        ObservableComponentConfigurationResolver typeResolver = (ObservableComponentConfigurationResolver)resolver.getConfigurationFactory("detecttype");
+        
+        final Set<String> changed = Sets.newHashSet();
+        ComponentConfigurationListener listener = new ComponentConfigurationListener() {
+            @Override
+            public void onChange(Set<String> ids) {
+                changed.addAll(ids);
+            }
+
+            @Override
+            public void onReset() {
+            }
+        };
+        typeResolver.addListener(listener);
+        // The resolver's own listener and the index listener
+        Assert.assertEquals(listenerCount + 2, ConfigurationManager.getConfigInstance().getConfigurationListeners().size());
+        try {
+            ConfigurationNode before = typeResolver.getAllConfigurations().get("id1");
+            ListenableSupplier<String> b = before.getChild("b").getDynamicValue(String.class);
+            
+            ConfigurationManager.getConfigInstance().setProperty("id1.detecttype.b", "y");
+            Assert.assertEquals("y", b.get());
+            Assert.assertTrue(changed.isEmpty());
+            Assert.assertEquals(before, typeResolver.getAllConfigurations().get("id1"));
+            
+            ConfigurationManager.getConfigInstance().setProperty("id1.detecttype.a", "2");
+            Assert.assertEquals(ImmutableSet.of("id1"), changed);
+            Assert.assertFalse(before.equals(typeResolver.getAllConfigurations().get("id1")));
+            
+            // Removing the last key removes the component even if it is dynamic
+            ConfigurationManager.getConfigInstance().clearProperty("id1.detecttype.a");
+            changed.clear();
+            ConfigurationManager.getConfigInstance().clearProperty("id1.detecttype.b");
+            Assert.assertEquals(ImmutableSet.of("id1"), changed);
+            Assert.assertFalse(typeResolver.hasConfiguration("id1"));
+        }
+        finally {
+            // Dynamic values may have registered archaius' own listener in the meantime
+            listenerCount = ConfigurationManager.getConfigInstance().getConfigurationListeners().size();
+            typeResolver.removeListener(listener);
+        }
+        Assert.assertEquals(listenerCount - 2, ConfigurationManager.getConfigInstance().getConfigurationListeners().size());
+    }
+    
+    /**
+     * A resolver without listeners doesn't register with the global configuration but 
+     * still sees keys added after it was created
+     */
+    @Test
+    public void testUnobservedResolverDoesNotListen() {
+        int listenerCount = ConfigurationManager.getConfigInstance().getConfigurationListeners().size();
+        ArchaiusTypeConfigurationResolver resolver = new ArchaiusTypeConfigurationResolver(null);
+        ObservableComponentConfigurationResolver typeResolver = (ObservableComponentConfigurationResolver)resolver.getConfigurationFactory("unobservedtype");
+        Assert.assertTrue(typeResolver.getAllConfigurations().isEmpty());
+        
+        ConfigurationManager.getConfigInstance().setProperty("id1.unobservedtype.a", "_a1");
+        Assert.assertTrue(typeResolver.hasConfiguration("id1"));
+        Assert.assertEquals(ImmutableSet.of("id1"), typeResolver.getAllConfigurations().keySet());
+        Assert.assertEquals("_a1", typeResolver.getConfiguration("id1").getChild("a").getValue(String.class));
+        Assert.assertEquals(listenerCount, ConfigurationManager.getConfigInstance().getConfigurationListeners().size());
+    }
+
+    @Test
+    public void testPrimitiveSupplier() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("id1.primitivetype.limit", "10");
+
+        Injector injector = Guice.createInjector(
+                new ArchaiusConfigurationModule(),
+                new ComponentModuleBuilder<PrimitiveComponent>()
+                    .manager(SynchronizedComponentManager.class)
+                    .build(PrimitiveComponent.class));
+        PrimitiveComponent component = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<PrimitiveComponent>>() {})).get("id1");
+        Assert.assertEquals(10, component.limit.getAsInt());
+
+        final int[] notified = new int[1];
+        component.limit.onChange(new Function<Integer, Void>() {
+            @Override
+            public Void apply(Integer value) {
+                notified[0] = value;
+                return null;
+            }
+        });
+
+        ConfigurationManager.getConfigInstance().setProperty("id1.primitivetype.limit", "20");
+        Assert.assertEquals(20, component.limit.getAsInt());
+        Assert.assertEquals(20, notified[0]);
+
+        // Keep the last value when the property is removed
+        ConfigurationManager.getConfigInstance().clearProperty("id1.primitivetype.limit");
+        Assert.assertEquals(20, component.limit.getAsInt());
+    }
+
+    @Test
+    public void testCachedDynamicValue() {
+        ConfigurationManager.getConfigInstance().setProperty(ArchaiusComponentConfiguration.CACHED_DYNAMIC_VALUES, true);
+        try {
+            ConfigurationManager.getConfigInstance().setProperty("id1.cachedtype.a", "1");
+            ArchaiusTypeConfigurationResolver resolver = new ArchaiusTypeConfigurationResolver(null);
+            ListenableSupplier<Integer> supplier = resolver.getConfigurationFactory("cachedtype").getConfiguration("id1").getChild("a").getDynamicValue(Integer.class);
+            Assert.assertTrue(supplier instanceof ArchaiusComponentConfiguration.CachedListenableSupplier);
+            Assert.assertEquals(1, supplier.get().intValue());
+
+            final List<Integer> notified = Lists.newArrayList();
+            supplier.onChange(new Function<Integer, Void>() {
+                @Override
+                public Void apply(Integer value) {
+                    notified.add(value);
+                    return null;
+                }
+            });
+
+            ConfigurationManager.getConfigInstance().setProperty("id1.cachedtype.a", "2");
+            Assert.assertEquals(2, supplier.get().intValue());
+            Assert.assertEquals(ImmutableList.of(2), notified);
+
+            // A value that can't be parsed keeps the previous value
+            ConfigurationManager.getConfigInstance().setProperty("id1.cachedtype.a", "abc");
+            Assert.assertEquals(2, supplier.get().intValue());
+            Assert.assertEquals(ImmutableList.of(2), notified);
+        }
+        finally {
+            ConfigurationManager.getConfigInstance().clearProperty(ArchaiusComponentConfiguration.CACHED_DYNAMIC_VALUES);
+        }
+    }
+
+    /**
+     * Sources that return null for a value that can't be parsed keep the previous value,
+     * while removing the property clears it
+     */
+    @Test
+    public void testCachedDynamicValueParsedAsNull() {
+        ConfigurationManager.getConfigInstance().setProperty("id1.nulltype.a", "1");
+        final DynamicProperty prop = DynamicProperty.getInstance("id1.nulltype.a");
+        ListenableSupplier<Integer> source = new ListenableSupplier<Integer>() {
+            @Override
+            public Integer get() {
+                return prop.getString() == null ? null : Ints.tryParse(prop.getString());
+            }
+
+            @Override
+            public void onChange(Function<Integer, Void> func) {
+            }
+        };
+        
+        ArchaiusComponentConfiguration.CachedListenableSupplier<Integer> supplier = new ArchaiusComponentConfiguration.CachedListenableSupplier<Integer>(prop, source);
+        Assert.assertEquals(1, supplier.get().intValue());
+        
+        ConfigurationManager.getConfigInstance().setProperty("id1.nulltype.a", "abc");
+        Assert.assertEquals(1, supplier.get().intValue());
+        
+        ConfigurationManager.getConfigInstance().clearProperty("id1.nulltype.a");
+        Assert.assertNull(supplier.get());
+    }
 }
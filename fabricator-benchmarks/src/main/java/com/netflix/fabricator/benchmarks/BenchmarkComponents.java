@@ -0,0 +1,198 @@
+package com.netflix.fabricator.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.fabricator.annotations.Type;
+
+/**
+ * Components used by the benchmarks.  Each kind exercises a different part of the
+ * binding pipeline.
+ *
+ * - flat      Only simple and dynamic properties
+ * - embedded  A property that is itself a component created from a nested configuration
+ * - named     A property resolved from a named Guice binding
+ */
+public final class BenchmarkComponents {
+    private BenchmarkComponents() {
+    }
+
+    public static final String ID = "bench";
+
+    public static enum Kind {
+        flat(FlatComponent.class, ImmutableMap.<String, String>builder()
+                .put("name",     "flat-component")
+                .put("host",     "localhost")
+                .put("port",     "8080")
+                .put("timeout",  "1000")
+                .put("ratio",    "0.75")
+                .put("enabled",  "true")
+                .put("unit",     "SECONDS")
+                .put("clazz",    "java.lang.String")
+                .put("dynamic",  "dynamic-value")
+                .build()),
+        embedded(EmbeddedComponent.class, ImmutableMap.<String, String>builder()
+                .put("name",         "embedded-component")
+                .put("policy.type",  "simple")
+                .put("policy.limit", "10")
+                .put("policy.name",  "policy")
+                .build()),
+        named(NamedComponent.class, ImmutableMap.<String, String>builder()
+                .put("name",       "named-component")
+                .put("dependency", "dep1")
+                .build());
+
+        private final Class<?>            type;
+        private final Map<String, String> properties;
+
+        Kind(Class<?> type, Map<String, String> properties) {
+            this.type       = type;
+            this.properties = properties;
+        }
+
+        public Class<?> getComponentClass() {
+            return type;
+        }
+
+        /**
+         * @return Property names relative to the component's prefix mapped to their values
+         */
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+    }
+
+    @Type("flat")
+    public static class FlatComponent {
+        public static class Builder {
+            private String   name;
+            private String   host;
+            private int      port;
+            private long     timeout;
+            private double   ratio;
+            private boolean  enabled;
+            private TimeUnit unit;
+            private Class<?> clazz;
+            private Supplier<String> dynamic;
+
+            public Builder withName(String name)        { this.name = name;       return this; }
+            public Builder withHost(String host)        { this.host = host;       return this; }
+            public Builder withPort(int port)           { this.port = port;       return this; }
+            public Builder withTimeout(long timeout)    { this.timeout = timeout; return this; }
+            public Builder withRatio(double ratio)      { this.ratio = ratio;     return this; }
+            public Builder withEnabled(boolean enabled) { this.enabled = enabled; return this; }
+            public Builder withUnit(TimeUnit unit)      { this.unit = unit;       return this; }
+            public Builder withClazz(Class<?> clazz)    { this.clazz = clazz;     return this; }
+            public Builder withDynamic(Supplier<String> dynamic) { this.dynamic = dynamic; return this; }
+
+            public FlatComponent build() {
+                return new FlatComponent(this);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final Builder builder;
+
+        private FlatComponent(Builder builder) {
+            this.builder = builder;
+        }
+
+        public String getName() {
+            return builder.name;
+        }
+    }
+
+    public static interface Policy {
+    }
+
+    public static class SimplePolicy implements Policy {
+        public static class Builder {
+            private int    limit;
+            private String name;
+
+            public Builder withLimit(int limit)   { this.limit = limit; return this; }
+            public Builder withName(String name)  { this.name = name;   return this; }
+
+            public SimplePolicy build() {
+                return new SimplePolicy(this);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final int    limit;
+        private final String name;
+
+        private SimplePolicy(Builder builder) {
+            this.limit = builder.limit;
+            this.name  = builder.name;
+        }
+    }
+
+    @Type("embedded")
+    public static class EmbeddedComponent {
+        public static class Builder {
+            private String name;
+            private Policy policy;
+
+            public Builder withName(String name)     { this.name = name;     return this; }
+            public Builder withPolicy(Policy policy) { this.policy = policy; return this; }
+
+            public EmbeddedComponent build() {
+                return new EmbeddedComponent(this);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final String name;
+        private final Policy policy;
+
+        private EmbeddedComponent(Builder builder) {
+            this.name   = builder.name;
+            this.policy = builder.policy;
+        }
+    }
+
+    public static interface Dependency {
+    }
+
+    public static class SimpleDependency implements Dependency {
+    }
+
+    @Type("named")
+    public static class NamedComponent {
+        public static class Builder {
+            private String     name;
+            private Dependency dependency;
+
+            public Builder withName(String name)                 { this.name = name;             return this; }
+            public Builder withDependency(Dependency dependency)  { this.dependency = dependency; return this; }
+
+            public NamedComponent build() {
+                return new NamedComponent(this);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final String     name;
+        private final Dependency dependency;
+
+        private NamedComponent(Builder builder) {
+            this.name       = builder.name;
+            this.dependency = builder.dependency;
+        }
+    }
+}
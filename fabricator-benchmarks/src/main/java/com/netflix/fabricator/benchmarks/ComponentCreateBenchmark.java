@@ -0,0 +1,199 @@
+package com.netflix.fabricator.benchmarks;
+
+import java.io.File;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Types;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.TypeConfigurationResolver;
+import com.netflix.fabricator.annotations.Default;
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.archaius.ArchaiusTypeConfigurationResolver;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.Dependency;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.EmbeddedComponent;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.FlatComponent;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.Kind;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.NamedComponent;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.Policy;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.SimpleDependency;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.SimplePolicy;
+import com.netflix.fabricator.component.ComponentFactory;
+import com.netflix.fabricator.component.SynchronizedComponentManager;
+import com.netflix.fabricator.guice.ComponentModuleBuilder;
+import com.netflix.fabricator.properties.PropertiesConfigurationModule;
+import com.netflix.fabricator.properties.PropertiesTypeConfigurationResolver;
+import com.netflix.fabricator.snapshot.ConfigurationBundle;
+import com.netflix.fabricator.snapshot.ConfigurationBundleCompiler;
+import com.netflix.fabricator.snapshot.ConfigurationSnapshot;
+import com.netflix.fabricator.snapshot.SnapshotTypeConfigurationResolver;
+
+/**
+ * End to end cost of ComponentFactory.create() for a single component, which is the
+ * path taken by ComponentManager.get() on a miss and by every refresh cycle.
+ *
+ * The configuration node is resolved once during setup so that only property binding
+ * and the builder's build() are measured.  Run with '-prof gc' to also report the
+ * allocation rate per operation.
+ *
+ * - kind      Which builder to create.  See {@link BenchmarkComponents}
+ * - source    properties : flat .properties keys
+ *             jackson    : a single json blob stored in a property
+ *             archaius   : keys stored in the archaius configuration
+ *             snapshot   : flat keys read from an immutable ConfigurationSnapshot
+ *             bundle     : flat keys read from a memory mapped ConfigurationBundle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentCreateBenchmark {
+    @Param({"flat", "embedded", "named"})
+    public String kind;
+
+    @Param({"properties", "jackson", "archaius", "snapshot", "bundle"})
+    public String source;
+
+    private ComponentFactory<?> factory;
+    private ConfigurationNode   node;
+    private String              prefix;
+    private File                bundleFile;
+    private ArchaiusTypeConfigurationResolver archaiusResolver;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Kind k = Kind.valueOf(kind);
+        String type = k.getComponentClass().getAnnotation(Type.class).value();
+        prefix = BenchmarkComponents.ID + "." + type;
+
+        Properties props = new Properties();
+        TypeConfigurationResolver resolver;
+        if (source.equals("properties")) {
+            for (Entry<String, String> entry : k.getProperties().entrySet()) {
+                props.setProperty(prefix + "." + entry.getKey(), entry.getValue());
+            }
+            resolver = new PropertiesTypeConfigurationResolver(props, null);
+        }
+        else if (source.equals("jackson")) {
+            props.setProperty(prefix, toJson(type, k));
+            resolver = new PropertiesTypeConfigurationResolver(props, null);
+        }
+        else if (source.equals("snapshot")) {
+            for (Entry<String, String> entry : k.getProperties().entrySet()) {
+                props.setProperty(prefix + "." + entry.getKey(), entry.getValue());
+            }
+            resolver = new SnapshotTypeConfigurationResolver(ConfigurationSnapshot.from(props), null);
+        }
+        else if (source.equals("bundle")) {
+            for (Entry<String, String> entry : k.getProperties().entrySet()) {
+                props.setProperty(prefix + "." + entry.getKey(), entry.getValue());
+            }
+            bundleFile = File.createTempFile("fabricator", ".bundle");
+            ConfigurationBundleCompiler.compile(ConfigurationSnapshot.from(props), bundleFile);
+            resolver = new SnapshotTypeConfigurationResolver(ConfigurationBundle.open(bundleFile), null);
+        }
+        else if (source.equals("archaius")) {
+            AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+            for (Entry<String, String> entry : k.getProperties().entrySet()) {
+                config.setProperty(prefix + "." + entry.getKey(), entry.getValue());
+            }
+            resolver = archaiusResolver = new ArchaiusTypeConfigurationResolver(null);
+        }
+        else {
+            throw new IllegalArgumentException("Unknown source " + source);
+        }
+
+        Injector injector = Guice.createInjector(
+                new PropertiesConfigurationModule(props),
+                module(FlatComponent.class),
+                module(EmbeddedComponent.class),
+                module(NamedComponent.class),
+                new ComponentModuleBuilder<Policy>()
+                    .implementation("simple", SimplePolicy.class)
+                    .build(Policy.class),
+                new ComponentModuleBuilder<Dependency>()
+                    .named("dep1", new SimpleDependency())
+                    .build(Dependency.class));
+
+        factory = (ComponentFactory<?>) injector.getInstance(Key.get(
+                TypeLiteral.get(Types.newParameterizedType(ComponentFactory.class, k.getComponentClass())),
+                Default.class));
+        node = resolver.getConfigurationFactory(type).getConfiguration(BenchmarkComponents.ID);
+
+        // Fail fast instead of measuring a broken configuration
+        if (factory.create(node) == null) {
+            throw new IllegalStateException("Failed to create " + prefix);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (archaiusResolver != null) {
+            archaiusResolver.shutdown();
+        }
+        if (source.equals("archaius")) {
+            AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+            for (String key : Kind.valueOf(kind).getProperties().keySet()) {
+                config.clearProperty(prefix + "." + key);
+            }
+        }
+        if (bundleFile != null) {
+            bundleFile.delete();
+        }
+    }
+
+    @Benchmark
+    public Object create() throws Exception {
+        return factory.create(node);
+    }
+
+    private <T> com.google.inject.Module module(Class<T> type) {
+        return new ComponentModuleBuilder<T>()
+                .manager(SynchronizedComponentManager.class)
+                .build(type);
+    }
+
+    private static String toJson(String type, Kind kind) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        root.put("type", type);
+        for (Entry<String, String> entry : kind.getProperties().entrySet()) {
+            String[] parts = entry.getKey().split("\\.");
+            ObjectNode parent = root;
+            for (int i = 0; i < parts.length - 1; i++) {
+                ObjectNode child = (ObjectNode) parent.get(parts[i]);
+                if (child == null) {
+                    child = parent.putObject(parts[i]);
+                }
+                parent = child;
+            }
+            parent.put(parts[parts.length - 1], entry.getValue());
+        }
+        return root.toString();
+    }
+}
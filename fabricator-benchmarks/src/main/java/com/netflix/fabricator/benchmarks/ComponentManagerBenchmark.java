@@ -0,0 +1,184 @@
+package com.netflix.fabricator.benchmarks;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.fabricator.ComponentType;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.PropertyInfo;
+import com.netflix.fabricator.component.ComponentFactory;
+import com.netflix.fabricator.component.ComponentManager;
+import com.netflix.fabricator.component.ConcurrentComponentManager;
+import com.netflix.fabricator.component.SynchronizedComponentManager;
+import com.netflix.fabricator.properties.PropertiesTypeConfigurationResolver;
+
+/**
+ * Contention on a single ComponentManager shared by all benchmark threads.  Run with
+ * increasing thread counts (-t, or {@link ComponentManagerScaling}) to get the scaling
+ * curve of each manager implementation.
+ *
+ * - manager      The ComponentManager implementation under test
+ * - readPercent  Percentage of operations in mixed() that are reads.  The rest are replace()
+ * - hitPercent   Percentage of find() and contains() calls for an id that exists.
+ *                get() always hits since a miss would create the component once and hit after
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentManagerBenchmark {
+    public static final String TYPE = "bench";
+
+    public static class BenchComponent {
+        private final String id;
+
+        public BenchComponent(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    @Param({"synchronized", "concurrent"})
+    public String manager;
+
+    @Param({"100", "99", "90", "50"})
+    public int readPercent;
+
+    @Param({"100", "50"})
+    public int hitPercent;
+
+    @Param({"64"})
+    public int count;
+
+    private ComponentManager<BenchComponent> components;
+    private String[]                         hits;
+    private String[]                         misses;
+
+    /**
+     * Two instances per id so that replace() does not allocate
+     */
+    private BenchComponent[][]               replacements;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Properties props = new Properties();
+        hits         = new String[count];
+        misses       = new String[count];
+        replacements = new BenchComponent[count][];
+        for (int i = 0; i < count; i++) {
+            hits[i]   = "c" + i;
+            misses[i] = "m" + i;
+            replacements[i] = new BenchComponent[]{new BenchComponent(hits[i]), new BenchComponent(hits[i])};
+            props.setProperty(hits[i] + "." + TYPE + ".type", "simple");
+        }
+
+        components = newManager(manager, props);
+        for (String id : hits) {
+            components.get(id);
+        }
+    }
+
+    @Benchmark
+    public Object get() throws Exception {
+        return components.get(hits[ThreadLocalRandom.current().nextInt(count)]);
+    }
+
+    @Benchmark
+    public Object find() {
+        return components.find(nextId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return components.contains(nextId(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public void replace() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(count);
+        components.replace(hits[index], replacements[index][random.nextInt(2)]);
+    }
+
+    /**
+     * readPercent of the operations are spread evenly over get(), find() and contains().
+     * The rest are replace()
+     */
+    @Benchmark
+    public Object mixed() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int op = random.nextInt(100);
+        if (op < readPercent) {
+            switch (op % 3) {
+            case 0:
+                return components.get(hits[random.nextInt(count)]);
+            case 1:
+                return components.find(nextId(random));
+            default:
+                return components.contains(nextId(random));
+            }
+        }
+
+        int index = random.nextInt(count);
+        BenchComponent component = replacements[index][random.nextInt(2)];
+        components.replace(hits[index], component);
+        return component;
+    }
+
+    private String nextId(ThreadLocalRandom random) {
+        int index = random.nextInt(count);
+        return random.nextInt(100) < hitPercent ? hits[index] : misses[index];
+    }
+
+    static ComponentManager<BenchComponent> newManager(String manager, Properties props) {
+        ComponentType<BenchComponent>                     type      = new ComponentType<BenchComponent>(TYPE);
+        Map<String, ComponentFactory<BenchComponent>>     factories = ImmutableMap.<String, ComponentFactory<BenchComponent>>of("simple", new BenchComponentFactory());
+        PropertiesTypeConfigurationResolver               resolver  = new PropertiesTypeConfigurationResolver(props, null);
+
+        if (manager.equals("synchronized")) {
+            return new SynchronizedComponentManager<BenchComponent>(type, factories, resolver);
+        }
+        else if (manager.equals("concurrent")) {
+            return new ConcurrentComponentManager<BenchComponent>(type, factories, resolver);
+        }
+        throw new IllegalArgumentException("Unknown manager " + manager);
+    }
+
+    private static class BenchComponentFactory implements ComponentFactory<BenchComponent> {
+        @Override
+        public BenchComponent create(ConfigurationNode config) {
+            return new BenchComponent(config.getId());
+        }
+
+        @Override
+        public Map<String, PropertyInfo> getProperties() {
+            return ImmutableMap.of();
+        }
+
+        @Override
+        public Class<?> getRawType() {
+            return BenchComponent.class;
+        }
+    }
+}
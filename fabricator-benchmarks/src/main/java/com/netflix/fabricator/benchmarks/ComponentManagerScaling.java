@@ -0,0 +1,87 @@
+package com.netflix.fabricator.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Runs {@link ComponentManagerBenchmark} at 1, 2, 4, ... up to maxThreads threads and
+ * prints the throughput of each configuration as a function of the thread count.
+ *
+ *  usage: ComponentManagerScaling [maxThreads] [include regex] [jmh options...]
+ *
+ * By default maxThreads is the number of available processors and only mixed() is run.
+ * Additional options, such as '-p manager=synchronized', are passed through to JMH.
+ */
+public class ComponentManagerScaling {
+    public static void main(String[] args) throws Exception {
+        int    maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String include    = args.length > 1 ? args[1] : ComponentManagerBenchmark.class.getSimpleName() + ".mixed";
+        String[] extra    = args.length > 2 ? Arrays.copyOfRange(args, 2, args.length) : new String[0];
+
+        List<Integer> threads = Lists.newArrayList();
+        for (int t = 1; t < maxThreads; t *= 2) {
+            threads.add(t);
+        }
+        threads.add(maxThreads);
+
+        // benchmark and params -> threads -> ops/us
+        Map<String, Map<Integer, Double>> scores = Maps.newTreeMap();
+        for (int t : threads) {
+            Options options = new OptionsBuilder()
+                    .parent(new CommandLineOptions(extra))
+                    .include(include)
+                    .threads(t)
+                    .build();
+
+            Collection<RunResult> results = new Runner(options).run();
+            for (RunResult result : results) {
+                String key = describe(result.getParams());
+                Map<Integer, Double> row = scores.get(key);
+                if (row == null) {
+                    row = Maps.newTreeMap();
+                    scores.put(key, row);
+                }
+                row.put(t, result.getPrimaryResult().getScore());
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n%-80s", "Throughput (ops/us) by thread count"));
+        for (int t : threads) {
+            sb.append(String.format("%12d", t));
+        }
+        sb.append(String.format("%n"));
+        for (Entry<String, Map<Integer, Double>> row : scores.entrySet()) {
+            sb.append(String.format("%-80s", row.getKey()));
+            for (int t : threads) {
+                Double score = row.getValue().get(t);
+                sb.append(score == null ? String.format("%12s", "-") : String.format("%12.3f", score));
+            }
+            sb.append(String.format("%n"));
+        }
+        System.out.print(sb);
+    }
+
+    private static String describe(BenchmarkParams params) {
+        List<String> parts = Lists.newArrayList();
+        for (String key : params.getParamsKeys()) {
+            parts.add(key + "=" + params.getParam(key));
+        }
+        String benchmark = params.getBenchmark();
+        return benchmark.substring(benchmark.lastIndexOf('.') + 1) + " " + Joiner.on(" ").join(parts);
+    }
+}
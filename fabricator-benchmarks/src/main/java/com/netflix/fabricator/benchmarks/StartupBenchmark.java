@@ -0,0 +1,110 @@
+package com.netflix.fabricator.benchmarks;
+
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Types;
+import com.netflix.fabricator.Fabricator;
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.EmbeddedComponent;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.FlatComponent;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.Kind;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.Policy;
+import com.netflix.fabricator.benchmarks.BenchmarkComponents.SimplePolicy;
+import com.netflix.fabricator.component.ComponentManager;
+import com.netflix.fabricator.component.ConcurrentComponentManager;
+import com.netflix.fabricator.guice.ComponentModuleBuilder;
+import com.netflix.fabricator.properties.PropertiesConfigurationModule;
+
+/**
+ * Time from nothing to the first component, which is what a command line tool or test
+ * pays on every run.  Each operation sets up a new engine and gets a single component
+ * from the same properties.
+ *
+ * - kind    flat or embedded.  See {@link BenchmarkComponents}.  named is left out since
+ *           the standalone Fabricator has no named bindings.
+ * - engine  standalone : Fabricator without a DI framework
+ *           guice      : a new injector with the fabricator modules, using the same
+ *                        ConcurrentComponentManager as the standalone Fabricator
+ *
+ * The default mode measures a warm JVM.  For the cold start of a new JVM run with
+ * '-bm ss -f 20 -wi 0 -i 1'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartupBenchmark {
+    @Param({"flat", "embedded"})
+    public String kind;
+
+    @Param({"standalone", "guice"})
+    public String engine;
+
+    private Class<?>   type;
+    private Properties props;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Kind k = Kind.valueOf(kind);
+        type  = k.getComponentClass();
+        props = new Properties();
+        String prefix = BenchmarkComponents.ID + "." + type.getAnnotation(Type.class).value();
+        for (Entry<String, String> entry : k.getProperties().entrySet()) {
+            props.setProperty(prefix + "." + entry.getKey(), entry.getValue());
+        }
+
+        // Fail fast instead of measuring a broken configuration
+        if (startup() == null) {
+            throw new IllegalStateException("Failed to create " + prefix);
+        }
+    }
+
+    @Benchmark
+    public Object startup() throws Exception {
+        if (engine.equals("standalone")) {
+            return Fabricator.builder()
+                    .forProperties(props)
+                    .implementation(Policy.class, "simple", SimplePolicy.class)
+                    .build()
+                    .get(BenchmarkComponents.ID, type);
+        }
+        else if (engine.equals("guice")) {
+            Injector injector = Guice.createInjector(
+                    new PropertiesConfigurationModule(props),
+                    new ComponentModuleBuilder<FlatComponent>()
+                        .manager(ConcurrentComponentManager.class)
+                        .build(FlatComponent.class),
+                    new ComponentModuleBuilder<EmbeddedComponent>()
+                        .manager(ConcurrentComponentManager.class)
+                        .build(EmbeddedComponent.class),
+                    new ComponentModuleBuilder<Policy>()
+                        .implementation("simple", SimplePolicy.class)
+                        .build(Policy.class));
+            ComponentManager<?> manager = (ComponentManager<?>) injector.getInstance(Key.get(
+                    TypeLiteral.get(Types.newParameterizedType(ComponentManager.class, type))));
+            return manager.get(BenchmarkComponents.ID);
+        }
+        throw new IllegalArgumentException("Unknown engine " + engine);
+    }
+}
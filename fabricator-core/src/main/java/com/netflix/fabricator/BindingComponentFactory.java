@@ -5,6 +5,10 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import com.netflix.fabricator.component.ComponentFactory;
+import com.netflix.fabricator.component.metrics.ComponentMetrics;
+import com.netflix.fabricator.component.metrics.ComponentMetrics.Phase;
+import com.netflix.fabricator.component.metrics.NoopComponentMetrics;
+import com.netflix.fabricator.util.MethodInvoker;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +21,12 @@ import java.util.Map.Entry;
 /**
  * Utility class for creating a binding between a type string name and an
  * implementation using the builder pattern.
- * 
+ *
+ * Properties are mapped at runtime by walking the PropertyInfo of each builder method.
+ * Builders that only take simple values can instead use the straight-line factory
+ * generated at compile time by fabricator-apt, see
+ * {@link com.netflix.fabricator.component.GeneratedComponentFactories}.
+ *
  * TODO: PostConstruct and PreDestroy
  * 
  * @author elandau
@@ -59,8 +68,24 @@ public class BindingComponentFactory<T>  {
     
     private PropertyBinderResolver           binderResolver;
     
+    /**
+     * build() and withId()/setId() methods resolved once against the builder class.
+     * buildMethod will be null if build() could not be found on the builder class, 
+     * in which case it is looked up on the actual builder instance.
+     */
+    private final MethodInvoker              buildMethod;
+    private final MethodInvoker              idMethod;
+    
+    /**
+     * Name of the class being created, under which phase times are recorded
+     */
+    private final String                     implementation;
+    
+    private volatile ComponentMetrics        metrics = NoopComponentMetrics.INSTANCE;
+    
     public BindingComponentFactory(final Class<?> clazz, PropertyBinderResolver binderResolver, final InjectionSpi injector) {
         this.binderResolver = binderResolver;
+        this.implementation = clazz.getName();
         
         try {
             // Check if this class is a Builder<T> in which case just create
@@ -78,10 +103,11 @@ public class BindingComponentFactory<T>  {
             // builder.
             else {
                 final Method method = clazz.getMethod(BUILDER_METHOD_NAME);
+                final MethodInvoker builderMethod = MethodInvoker.from(method);
                 this.builderClass = method.getReturnType();
                 this.instantiator = new Instantiator() {
                     public Object create(ConfigurationNode config) throws Exception {
-                        Object obj = method.invoke(null, (Object[])null);
+                        Object obj = builderMethod.invoke(null);
                         injector.injectMembers(obj);
                         return obj;
                     }
@@ -105,26 +131,42 @@ public class BindingComponentFactory<T>  {
         
         Preconditions.checkNotNull(builderClass, "No builder class found for " + clazz.getCanonicalName());
         
-        properties = makePropertiesMap(builderClass);
+        properties  = makePropertiesMap(builderClass);
+        buildMethod = toInvoker(findMethod(builderClass, BUILD_METHOD_NAME));
+        idMethod    = toInvoker(findIdMethod(builderClass));
+        
         this.factory = new ComponentFactory<T>() {
             @SuppressWarnings("unchecked")
             @Override
             public T create(ConfigurationNode config) {
+                // The clock is only read when metrics are enabled
+                final boolean timed = metrics != NoopComponentMetrics.INSTANCE;
+                long time = timed ? System.nanoTime() : 0;
                 try {
                     // 1. Create an instance of the builder.  This still will also do basic
                     //    dependency injection using @Inject.  Named injections will be handled
                     //    by the configuration mapping phase
                     Object builder = instantiator.create(config);
+                    time = record(timed, Phase.INSTANTIATE, time);
 
                     // 2. Set the 'id'
                     mapId(builder, config);
+                    time = record(timed, Phase.MAP_ID, time);
 
                     // 3. Apply configuration
                     mapConfiguration(builder, config);
+                    time = record(timed, Phase.MAP_PROPERTIES, time);
                     
                     // 4. call build()
-                    Method buildMethod = builder.getClass().getMethod(BUILD_METHOD_NAME);
-                    return (T) buildMethod.invoke(builder);
+                    T component;
+                    if (buildMethod != null) {
+                        component = (T) buildMethod.invoke(builder);
+                    }
+                    else {
+                        component = (T) builder.getClass().getMethod(BUILD_METHOD_NAME).invoke(builder);
+                    }
+                    record(timed, Phase.BUILD, time);
+                    return component;
                 } catch (Exception e) {
                     throw new RuntimeException(String.format("Error creating component '%s' of type '%s'", config.getId(), clazz.getName()), e);
                 }
@@ -142,21 +184,21 @@ public class BindingComponentFactory<T>  {
         };
     }
 
+    /**
+     * Record the time since start for a phase of create()
+     * @return The current time, which is the start of the next phase
+     */
+    private long record(boolean timed, Phase phase, long start) {
+        if (!timed) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        metrics.recordPhase(implementation, phase, now - start);
+        return now;
+    }
+    
     private void mapId(Object builder, ConfigurationNode config) throws Exception {
         if (config.getId() != null) {
-            Method idMethod = null;
-            try {
-                idMethod = builder.getClass().getMethod(WITH_METHOD_PREFIX + ID_METHOD_SUFFIX, String.class);
-            }catch (NoSuchMethodException e) {
-                // OK to ignore
-            }
-            if(idMethod == null) {
-                try {
-                    idMethod = builder.getClass().getMethod(SET_METHOD_PREFIX + ID_METHOD_SUFFIX, String.class);
-                }catch (NoSuchMethodException e) {
-                    // OK to ignore
-                }
-            }
             if (idMethod != null) {
                 idMethod.invoke(builder, config.getId());
             } else {
@@ -165,6 +207,30 @@ public class BindingComponentFactory<T>  {
         }
     }
     
+    private static Method findIdMethod(Class<?> builderClass) {
+        Method method = findMethod(builderClass, WITH_METHOD_PREFIX + ID_METHOD_SUFFIX, String.class);
+        if (method == null) {
+            method = findMethod(builderClass, SET_METHOD_PREFIX + ID_METHOD_SUFFIX, String.class);
+        }
+        return method;
+    }
+    
+    private static MethodInvoker toInvoker(Method method) {
+        if (method == null) {
+            return null;
+        }
+        return MethodInvoker.from(method);
+    }
+    
+    private static Method findMethod(Class<?> builderClass, String name, Class<?>... parameterTypes) {
+        try {
+            return builderClass.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            // OK to ignore
+            return null;
+        }
+    }
+    
     /**
      * Perform the actual configuration mapping by iterating through all parameters
      * and applying the config.
@@ -237,7 +303,7 @@ public class BindingComponentFactory<T>  {
                 continue;
             }
             
-            PropertyInfo prop = new PropertyInfo(propertyName);
+            PropertyInfo prop = new PropertyInfo(propertyName, types[0]);
             PropertyBinder binding = binderResolver.get(method);
             if (binding != null) {
                 prop.addBinding(binding);
@@ -248,7 +314,38 @@ public class BindingComponentFactory<T>  {
         return properties;
     }
     
+    /**
+     * Record the time spent in each phase of create() 
+     * @param metrics
+     */
+    public void setMetrics(ComponentMetrics metrics) {
+        this.metrics = Preconditions.checkNotNull(metrics, "Metrics cannot be null");
+    }
+    
     public ComponentFactory<T> get() {
         return factory;
     }
+
+    /**
+     * Determine the builder class that the constructor creates through 
+     * InjectionSpi.getInstance(), without analyzing its properties
+     *
+     * @param clazz
+     * @return The builder class or null if clazz has no builder or its builder is 
+     *         created by a static builder() method
+     */
+    public static Class<?> getInjectedBuilderClass(Class<?> clazz) {
+        if (Builder.class.isAssignableFrom(clazz)) {
+            return clazz;
+        }
+        if (findMethod(clazz, BUILDER_METHOD_NAME) != null) {
+            return null;
+        }
+        for (Class<?> inner : clazz.getClasses()) {
+            if (inner.getSimpleName().equals("Builder")) {
+                return inner;
+            }
+        }
+        return null;
+    }
 }
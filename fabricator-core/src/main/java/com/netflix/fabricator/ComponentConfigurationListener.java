@@ -0,0 +1,25 @@
+package com.netflix.fabricator;
+
+import java.util.Set;
+
+/**
+ * Listener for changes to the configuration of components of a single type.
+ * 
+ * @see ObservableComponentConfigurationResolver
+ */
+public interface ComponentConfigurationListener {
+    /**
+     * Called after any key belonging to the specified component ids was added,
+     * modified or removed
+     * 
+     * @param ids
+     */
+    public void onChange(Set<String> ids);
+    
+    /**
+     * Called when the configuration changed in a way that can't be attributed
+     * to specific ids, such as the entire configuration being cleared.  Listeners
+     * should reload all configurations.
+     */
+    public void onReset();
+}
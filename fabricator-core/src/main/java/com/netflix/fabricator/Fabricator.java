@@ -1,63 +1,300 @@
 package com.netflix.fabricator;
 
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.annotations.TypeImplementation;
 import com.netflix.fabricator.component.ComponentFactory;
 import com.netflix.fabricator.component.ComponentManager;
+import com.netflix.fabricator.component.ConcurrentComponentManager;
+import com.netflix.fabricator.component.GeneratedComponentFactories;
 import com.netflix.fabricator.component.bind.SimplePropertyBinderFactoryResolver;
 import com.netflix.fabricator.properties.PropertiesTypeConfigurationResolver;
+import com.netflix.fabricator.util.MethodInvoker;
 
 /**
  * Standalone version of Fabricator instead of integrating with a DI framework.
- * This should mainly be used for testing or when a DI framework is not desired.
+ * This should mainly be used for testing, command line tools and batch jobs where
+ * the cost of creating a guice injector is not desired.
+ *
+ * A ConcurrentComponentManager is created the first time a component class is used.
+ * Builders are created with their no argument constructor and builder properties
+ * that are themselves component classes are resolved through the managers, by id
+ * when the configuration is a single value and as an embedded component when it is
+ * a structure with a 'type' field.  There is no other dependency injection.
+ *
+ * <pre>
+ * Fabricator fabricator = Fabricator.builder()
+ *     .forProperties(props)
+ *     .implementation(Policy.class, SimplePolicy.class)
+ *     .build();
+ * MyComponent component = fabricator.get("id1", MyComponent.class);
+ * </pre>
+ *
  * @author elandau
  */
 @Beta
-public class Fabricator {
+public class Fabricator implements InjectionSpi {
     public static class Builder {
+        private final Properties properties = new Properties();
         private TypeConfigurationResolver configurationResolver;
-        
+        private final Map<Class<?>, Map<String, Class<?>>> implementations = Maps.newHashMap();
+
+        /**
+         * Read configuration from properties following the ${id}.${type} convention.
+         * May be combined with forJson().
+         */
         public Builder forProperties(Properties props) {
-            configurationResolver = new PropertiesTypeConfigurationResolver(props, null);
+            properties.putAll(props);
+            return this;
+        }
+
+        /**
+         * Read configuration from a json document of the form
+         * <pre>
+         * { "${id}" : { "${type}" : { "type" : "${subType}", ... component configuration ... } } }
+         * </pre>
+         * As with json values in properties the 'type' field is required.  Types without a
+         * matching implementation are created by the component class's own builder.
+         * May be combined with forProperties().
+         */
+        public Builder forJson(String json) throws IOException {
+            return forJson(new ObjectMapper().readTree(json));
+        }
+
+        public Builder forJson(JsonNode json) {
+            Iterator<Entry<String, JsonNode>> ids = json.fields();
+            while (ids.hasNext()) {
+                Entry<String, JsonNode> id = ids.next();
+                Iterator<Entry<String, JsonNode>> types = id.getValue().fields();
+                while (types.hasNext()) {
+                    Entry<String, JsonNode> type = types.next();
+                    Preconditions.checkArgument(type.getValue().isObject(), "Configuration of '%s.%s' must be a json object", id.getKey(), type.getKey());
+                    properties.setProperty(id.getKey() + "." + type.getKey(), type.getValue().toString());
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Read configuration from any other source, such as an
+         * ArchaiusTypeConfigurationResolver or a SnapshotTypeConfigurationResolver.
+         * Can't be combined with forProperties() or forJson().
+         */
+        public Builder forResolver(TypeConfigurationResolver resolver) {
+            this.configurationResolver = resolver;
+            return this;
+        }
+
+        /**
+         * Create instances of subType when the type field of a configuration for
+         * the component class type is subTypeName
+         */
+        public <T> Builder implementation(Class<T> type, String subTypeName, Class<? extends T> subType) {
+            Map<String, Class<?>> subTypes = implementations.get(type);
+            if (subTypes == null) {
+                subTypes = Maps.newHashMap();
+                implementations.put(type, subTypes);
+            }
+            subTypes.put(subTypeName, subType);
             return this;
         }
-        
+
+        public <T> Builder implementation(Class<T> type, Class<? extends T> subType) {
+            TypeImplementation subTypeName = subType.getAnnotation(TypeImplementation.class);
+            Preconditions.checkNotNull(subTypeName, "Missing @TypeImplementation for class " + subType.getCanonicalName());
+            return implementation(type, subTypeName.value(), subType);
+        }
+
         public Fabricator build() {
+            Preconditions.checkState(configurationResolver == null || properties.isEmpty(),
+                    "forResolver() can't be combined with forProperties() or forJson()");
             return new Fabricator(this);
         }
     }
-    
+
     public static Builder builder() {
         return new Builder();
     }
-    
-    private final TypeConfigurationResolver resolver;
-    private final Map<Class<?>, ComponentManager<?>> factories = Maps.newHashMap();
-    private final PropertyBinderResolver binderResolver = new SimplePropertyBinderFactoryResolver();
-    
+
+    /**
+     * No argument constructor of each builder class
+     */
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return constructor;
+            }
+            catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final TypeConfigurationResolver                      resolver;
+    private final Map<Class<?>, Map<String, Class<?>>>           implementations;
+    private final ConcurrentMap<Class<?>, ComponentManager<?>>   managers = Maps.newConcurrentMap();
+    private final PropertyBinderResolver                         binderResolver;
+
     Fabricator(Builder builder) {
-        this.resolver = builder.configurationResolver;
+        this.resolver        = builder.configurationResolver != null
+                             ? builder.configurationResolver
+                             : new PropertiesTypeConfigurationResolver(builder.properties, null);
+        this.implementations = ImmutableMap.copyOf(builder.implementations);
+        this.binderResolver  = new SimplePropertyBinderFactoryResolver(null, this);
     }
-    
+
+    /**
+     * Get a component, creating it from its configuration the first time it is requested
+     *
+     * @param id
+     * @param type  Component class, annotated with @Type
+     */
     public <T> T get(String id, Class<T> type) throws Exception {
-        ComponentManager<T> manager = (ComponentManager<T>) factories.get(type);
+        return getManager(type).get(id);
+    }
+
+    /**
+     * @return The ComponentManager for a component class, which is created the first time
+     *         it is requested
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ComponentManager<T> getManager(Class<T> type) {
+        ComponentManager<T> manager = (ComponentManager<T>) managers.get(type);
         if (manager == null) {
-            ComponentFactory<T> factory = new BindingComponentFactory<T>(type, binderResolver, null).get();
-            
-//          manager = new SynchronizedComponentManager<T>(ComponentType.from(type), );
-//          factories.put(type, factory);
-//          private final Map<Class<?>, ComponentManager<?>> factories = Maps.newHashMap();
+            manager = createManager(type);
+            ComponentManager<T> existing = (ComponentManager<T>) managers.putIfAbsent(type, manager);
+            if (existing != null) {
+                manager = existing;
+            }
+        }
+        return manager;
+    }
+
+    private <T> ComponentManager<T> createManager(Class<T> type) {
+        Preconditions.checkArgument(isComponentType(type), "Missing @Type annotation or implementations for " + type.getCanonicalName());
+
+        Map<String, ComponentFactory<T>> factories = Maps.newHashMap();
+        Map<String, Class<?>> subTypes = implementations.get(type);
+        if (subTypes != null) {
+            for (Entry<String, Class<?>> subType : subTypes.entrySet()) {
+                factories.put(subType.getKey(), this.<T>createFactory(subType.getValue()));
+            }
+        }
+
+        ComponentFactory<T> defaultFactory = null;
+        if (!Modifier.isAbstract(type.getModifiers())) {
+            defaultFactory = createFactory(type);
+        }
+
+        Type typeAnnot = type.getAnnotation(Type.class);
+        return new ConcurrentComponentManager<T>(
+                new ComponentType<T>(typeAnnot != null ? typeAnnot.value() : type.getName()),
+                factories,
+                defaultFactory,
+                resolver);
+    }
+
+    /**
+     * Use the ComponentFactory generated by fabricator-apt if one exists.  Otherwise
+     * map the builder at runtime using reflection.
+     */
+    private <T> ComponentFactory<T> createFactory(Class<?> clazz) {
+        ComponentFactory<T> factory = GeneratedComponentFactories.find(clazz);
+        if (factory != null) {
+            return factory;
+        }
+        return new BindingComponentFactory<T>(clazz, binderResolver, this).get();
+    }
+
+    private boolean isComponentType(Class<?> type) {
+        return type.isAnnotationPresent(Type.class) || implementations.containsKey(type);
+    }
 
+    @Override
+    public <S> S getInstance(Class<S> clazz) {
+        Constructor<?> constructor = CONSTRUCTORS.get(clazz);
+        if (constructor == null) {
+            throw new RuntimeException("Missing no argument constructor for " + clazz.getCanonicalName());
         }
-        
-//      public SynchronizedComponentManager(
-//              ComponentType<T>                 type,
-//              Map<String, ComponentFactory<T>> factories, 
-//              TypeConfigurationResolver        config) {
+        try {
+            return clazz.cast(constructor.newInstance());
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Failed to create " + clazz.getCanonicalName(), e);
+        }
+    }
+
+    /**
+     * Nothing to inject without a DI framework
+     */
+    @Override
+    public void injectMembers(Object obj) {
+    }
+
+    /**
+     * Properties of a component class are created by that class's ComponentManager,
+     * either by id or as an embedded component with a 'type' field.  Properties of any
+     * other type can't be injected and are ignored.
+     */
+    @Override
+    public PropertyBinder createInjectableProperty(final String propertyName, final Class<?> argType, Method method) {
+        if (!isComponentType(argType)) {
+            return null;
+        }
+
+        final MethodInvoker setter = MethodInvoker.from(method);
+        return new PropertyBinder() {
+            @Override
+            public boolean bind(Object obj, ConfigurationNode node) throws Exception {
+                ComponentManager<?> manager = getManager(argType);
+                String name = null;
+                try {
+                    if (node.isSingle()) {
+                        name = node.getValue(String.class);
+                        if (name == null) {
+                            return false;
+                        }
+                        setter.invoke(obj, manager.get(name));
+                    }
+                    // Every property of a properties based configuration has a node so only
+                    // treat the node as an embedded component when it names its type
+                    else if (node.getType() != null) {
+                        setter.invoke(obj, manager.create(node));
+                    }
+                    else {
+                        return false;
+                    }
+                    return true;
+                }
+                catch (Exception e) {
+                    throw new Exception(String.format(
+                            "Unable to get component '%s' (%s) for property '%s' must be one of %s",
+                            name, argType.getSimpleName(), propertyName, manager.getIds()), e);
+                }
+            }
 
-        return null;
+            @Override
+            public String toString() {
+                return "Fabricator[" + propertyName + "]";
+            }
+        };
     }
 }
@@ -0,0 +1,26 @@
+package com.netflix.fabricator;
+
+/**
+ * A ComponentConfigurationResolver that can notify listeners of the ids whose
+ * configuration changed.  This lets callers such as BaseComponentRefreshService 
+ * reload only what changed instead of comparing snapshots of all configurations.
+ */
+public interface ObservableComponentConfigurationResolver extends ComponentConfigurationResolver {
+    /**
+     * Register a listener to be notified of configuration changes
+     * @param listener
+     */
+    public void addListener(ComponentConfigurationListener listener);
+    
+    /**
+     * Unregister a listener previously added with addListener
+     * @param listener
+     */
+    public void removeListener(ComponentConfigurationListener listener);
+    
+    /**
+     * @param id
+     * @return True if any configuration exists for the component id
+     */
+    public boolean hasConfiguration(String id);
+}
@@ -28,6 +28,7 @@ package com.netflix.fabricator;
  */
 public class PropertyInfo {
     private String          name;
+    private Class<?>        type;
     private PropertyBinder  simple;
     private PropertyBinder  dynamic;
     private PropertyBinder  binding;
@@ -36,6 +37,11 @@ public class PropertyInfo {
         this.name = name;
     }
     
+    public PropertyInfo(String name, Class<?> type) {
+        this.name = name;
+        this.type = type;
+    }
+    
     public void addSimple(PropertyBinder simple) {
         this.simple = simple;
     }
@@ -57,4 +63,11 @@ public class PropertyInfo {
     public String getName() {
         return name;
     }
+
+    /**
+     * @return Argument type of the property's setter or null if unknown
+     */
+    public Class<?> getType() {
+        return type;
+    }
 }
@@ -0,0 +1,19 @@
+package com.netflix.fabricator.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.google.inject.BindingAnnotation;
+
+@BindingAnnotation
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+/**
+ * Binding annotation for the java.util.concurrent.Executor on which the
+ * ComponentManager async methods create components
+ */
+public @interface ComponentExecutor
+{
+}
@@ -2,9 +2,17 @@ package com.netflix.fabricator.component;
 
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -13,16 +21,24 @@ import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapDifference;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.collect.MapDifference.ValueDifference;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.fabricator.ComponentConfigurationListener;
 import com.netflix.fabricator.ComponentConfigurationResolver;
 import com.netflix.fabricator.ComponentType;
 import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.ObservableComponentConfigurationResolver;
 import com.netflix.fabricator.TypeConfigurationResolver;
 import com.netflix.fabricator.component.exception.ComponentAlreadyExistsException;
 import com.netflix.fabricator.component.exception.ComponentCreationException;
+import com.netflix.fabricator.component.metrics.ComponentMetrics;
+import com.netflix.fabricator.component.metrics.NoopComponentMetrics;
 import com.netflix.governator.annotations.Configuration;
 import com.netflix.governator.annotations.ConfigurationVariable;
 import com.netflix.governator.annotations.binding.Background;
@@ -36,6 +52,7 @@ public class BaseComponentRefreshService<T> {
     private static final Logger LOG = LoggerFactory.getLogger(BaseComponentRefreshService.class);
     
     public final long DEFAULT_REFRESH_RATE = 60;
+    public final long DEFAULT_COMPONENT_TIMEOUT = 60;
     
     /**
      * The manager for these components.  
@@ -60,11 +77,49 @@ public class BaseComponentRefreshService<T> {
     @Configuration(value="${prefix}.refresh.enabled")
     private boolean enabled = false;
     
+    /**
+     * Number of components built concurrently during a refresh.  When 0 all changes
+     * are applied one at a time while holding the manager's lock.  Otherwise new and
+     * modified components are built in parallel outside of the lock and only swapped
+     * into the manager under the lock.
+     */
+    @Configuration(value="${prefix}.refresh.parallelism")
+    private int parallelism = 0;
+    
+    /**
+     * Build new and modified components in parallel with one virtual thread per component
+     * instead of the pool of 'parallelism' threads.  Meant for builders that block on I/O.
+     * Uses a cached pool of platform threads before JDK 21.
+     */
+    @Configuration(value="${prefix}.refresh.virtualThreads")
+    private boolean virtualThreads = false;
+    
+    /**
+     * Maximum time to build a single component when parallelism or virtualThreads is enabled.  A component
+     * that takes longer is cancelled and retried on the next refresh.  A build that still
+     * completes after it was cancelled has its PreDestroy methods called.
+     */
+    @Configuration(value="${prefix}.refresh.componentTimeoutInSeconds")
+    private long componentTimeout = DEFAULT_COMPONENT_TIMEOUT;
+    
+    /**
+     * When the resolver is an ObservableComponentConfigurationResolver only reload
+     * the ids reported as changed instead of comparing a snapshot of all configurations
+     * on every refresh.  Falls back to full refreshes for other resolvers.
+     */
+    @Configuration(value="${prefix}.refresh.incremental")
+    private boolean incremental = false;
+    
     /**
      * Future for refresh task
      */
     private ScheduledFuture<?> refreshFuture;
     
+    /**
+     * Executor used to build components when parallelism or virtualThreads is enabled
+     */
+    private ExecutorService buildExecutor;
+    
     /**
      * Resolver for the core configuration for these components
      */
@@ -74,7 +129,42 @@ public class BaseComponentRefreshService<T> {
      * List of 'known' configurations.  We keep this outside of what's in the ComponentManager
      * so we can keep track of the raw configuration
      */
-    private Map<String, ConfigurationNode> configs = ImmutableMap.of();
+    private volatile Map<String, ConfigurationNode> configs = ImmutableMap.of();
+    
+    /**
+     * Ids reported as changed since the last incremental refresh
+     */
+    private final Set<String> dirty = Sets.newConcurrentHashSet();
+    
+    /**
+     * Set when the next refresh must compare all configurations.  The first refresh
+     * is always a full refresh.
+     */
+    private final AtomicBoolean fullRefresh = new AtomicBoolean(true);
+    
+    /**
+     * Listener registered with the resolver in incremental mode
+     */
+    private ComponentConfigurationListener listener;
+    
+    /**
+     * Timer that cancels builds that exceed componentTimeout.  Separate from the refresh 
+     * executor, which may be single threaded and is blocked waiting for the builds.
+     */
+    private static class TimeoutHolder {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("fabricator-refresh-timeout-%d")
+                    .build());
+    }
+    
+    /**
+     * Records the duration of refresh cycles and how long they wait for and hold the
+     * manager's lock
+     */
+    @com.google.inject.Inject(optional=true)
+    private ComponentMetrics metrics = NoopComponentMetrics.INSTANCE;
     
     @Inject
     public BaseComponentRefreshService(
@@ -92,11 +182,44 @@ public class BaseComponentRefreshService<T> {
     public void init() {
         if (enabled) {
             LOG.info(String.format("Starting '%s' refresh task", componentName));
-            manager.apply(getUpdateTask());
+            if (virtualThreads) {
+                buildExecutor = ComponentExecutors.newVirtualThreadExecutor(componentName + "-refresh");
+            }
+            else if (parallelism > 0) {
+                buildExecutor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat(componentName + "-refresh-%d")
+                    .build());
+            }
+            if (incremental) {
+                if (configResolver instanceof ObservableComponentConfigurationResolver) {
+                    listener = new ComponentConfigurationListener() {
+                        @Override
+                        public void onChange(Set<String> ids) {
+                            dirty.addAll(ids);
+                        }
+
+                        @Override
+                        public void onReset() {
+                            fullRefresh.set(true);
+                        }
+                    };
+                    ((ObservableComponentConfigurationResolver)configResolver).addListener(listener);
+                }
+                else {
+                    LOG.warn(String.format("Configuration for '%s' does not support change notification.  Using full refresh", componentName));
+                }
+            }
+            refresh();
             this.refreshFuture = executor.scheduleAtFixedRate(new Runnable() {
                 @Override
                 public void run() {
-                    manager.apply(getUpdateTask());
+                    try {
+                        refresh();
+                    }
+                    catch (Exception e) {
+                        LOG.warn(String.format("Failed to refresh '%s'", componentName), e);
+                    }
                 }
             }, refreshRate, refreshRate, TimeUnit.SECONDS);
         }
@@ -105,42 +228,322 @@ public class BaseComponentRefreshService<T> {
         }
     }
     
-    private Runnable getUpdateTask() {
-        return new Runnable() {
+    /**
+     * Run a single refresh cycle
+     */
+    void refresh() {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            success = applyChanges().isEmpty();
+        }
+        finally {
+            metrics.recordRefresh(componentName, System.nanoTime() - start, success);
+        }
+    }
+    
+    /**
+     * Find and apply all changes since the last refresh
+     * @return Ids of components that failed to be created
+     */
+    private Set<String> applyChanges() {
+        RefreshPlan plan;
+        if (listener != null && !fullRefresh.getAndSet(false)) {
+            plan = getChangedPlan();
+        }
+        else {
+            // Changes reported up to this point are included in the snapshot
+            dirty.clear();
+            
+            // Get a snapshot of the current configuration
+            Map<String, ConfigurationNode> newConfigs = configResolver.getAllConfigurations();
+            plan = new RefreshPlan(Maps.difference(newConfigs, configs));
+        }
+        
+        if (plan.isEmpty()) {
+            return ImmutableSet.of();
+        }
+        
+        Set<String> failed;
+        if (buildExecutor != null) {
+            failed = applyParallel(plan);
+        }
+        else {
+            failed = applySerial(plan);
+        }
+        
+        Map<String, ConfigurationNode> known = Maps.newHashMap(configs);
+        known.putAll(plan.added);
+        known.putAll(plan.changed);
+        known.keySet().removeAll(plan.removed.keySet());
+        
+        // Keep the previous configuration for components that failed so they are 
+        // retried on the next refresh
+        for (String id : failed) {
+            ConfigurationNode previous = configs.get(id);
+            if (previous != null) {
+                known.put(id, previous);
+            }
+            else {
+                known.remove(id);
+            }
+        }
+        if (listener != null) {
+            dirty.addAll(failed);
+        }
+        configs = ImmutableMap.copyOf(known);
+        return failed;
+    }
+    
+    /**
+     * Create a plan from only the ids reported as changed by the resolver.  Changed
+     * ids are always reloaded since a change notification means that at least one 
+     * value was modified.
+     */
+    private RefreshPlan getChangedPlan() {
+        ObservableComponentConfigurationResolver resolver = (ObservableComponentConfigurationResolver)configResolver;
+        
+        Map<String, ConfigurationNode> added   = Maps.newHashMap();
+        Map<String, ConfigurationNode> removed = Maps.newHashMap();
+        Map<String, ConfigurationNode> changed = Maps.newHashMap();
+        for (String id : ImmutableSet.copyOf(dirty)) {
+            dirty.remove(id);
+            ConfigurationNode previous = configs.get(id);
+            if (resolver.hasConfiguration(id)) {
+                ConfigurationNode config = resolver.getConfiguration(id);
+                if (previous == null) {
+                    added.put(id, config);
+                }
+                else {
+                    changed.put(id, config);
+                }
+            }
+            else if (previous != null) {
+                removed.put(id, previous);
+            }
+        }
+        return new RefreshPlan(added, removed, changed);
+    }
+    
+    /**
+     * Changes between the last known configuration and the current configuration
+     */
+    private static class RefreshPlan {
+        final Map<String, ConfigurationNode> added;
+        final Map<String, ConfigurationNode> removed;
+        final Map<String, ConfigurationNode> changed;
+        
+        RefreshPlan(Map<String, ConfigurationNode> added, Map<String, ConfigurationNode> removed, Map<String, ConfigurationNode> changed) {
+            this.added   = added;
+            this.removed = removed;
+            this.changed = changed;
+        }
+        
+        RefreshPlan(MapDifference<String, ConfigurationNode> diff) {
+            this.added   = diff.entriesOnlyOnLeft();
+            this.removed = diff.entriesOnlyOnRight();
+            this.changed = Maps.transformValues(diff.entriesDiffering(), new Function<ValueDifference<ConfigurationNode>, ConfigurationNode>() {
+                @Override
+                public ConfigurationNode apply(ValueDifference<ConfigurationNode> input) {
+                    return input.leftValue();
+                }
+            });
+        }
+        
+        boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+    }
+    
+    /**
+     * Apply all changes one at a time while holding the manager's lock
+     * @return Ids of components that failed to be created
+     */
+    private Set<String> applySerial(final RefreshPlan plan) {
+        final Set<String> failed = Sets.newHashSet();
+        applyLocked(new Runnable() {
             @Override
             public void run() {
-                // Get a snapshot of the current configuration
-                Map<String, ConfigurationNode> newConfigs = configResolver.getAllConfigurations();
-                MapDifference<String, ConfigurationNode> diff = Maps.difference(newConfigs, configs);
-                
                 // new configs
-                for (Entry<String, ConfigurationNode> entry : diff.entriesOnlyOnLeft().entrySet()) {
+                for (Entry<String, ConfigurationNode> entry : plan.added.entrySet()) {
                     LOG.info("Adding config: " + entry.getKey() + " " + entry.getValue().toString());
                     try {
                         manager.load(entry.getValue());
                     } catch (ComponentAlreadyExistsException e) {
                     } catch (ComponentCreationException e) {
                         LOG.warn("Failed to create component " + entry.getKey(), e);
+                        failed.add(entry.getKey());
                     }
                 }
                 
                 // removed configs
-                for (Entry<String, ConfigurationNode> entry : diff.entriesOnlyOnRight().entrySet()) {
+                for (Entry<String, ConfigurationNode> entry : plan.removed.entrySet()) {
                     LOG.info("Remove config: " + entry.getKey() + " " + entry.getValue().toString());
                     manager.remove(entry.getKey());
                 }
                 
                 // modified configs
-                for (Entry<String, ValueDifference<ConfigurationNode>> entry : diff.entriesDiffering().entrySet()) {
+                for (Entry<String, ConfigurationNode> entry : plan.changed.entrySet()) {
                     LOG.info("Replace config: " + entry.getKey() + " " + entry.getValue().toString());
                     try {
-                        manager.replace(entry.getValue().leftValue());
+                        manager.replace(entry.getValue());
                     } catch (ComponentCreationException e) {
                         LOG.warn("Failed to create component " + entry.getKey(), e);
+                        failed.add(entry.getKey());
                     }
                 }
             }
+        });
+        return failed;
+    }
+    
+    /**
+     * Build new and modified components in parallel on the build executor, 
+     * outside of the manager's lock.  Each build is cancelled if it doesn't complete
+     * within componentTimeout of starting.  Once all builds are done the results 
+     * are swapped into the manager in a single apply().  As in serial mode a new
+     * configuration for an id that already has a component keeps the existing component.
+     * 
+     * @return Ids of components that failed to be created
+     */
+    private Set<String> applyParallel(RefreshPlan plan) {
+        final Set<String> failed = Sets.newHashSet();
+        
+        Map<String, FutureTask<T>> tasks = Maps.newLinkedHashMap();
+        for (ConfigurationNode config : plan.added.values()) {
+            if (!manager.contains(config.getId())) {
+                tasks.put(config.getId(), submitBuild(config));
+            }
+        }
+        for (ConfigurationNode config : plan.changed.values()) {
+            tasks.put(config.getId(), submitBuild(config));
+        }
+        
+        final Map<String, T> built = Maps.newLinkedHashMap();
+        for (Entry<String, FutureTask<T>> entry : tasks.entrySet()) {
+            try {
+                built.put(entry.getKey(), entry.getValue().get());
+            } 
+            catch (CancellationException e) {
+                LOG.warn(String.format("Timed out creating component %s after %d seconds", entry.getKey(), componentTimeout));
+                failed.add(entry.getKey());
+            }
+            catch (ExecutionException e) {
+                LOG.warn("Failed to create component " + entry.getKey(), e.getCause());
+                failed.add(entry.getKey());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (FutureTask<T> task : tasks.values()) {
+                    task.cancel(true);
+                }
+                for (String id : built.keySet()) {
+                    discard(id);
+                }
+                throw new RuntimeException("Interrupted refreshing " + componentName, e);
+            }
+        }
+        
+        final Map<String, ConfigurationNode> removed = plan.removed;
+        final Map<String, ConfigurationNode> added   = plan.added;
+        applyLocked(new Runnable() {
+            @Override
+            public void run() {
+                for (Entry<String, T> entry : built.entrySet()) {
+                    try {
+                        if (added.containsKey(entry.getKey())) {
+                            LOG.info("Adding config: " + entry.getKey());
+                            manager.add(entry.getKey(), entry.getValue());
+                        }
+                        else {
+                            LOG.info("Replace config: " + entry.getKey());
+                            manager.replace(entry.getKey(), entry.getValue());
+                        }
+                    } catch (ComponentAlreadyExistsException e) {
+                        // Created by get() while building.  Keep it, as load() does in serial mode
+                        discard(entry.getKey());
+                    } catch (Exception e) {
+                        LOG.warn("Failed to create component " + entry.getKey(), e);
+                        failed.add(entry.getKey());
+                    }
+                }
+                
+                for (Entry<String, ConfigurationNode> entry : removed.entrySet()) {
+                    LOG.info("Remove config: " + entry.getKey() + " " + entry.getValue().toString());
+                    manager.remove(entry.getKey());
+                }
+            }
+        });
+        
+        return failed;
+    }
+    
+    /**
+     * Run the operation with manager.apply() and record how long it waited for and 
+     * held the manager's lock
+     */
+    private void applyLocked(final Runnable operation) {
+        final long start = System.nanoTime();
+        manager.apply(new Runnable() {
+            @Override
+            public void run() {
+                long acquired = System.nanoTime();
+                metrics.recordLockWait(componentName, acquired - start);
+                try {
+                    operation.run();
+                }
+                finally {
+                    metrics.recordLockHold(componentName, System.nanoTime() - acquired);
+                }
+            }
+        });
+    }
+    
+    private FutureTask<T> submitBuild(final ConfigurationNode config) {
+        final FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return manager.build(config);
+            }
+        }) {
+            @Override
+            protected void set(T component) {
+                super.set(component);
+                // The result of a build that completes after being cancelled is dropped
+                if (isCancelled()) {
+                    discard(config.getId());
+                }
+            }
         };
+        
+        // The timeout starts once the build starts, not while it is waiting for a thread
+        buildExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ScheduledFuture<?> timeout = TimeoutHolder.INSTANCE.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        task.cancel(true);
+                    }
+                }, componentTimeout, TimeUnit.SECONDS);
+                try {
+                    task.run();
+                }
+                finally {
+                    timeout.cancel(false);
+                }
+            }
+        });
+        return task;
+    }
+    
+    /**
+     * Drop a component that was built but will never be added to the manager.  
+     * build() doesn't call PostConstruct, that is only done once the manager adds 
+     * the component, so PreDestroy must not be called on it either.
+     */
+    private void discard(String id) {
+        LOG.info("Discarding unused component: " + id);
     }
     
     @PreDestroy
@@ -148,5 +551,11 @@ public class BaseComponentRefreshService<T> {
         if (refreshFuture != null) {
             refreshFuture.cancel(true);
         }
+        if (listener != null) {
+            ((ObservableComponentConfigurationResolver)configResolver).removeListener(listener);
+        }
+        if (buildExecutor != null) {
+            buildExecutor.shutdownNow();
+        }
     }
 }
@@ -0,0 +1,154 @@
+package com.netflix.fabricator.component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Executors used by the async methods of {@link ComponentManager}.  A ComponentManager
+ * uses the Executor bound with {@link com.netflix.fabricator.annotations.ComponentExecutor}
+ * and falls back to {@link #getDefault()} when none is bound.  Warm up creates components
+ * with the async methods and therefore runs on the same executor.
+ *
+ * Builders that block on I/O can instead be run on virtual threads, on JDK 21 or later,
+ * so that thousands of components are created concurrently without a platform thread
+ * each.
+ *
+ * <pre>
+ * bind(Executor.class).annotatedWith(ComponentExecutor.class).toInstance(ComponentExecutors.getVirtual());
+ * </pre>
+ */
+public final class ComponentExecutors {
+    private static final Logger LOG = LoggerFactory.getLogger(ComponentExecutors.class);
+
+    private ComponentExecutors() {
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() or null before JDK 21.  Looked up by
+     * reflection so that fabricator still runs on older JDKs.
+     */
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorMethod();
+
+    private static Method findVirtualExecutorMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Maximum number of threads of the default executor
+     */
+    public static final int DEFAULT_MAX_THREADS = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+    private static class DefaultHolder {
+        static final ExecutorService INSTANCE = newDefaultExecutor();
+
+        private static ExecutorService newDefaultExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    DEFAULT_MAX_THREADS, DEFAULT_MAX_THREADS,
+                    60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("fabricator-component-%d")
+                        .build());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * @return Shared pool of at most {@link #DEFAULT_MAX_THREADS} daemon threads.  Idle
+     *         threads exit after a minute and tasks wait in a queue once all threads
+     *         are busy.
+     */
+    public static Executor getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static class VirtualHolder {
+        static final ExecutorService INSTANCE = newVirtualThreadExecutor("fabricator-component");
+    }
+
+    /**
+     * @return Shared executor that runs each task on a new virtual thread, or the
+     *         {@link #getDefault()} pool when virtual threads are not supported
+     */
+    public static Executor getVirtual() {
+        return isVirtualThreadSupported() ? VirtualHolder.INSTANCE : getDefault();
+    }
+
+    /**
+     * @return True if the JVM supports virtual threads (JDK 21 or later)
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor that runs each task on a new virtual thread.  Falls back to an
+     * unbounded cached pool of daemon threads when virtual threads are not supported.
+     * The caller owns the executor and should shut it down once done.
+     *
+     * @param name  Prefix of the thread names of the fallback pool
+     */
+    public static ExecutorService newVirtualThreadExecutor(String name) {
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            }
+            catch (Exception e) {
+                LOG.warn("Failed to create virtual thread executor.  Using platform threads", e);
+            }
+        }
+        return Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat(name + "-%d")
+                    .build());
+    }
+
+    /**
+     * Run a callable on the executor and return a future that completes with its
+     * result or any exception it throws.
+     *
+     * @param executor
+     * @param callable
+     * @return
+     */
+    public static <T> CompletableFuture<T> submit(Executor executor, final Callable<T> callable) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        future.complete(callable.call());
+                    }
+                    catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,99 @@
+package com.netflix.fabricator.component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.netflix.fabricator.util.MethodInvoker;
+
+/**
+ * PostConstruct and PreDestroy handling shared by the ComponentManager implementations.
+ * Methods are invoked in the order they are found walking from the component's class
+ * up through its superclasses and interfaces.  A method overridden in a subclass is
+ * only invoked once.
+ *
+ * The class hierarchy is only walked the first time a component class is seen.  The
+ * resulting invokers are cached in a ClassValue shared by all managers.  A ClassValue
+ * stores its value on the key class, so the invokers are only reachable through the
+ * component class and don't keep it or its class loader, such as a plugin's, loaded.
+ * The reverse does hold: while a component class is loaded its invokers, and with them
+ * fabricator's own classes, stay reachable.
+ */
+final class ComponentLifecycle {
+    private static final MethodInvoker[] NONE = new MethodInvoker[0];
+
+    private static final ClassValue<ComponentLifecycle> CACHE = new ClassValue<ComponentLifecycle>() {
+        @Override
+        protected ComponentLifecycle computeValue(Class<?> type) {
+            return new ComponentLifecycle(
+                    findAnnotatedMethods(type, PostConstruct.class),
+                    findAnnotatedMethods(type, PreDestroy.class));
+        }
+    };
+
+    private final MethodInvoker[] postConstruct;
+    private final MethodInvoker[] preDestroy;
+
+    private ComponentLifecycle(MethodInvoker[] postConstruct, MethodInvoker[] preDestroy) {
+        this.postConstruct = postConstruct;
+        this.preDestroy    = preDestroy;
+    }
+
+    static void invokePostConstruct(Object component) throws Exception {
+        if (component == null)
+            return;
+        invokeAll(component, CACHE.get(component.getClass()).postConstruct);
+    }
+
+    static void invokePreDestroy(Object component) throws Exception {
+        if (component == null)
+            return;
+        invokeAll(component, CACHE.get(component.getClass()).preDestroy);
+    }
+
+    private static void invokeAll(Object component, MethodInvoker[] methods) throws Exception {
+        for (MethodInvoker method : methods) {
+            method.invoke(component);
+        }
+    }
+
+    private static MethodInvoker[] findAnnotatedMethods(Class<?> clazz, Class<? extends Annotation> annot) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        fillAnnotatedMethods(clazz, annot, methods);
+        if (methods.isEmpty()) {
+            return NONE;
+        }
+
+        MethodInvoker[] invokers = new MethodInvoker[methods.size()];
+        int i = 0;
+        for (Method method : methods.values()) {
+            invokers[i++] = MethodInvoker.from(method);
+        }
+        return invokers;
+    }
+
+    private static void fillAnnotatedMethods(Class<?> clazz, Class<? extends Annotation> annot, Map<String, Method> methods) {
+        if (clazz == null || clazz == Object.class) {
+            return;
+        }
+
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.isSynthetic() || method.isBridge()) {
+                continue;
+            }
+
+            if (method.isAnnotationPresent(annot)) {
+                methods.putIfAbsent(method.getName(), method);
+            }
+        }
+
+        fillAnnotatedMethods(clazz.getSuperclass(), annot, methods);
+        for (Class<?> face : clazz.getInterfaces()) {
+            fillAnnotatedMethods(face, annot, methods);
+        }
+    }
+}
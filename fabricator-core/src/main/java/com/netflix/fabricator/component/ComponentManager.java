@@ -1,7 +1,11 @@
 package com.netflix.fabricator.component;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
+import com.google.common.collect.Lists;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.component.exception.ComponentAlreadyExistsException;
 import com.netflix.fabricator.component.exception.ComponentCreationException;
@@ -73,6 +77,23 @@ public interface ComponentManager<T> {
      */
     public T create(ConfigurationNode config) throws ComponentCreationException, ComponentAlreadyExistsException;
     
+    /**
+     * Create a component from config without registering it and without invoking
+     * PostConstruct.  The component is initialized once it is passed to
+     * {@link #add(String, Object)} or {@link #replace(String, Object)}.  This makes it 
+     * possible to build components outside of {@link #apply(Runnable)} and only
+     * register them under the lock.
+     * 
+     * A component returned by build() that is never added is simply dropped, 
+     * PreDestroy is not called on it.
+     * 
+     * @param config
+     * @return Newly created, uninitialized component
+     * @throws ComponentCreationException
+     * @throws ComponentAlreadyExistsException 
+     */
+    public T build(ConfigurationNode config) throws ComponentCreationException, ComponentAlreadyExistsException;
+    
     @Deprecated
     public T get(ConfigurationNode config) throws ComponentAlreadyExistsException, ComponentCreationException;
 
@@ -120,4 +141,68 @@ public interface ComponentManager<T> {
      * @param id
      */
     public void remove(String id);
+    
+    /**
+     * Asynchronous version of {@link #get(String)}.  The component is created on the
+     * manager's executor (see {@link com.netflix.fabricator.annotations.ComponentExecutor}).
+     * Only the first call for an id that does not exist yet triggers creation.  
+     * Calls made while creation is in progress return the same future.
+     * 
+     * @param id
+     * @return Future that completes with the component or a ComponentCreationException
+     */
+    public CompletableFuture<T> getAsync(String id);
+    
+    /**
+     * Asynchronous version of {@link #load(ConfigurationNode)}
+     * 
+     * @param config
+     * @return Future that completes with the newly created component
+     */
+    public default CompletableFuture<T> loadAsync(final ConfigurationNode config) {
+        return ComponentExecutors.submit(ComponentExecutors.getDefault(), new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return load(config);
+            }
+        });
+    }
+    
+    /**
+     * Asynchronous version of {@link #replace(ConfigurationNode)}
+     * 
+     * @param config
+     * @return Future that completes with the newly created component
+     */
+    public default CompletableFuture<T> replaceAsync(final ConfigurationNode config) {
+        return ComponentExecutors.submit(ComponentExecutors.getDefault(), new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return replace(config);
+            }
+        });
+    }
+    
+    /**
+     * Asynchronous version of {@link #remove(String)}
+     * 
+     * @param id
+     * @return Future that completes with the removed component or null if none existed
+     */
+    public default CompletableFuture<T> removeAsync(final String id) {
+        return ComponentExecutors.submit(ComponentExecutors.getDefault(), new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                final List<T> removed = Lists.newArrayListWithCapacity(1);
+                apply(new Runnable() {
+                    @Override
+                    public void run() {
+                        removed.add(find(id));
+                        remove(id);
+                    }
+                });
+                return removed.get(0);
+            }
+        });
+    }
 }
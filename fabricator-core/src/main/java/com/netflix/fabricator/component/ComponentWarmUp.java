@@ -0,0 +1,97 @@
+package com.netflix.fabricator.component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.fabricator.ComponentConfigurationResolver;
+import com.netflix.fabricator.ComponentType;
+import com.netflix.fabricator.TypeConfigurationResolver;
+
+/**
+ * Pre-build all configured components of a type so that the first call to
+ * ComponentManager.get(id) doesn't pay the cost of creating the component.
+ *
+ * Ids are discovered with ComponentConfigurationResolver.getAllConfigurations() and
+ * created with ComponentManager.getAsync(), i.e. in parallel on the manager's executor.
+ * Components referenced by named injection are created on demand by the components
+ * that need them and are therefore always ready before their dependents.  The guice
+ * ComponentWarmUpService instead plans the creation order up front with the
+ * ComponentDependencyPlanner so that dependencies are never created while nested in
+ * the creation of another component.
+ *
+ * @param <T>
+ */
+public class ComponentWarmUp<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(ComponentWarmUp.class);
+
+    private final Class<T>                       componentClass;
+    private final String                         type;
+    private final ComponentManager<T>            manager;
+    private final ComponentConfigurationResolver configResolver;
+
+    public ComponentWarmUp(Class<T> componentClass, ComponentType<T> type, ComponentManager<T> manager, TypeConfigurationResolver config) {
+        this.componentClass = componentClass;
+        this.type           = type.getType();
+        this.manager        = manager;
+        this.configResolver = config.getConfigurationFactory(type.getType());
+    }
+
+    public Class<T> getComponentClass() {
+        return componentClass;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public ComponentManager<T> getManager() {
+        return manager;
+    }
+
+    /**
+     * @return Ids of all components of this type found in the configuration
+     */
+    public Set<String> getIds() {
+        return ImmutableSet.copyOf(configResolver.getAllConfigurations().keySet());
+    }
+
+    /**
+     * Start creating all configured components of this type
+     *
+     * @return Future that completes with the ids that could not be created once all
+     *         components have either been created or failed
+     */
+    public CompletableFuture<Set<String>> start() {
+        final Set<String> failed = Sets.newConcurrentHashSet();
+        List<CompletableFuture<?>> futures = Lists.newArrayList();
+        for (final String id : getIds()) {
+            futures.add(manager.getAsync(id).handle(new BiFunction<T, Throwable, Void>() {
+                @Override
+                public Void apply(T component, Throwable error) {
+                    if (error != null) {
+                        LOG.warn(String.format("Failed to warm up component of type '%s' with id '%s'", type, id), error);
+                        failed.add(id);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+            .thenApply(new Function<Void, Set<String>>() {
+                @Override
+                public Set<String> apply(Void ignore) {
+                    return ImmutableSet.copyOf(failed);
+                }
+            });
+    }
+}
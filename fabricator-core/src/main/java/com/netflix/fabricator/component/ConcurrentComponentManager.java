@@ -0,0 +1,511 @@
+package com.netflix.fabricator.component;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.netflix.fabricator.ComponentConfigurationResolver;
+import com.netflix.fabricator.ComponentType;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.TypeConfigurationResolver;
+import com.netflix.fabricator.annotations.ComponentExecutor;
+import com.netflix.fabricator.annotations.Default;
+import com.netflix.fabricator.component.exception.ComponentAlreadyExistsException;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of a ComponentManager optimized for concurrent access.
+ *
+ * - Lookups of existing components (get, find, contains, getIds) read directly from
+ *   a ConcurrentMap and never block.
+ * - Creation of a missing component in get(id) and getAsync(id) is single-flight
+ *   per id.  Concurrent calls for the same id wait on the same future while different
+ *   ids are created in parallel.  ComponentFactory.create() is never called while holding a lock.
+ *   A component that depends on itself through named properties, on the thread creating
+ *   it, fails with a ComponentCreationException naming the cycle instead of waiting for
+ *   its own creation.
+ * - Operations that mutate the set of components (add, replace, load, remove, apply)
+ *   are serialized by a single reentrant lock so that PostConstruct/PreDestroy
+ *   are called exactly as in {@link SynchronizedComponentManager}.
+ *
+ * @param <T>
+ */
+public class ConcurrentComponentManager<T> implements ComponentManager<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentComponentManager.class);
+
+    private final ConcurrentMap<String, T>                    components = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, CompletableFuture<T>> pending    = Maps.newConcurrentMap();
+    private final ReentrantLock                               lock       = new ReentrantLock();
+    private final Map<String, ComponentFactory<T>>            factories;
+    private final ComponentConfigurationResolver              configResolver;
+    private final ComponentType<T>                            componentType;
+
+    /**
+     * Ids being created by the current thread, in the order creation started
+     */
+    private final ThreadLocal<Set<String>>                    creating   = new ThreadLocal<Set<String>>();
+
+    @Default
+    @Inject(optional=true)
+    private ComponentFactory<T> defaultComponentFactory = null;
+
+    @ComponentExecutor
+    @Inject(optional=true)
+    private Executor executor = ComponentExecutors.getDefault();
+
+    @Inject
+    public ConcurrentComponentManager(
+            ComponentType<T>                 type,
+            Map<String, ComponentFactory<T>> factories,
+            TypeConfigurationResolver        config) {
+        this.factories      = factories;
+        this.componentType  = type;
+        this.configResolver = config.getConfigurationFactory(type.getType());
+    }
+
+    /**
+     * Create a manager without dependency injection, such as for the standalone Fabricator
+     *
+     * @param type
+     * @param factories       Factories keyed by the sub type in the configuration
+     * @param defaultFactory  Factory for configurations without a known sub type.  May be null
+     * @param config
+     */
+    public ConcurrentComponentManager(
+            ComponentType<T>                 type,
+            Map<String, ComponentFactory<T>> factories,
+            ComponentFactory<T>              defaultFactory,
+            TypeConfigurationResolver        config) {
+        this(type, factories, config);
+        this.defaultComponentFactory = defaultFactory;
+    }
+
+    @Override
+    public T get(String id) throws ComponentCreationException, ComponentAlreadyExistsException {
+        Preconditions.checkNotNull(id, String.format("Component of type '%s' must have a id", componentType.getType()));
+        // Look for an existing component
+        T component = components.get(id);
+        if (component != null) {
+            return component;
+        }
+
+        // Join a creation already in progress for this id
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        CompletableFuture<T> existing = pending.putIfAbsent(id, future);
+        if (existing != null) {
+            checkCycle(id);
+            return await(id, existing);
+        }
+
+        try {
+            component = createAndAdd(id);
+            future.complete(component);
+            return component;
+        }
+        catch (ComponentCreationException | ComponentAlreadyExistsException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            pending.remove(id, future);
+        }
+    }
+
+    private T createAndAdd(String id) throws ComponentCreationException, ComponentAlreadyExistsException {
+        Set<String> inFlight = creating.get();
+        if (inFlight == null) {
+            inFlight = new LinkedHashSet<String>();
+            creating.set(inFlight);
+        }
+        inFlight.add(id);
+        try {
+            return doCreateAndAdd(id);
+        }
+        finally {
+            inFlight.remove(id);
+            if (inFlight.isEmpty()) {
+                creating.remove();
+            }
+        }
+    }
+
+    /**
+     * Fail instead of waiting for a component that is being created by this thread
+     * further up the stack, which would never complete
+     */
+    private void checkCycle(String id) throws ComponentCreationException {
+        Set<String> inFlight = creating.get();
+        if (inFlight != null && inFlight.contains(id)) {
+            List<String> cycle = Lists.newArrayList(Iterables.skip(inFlight, Lists.newArrayList(inFlight).indexOf(id)));
+            cycle.add(id);
+            throw new ComponentCreationException(String.format("Dependency cycle creating component of type '%s' : %s",
+                    componentType.getType(), Joiner.on(" -> ").join(cycle)));
+        }
+    }
+
+    private T doCreateAndAdd(String id) throws ComponentCreationException, ComponentAlreadyExistsException {
+        // May have been added after the initial lookup but before this thread
+        // became responsible for creating it
+        T component = components.get(id);
+        if (component != null) {
+            return component;
+        }
+
+        // Get configuration context from default configuration
+        ConfigurationNode config = configResolver.getConfiguration(id);
+        if (config == null) {
+            throw new ComponentCreationException(String.format("No config provided for component of type '%s' with id '%s'", componentType.getType(), id));
+        }
+
+        // Create the object outside of the lock
+        component = getComponentFactory(config.getType()).create(config);
+        if (component == null) {
+            throw new ComponentCreationException(String.format("Error creating component of type '%s' with id '%s'", componentType.getType(), id));
+        }
+
+        lock.lock();
+        try {
+            // Somebody called add() or load() for this id while we were creating it.
+            // Our instance has not been initialized yet so it can just be dropped.
+            T other = components.get(id);
+            if (other != null) {
+                return other;
+            }
+            addComponent(id, component);
+            return component;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private T await(String id, CompletableFuture<T> future) throws ComponentCreationException, ComponentAlreadyExistsException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ComponentCreationException("Interrupted waiting for component : " + id, e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ComponentCreationException) {
+                throw new ComponentCreationException(cause.getMessage(), cause);
+            }
+            if (cause instanceof ComponentAlreadyExistsException) {
+                throw (ComponentAlreadyExistsException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new ComponentCreationException("Error creating component : " + id, cause);
+        }
+    }
+
+    /**
+     * Must be called while holding the lock
+     */
+    private void addComponent(String id, T component) throws ComponentCreationException {
+        try {
+            ComponentLifecycle.invokePostConstruct(component);
+        } catch (Exception e) {
+            throw new ComponentCreationException("Error creating component : " + id, e);
+        }
+
+        T oldComponent = components.put(id, component);
+        if (oldComponent != null) {
+            try {
+                ComponentLifecycle.invokePreDestroy(oldComponent);
+            } catch (Exception e) {
+                LOG.error("Error destroying component : " + id, e);
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the lock
+     */
+    private void removeComponent(String id, T component) throws Exception {
+        if (component == null)
+            return;
+        if (components.remove(id, component)) {
+            ComponentLifecycle.invokePreDestroy(component);
+        }
+    }
+
+    @Override
+    public void add(String id, T component) throws ComponentAlreadyExistsException, ComponentCreationException {
+        Preconditions.checkNotNull(id,        "Component must have a id");
+        Preconditions.checkNotNull(component, "Component cannot be null");
+
+        lock.lock();
+        try {
+            if (components.containsKey(id)) {
+                throw new ComponentAlreadyExistsException(id);
+            }
+            addComponent(id, component);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<String> getIds() {
+        return ImmutableSet.copyOf(components.keySet());
+    }
+
+    @Override
+    @Deprecated
+    public T get(ConfigurationNode config) throws ComponentAlreadyExistsException, ComponentCreationException {
+        return load(config);
+    }
+
+    @Override
+    public T load(ConfigurationNode config) throws ComponentAlreadyExistsException, ComponentCreationException {
+        Preconditions.checkNotNull(config,         "Configuration cannot be null");
+        Preconditions.checkNotNull(config.getId(), "Configuration must have an id");
+
+        if (components.containsKey(config.getId())) {
+            throw new ComponentAlreadyExistsException(config.getId());
+        }
+
+        T component = getComponentFactory(config.getType()).create(config);
+        if (component == null) {
+            throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
+        }
+
+        lock.lock();
+        try {
+            if (components.containsKey(config.getId())) {
+                throw new ComponentAlreadyExistsException(config.getId());
+            }
+            addComponent(config.getId(), component);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return component;
+    }
+
+    @Override
+    public T build(ConfigurationNode config) throws ComponentCreationException, ComponentAlreadyExistsException {
+        Preconditions.checkNotNull(config, "Configuration cannot be null");
+
+        T component = getComponentFactory(config.getType()).create(config);
+        if (component == null) {
+            throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
+        }
+        return component;
+    }
+
+    @Override
+    public T create(ConfigurationNode config) throws ComponentCreationException, ComponentAlreadyExistsException {
+        T component = getComponentFactory(config.getType()).create(config);
+        if (component == null) {
+            throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
+        }
+
+        try {
+            ComponentLifecycle.invokePostConstruct(component);
+        } catch (Exception e) {
+            throw new ComponentCreationException("Error creating component : " + config.getId(), e);
+        }
+
+        return component;
+    }
+
+    @Override
+    public void replace(String id, T component) throws ComponentAlreadyExistsException, ComponentCreationException {
+        Preconditions.checkNotNull(id,       "Component must have a id");
+        Preconditions.checkNotNull(component, "Component cannot be null");
+
+        lock.lock();
+        try {
+            addComponent(id, component);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T replace(ConfigurationNode config) throws ComponentCreationException {
+        Preconditions.checkNotNull(config,         "Configuration cannot be null");
+        Preconditions.checkNotNull(config.getId(), "Configuration must have an id");
+
+        T component;
+        try {
+            component = getComponentFactory(config.getType()).create(config);
+        } catch (ComponentAlreadyExistsException e) {
+            // This can't really happen
+            throw new ComponentCreationException("Can't create component", e);
+        }
+        if (component == null) {
+            throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
+        }
+
+        lock.lock();
+        try {
+            addComponent(config.getId(), component);
+        }
+        finally {
+            lock.unlock();
+        }
+        return component;
+    }
+
+    @Override
+    public void remove(String id) {
+        Preconditions.checkNotNull(id,       "Component must have a id");
+
+        lock.lock();
+        try {
+            removeComponent(id, components.get(id));
+        } catch (Exception e) {
+            LOG.error("Error shutting down component: " + id, e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private ComponentFactory<T> getComponentFactory(String type) throws ComponentCreationException {
+        ComponentFactory<T> factory = null;
+        if (type != null) {
+            factory = factories.get(type);
+        }
+        if (factory == null) {
+            factory = defaultComponentFactory;
+        }
+        if (factory == null) {
+            throw new ComponentCreationException(
+                    String.format("Failed to create component '%s'. Invalid implementation specified '%s'.  Expecting one of '%s'.",
+                                  this.componentType.getType(), type, factories.keySet()));
+        }
+        return factory;
+    }
+
+    /**
+     * Run the operation while holding the lock used for add, replace and remove.
+     * Readers are not blocked.
+     */
+    @Override
+    public void apply(Runnable operation) {
+        lock.lock();
+        try {
+            operation.run();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T find(String id) {
+        return components.get(id);
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return components.containsKey(id);
+    }
+
+    @Override
+    public CompletableFuture<T> getAsync(final String id) {
+        Preconditions.checkNotNull(id, String.format("Component of type '%s' must have a id", componentType.getType()));
+        T component = components.get(id);
+        if (component != null) {
+            return CompletableFuture.completedFuture(component);
+        }
+
+        // Attach to a creation already in progress for this id
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        CompletableFuture<T> existing = pending.putIfAbsent(id, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        future.complete(createAndAdd(id));
+                    }
+                    catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                    finally {
+                        pending.remove(id, future);
+                    }
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            pending.remove(id, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<T> loadAsync(final ConfigurationNode config) {
+        return ComponentExecutors.submit(executor, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return load(config);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<T> replaceAsync(final ConfigurationNode config) {
+        return ComponentExecutors.submit(executor, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return replace(config);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<T> removeAsync(final String id) {
+        return ComponentExecutors.submit(executor, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                lock.lock();
+                try {
+                    T component = components.get(id);
+                    remove(id);
+                    return component;
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+}
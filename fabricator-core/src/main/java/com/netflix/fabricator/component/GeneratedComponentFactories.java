@@ -0,0 +1,59 @@
+package com.netflix.fabricator.component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lookup for ComponentFactory implementations generated at compile time by the
+ * fabricator-apt annotation processor.  A generated factory is named after the
+ * binary name of the annotated class with '$' replaced by '_' and the suffix
+ * {@link #SUFFIX}.  For example, the factory for com.foo.Outer$Impl is
+ * com.foo.Outer_Impl_ComponentFactory.
+ *
+ * Generated factories don't go through the hooks of the reflection based
+ * BindingComponentFactory.  They don't record per phase ComponentMetrics and, since
+ * they are only generated for builders without injected properties, they have no
+ * injection to plan.
+ */
+public final class GeneratedComponentFactories {
+    private static final Logger LOG = LoggerFactory.getLogger(GeneratedComponentFactories.class);
+
+    public static final String SUFFIX = "_ComponentFactory";
+
+    private GeneratedComponentFactories() {
+    }
+
+    /**
+     * @param binaryName Binary name of the annotated class (i.e. Class.getName())
+     * @return Fully qualified name of the generated factory class
+     */
+    public static String getFactoryClassName(String binaryName) {
+        return binaryName.replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * Return an instance of the generated ComponentFactory for clazz
+     *
+     * @param clazz
+     * @return The generated factory or null if none was generated for clazz
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ComponentFactory<T> find(Class<?> clazz) {
+        String name = getFactoryClassName(clazz.getName());
+        try {
+            Class<?> factoryClass = Class.forName(name, true, clazz.getClassLoader());
+            if (!ComponentFactory.class.isAssignableFrom(factoryClass)) {
+                LOG.warn(String.format("Ignoring '%s' which does not implement ComponentFactory", name));
+                return null;
+            }
+            return (ComponentFactory<T>) factoryClass.getDeclaredConstructor().newInstance();
+        }
+        catch (ClassNotFoundException e) {
+            return null;
+        }
+        catch (Exception e) {
+            LOG.warn(String.format("Unable to instantiate generated factory '%s'", name), e);
+            return null;
+        }
+    }
+}
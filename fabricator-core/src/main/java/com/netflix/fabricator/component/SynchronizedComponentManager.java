@@ -8,27 +8,30 @@ import com.netflix.fabricator.ComponentConfigurationResolver;
 import com.netflix.fabricator.ComponentType;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.TypeConfigurationResolver;
+import com.netflix.fabricator.annotations.ComponentExecutor;
 import com.netflix.fabricator.annotations.Default;
 import com.netflix.fabricator.component.exception.ComponentAlreadyExistsException;
 import com.netflix.fabricator.component.exception.ComponentCreationException;
+import com.netflix.fabricator.component.metrics.ComponentMetrics;
+import com.netflix.fabricator.component.metrics.ComponentMetrics.Phase;
+import com.netflix.fabricator.component.metrics.NoopComponentMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
-
-import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Implementation of a ComponentManager where each method is synchronized to guarantee
+ * Implementation of a ComponentManager where each method holds a single lock to guarantee
  * thread safety.  Uses guice MapBinder to specify the different types of component 
- * implementations.
+ * implementations.  The time spent waiting for and holding the lock is reported to the
+ * ComponentMetrics, except for apply() which is timed by its caller.
  *  
  * @author elandau
  *
@@ -42,10 +45,28 @@ public class SynchronizedComponentManager<T> implements ComponentManager<T> {
     private final ComponentConfigurationResolver   configResolver;
     private final ComponentType<T>                 componentType;
     
+    /**
+     * Creations in progress by getAsync(), keyed by id
+     */
+    private final ConcurrentMap<String, CompletableFuture<T>> pending = Maps.newConcurrentMap();
+    
+    /**
+     * Held by every method that reads or modifies the components.  An explicit lock
+     * instead of synchronized methods so that waiting for it can be timed.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    
     @Default
     @Inject(optional=true)
     private ComponentFactory<T> defaultComponentFactory = null;
     
+    @ComponentExecutor
+    @Inject(optional=true)
+    private Executor executor = ComponentExecutors.getDefault();
+    
+    @Inject(optional=true)
+    private ComponentMetrics metrics = NoopComponentMetrics.INSTANCE;
+    
     @Inject
     public SynchronizedComponentManager(
             ComponentType<T>                 type,
@@ -57,169 +78,221 @@ public class SynchronizedComponentManager<T> implements ComponentManager<T> {
     }
     
     @Override
-    public synchronized T get(String id) throws ComponentCreationException, ComponentAlreadyExistsException {
+    public T get(String id) throws ComponentCreationException, ComponentAlreadyExistsException {
         Preconditions.checkNotNull(id, String.format("Component of type '%s' must have a id", componentType.getType()));
-        // Look for an existing component
-        T component = components.get(id);
-        if (component == null) {
-            // Get configuration context from default configuration
-            ConfigurationNode config = configResolver.getConfiguration(id);
-            if (config != null) {
-                // Create the object
-                component = getComponentFactory(config.getType()).create(config);
-                if (component == null) {
-                    throw new ComponentCreationException(String.format("Error creating component of type '%s' with id '%s'", componentType.getType(), id));
+        long acquired = lock();
+        try {
+            // Look for an existing component
+            T component = components.get(id);
+            if (component == null) {
+                // Get configuration context from default configuration
+                ConfigurationNode config = configResolver.getConfiguration(id);
+                if (config != null) {
+                    // Create the object
+                    component = createComponent(config, true);
+                    putComponent(id, component);
+                }
+                else {
+                    throw new ComponentCreationException(String.format("No config provided for component of type '%s' with id '%s'", componentType.getType(), id));
                 }
-
-                addComponent(id, component);
-            }
-            else {
-                throw new ComponentCreationException(String.format("No config provided for component of type '%s' with id '%s'", componentType.getType(), id));
             }
+            return component;
+        }
+        finally {
+            unlock(acquired);
         }
-        return component;
+    }
+    
+    /**
+     * Acquire the lock and record the time spent waiting for it.  Nothing is recorded
+     * when the lock is already held by this thread, such as when creating a component
+     * looks up another component of the same type.
+     * 
+     * @return Time the lock was acquired or 0 if nothing should be recorded by unlock()
+     */
+    private long lock() {
+        if (metrics == NoopComponentMetrics.INSTANCE || lock.isHeldByCurrentThread()) {
+            lock.lock();
+            return 0;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        long acquired = System.nanoTime();
+        metrics.recordLockWait(componentType.getType(), acquired - start);
+        return acquired;
+    }
+    
+    /**
+     * Release the lock and record the time it was held
+     * @param acquired  Value returned by lock()
+     */
+    private void unlock(long acquired) {
+        if (acquired != 0) {
+            metrics.recordLockHold(componentType.getType(), System.nanoTime() - acquired);
+        }
+        lock.unlock();
     }
     
     private void addComponent(String id, T component) throws ComponentCreationException{
+        postConstruct(id, component);
+        putComponent(id, component);
+    }
+    
+    private void postConstruct(String id, T component) throws ComponentCreationException {
+        final boolean timed = metrics != NoopComponentMetrics.INSTANCE;
+        long start = timed ? System.nanoTime() : 0;
         try {
-            invokePostConstruct(component);
+            ComponentLifecycle.invokePostConstruct(component);
         } catch (Exception e) {
             throw new ComponentCreationException("Error creating component : " + id, e);
+        } finally {
+            if (timed) {
+                metrics.recordPhase(component.getClass().getName(), Phase.POST_CONSTRUCT, System.nanoTime() - start);
+            }
         }
-                
+    }
+    
+    private void putComponent(String id, T component) {
         T oldComponent = components.put(id, component);
         if (oldComponent != null) {
             try {
-                invokePreDestroy(oldComponent);
+                ComponentLifecycle.invokePreDestroy(oldComponent);
             } catch (Exception e) {
                 LOG.error("Error destroying component : " + id, e);
             }
         }
     }
 
-    private static void fillAnnotatedMethods(Class<?> clazz, Class<? extends Annotation> annot, Map<String, Method> methods) {
-        if (clazz == null || clazz == Object.class) {
-            return;
-        }
-        
-        for (Method method : clazz.getDeclaredMethods()) {
-            if (method.isSynthetic() || method.isBridge()) {
-                continue;
-            }
-    
-            if (method.isAnnotationPresent(annot)) {
-                methods.putIfAbsent(method.getName(), method);
-            }
-        }
-    
-        fillAnnotatedMethods(clazz.getSuperclass(), annot, methods);
-        for (Class<?> face : clazz.getInterfaces()) {
-            fillAnnotatedMethods(face, annot, methods);
-        }
-    }
-
-    
-    private void invokePostConstruct(T component) throws Exception {
-        if (component == null)
-            return;
-        Map<String, Method> methods = new LinkedHashMap<>();
-        fillAnnotatedMethods(component.getClass(), PostConstruct.class, methods);
-        for (Method method : methods.values()) {
-            method.invoke(component, null);
-        }
-    }
-
-    private void invokePreDestroy(T component) throws Exception {
-        if (component == null)
-            return;
-        Map<String, Method> methods = new LinkedHashMap<>();
-        fillAnnotatedMethods(component.getClass(), PreDestroy.class, methods);
-        for (Method method : methods.values()) {
-            method.invoke(component, null);
-        }
-    }
-
     private void removeComponent(String id, T component) throws Exception {
         if (component == null)
             return;
         if (components.get(id) == component) {
             components.remove(id);
-            invokePreDestroy(component);
+            ComponentLifecycle.invokePreDestroy(component);
         }
     }
 
     @Override
-    public synchronized void add(String id, T component) throws ComponentAlreadyExistsException, ComponentCreationException {
+    public void add(String id, T component) throws ComponentAlreadyExistsException, ComponentCreationException {
         Preconditions.checkNotNull(id,        "Component must have a id");
         Preconditions.checkNotNull(component, "Component cannot be null");
-        if (components.containsKey(id)) {
-            throw new ComponentAlreadyExistsException(id);
+        long acquired = lock();
+        try {
+            if (components.containsKey(id)) {
+                throw new ComponentAlreadyExistsException(id);
+            }
+            addComponent(id, component);
+        }
+        finally {
+            unlock(acquired);
         }
-        addComponent(id, component);
     }
 
     @Override
-    public synchronized Collection<String> getIds() {
+    public Collection<String> getIds() {
         return ImmutableSet.copyOf(components.keySet());
     }
     
     @Override
-    public synchronized T get(ConfigurationNode config) throws ComponentAlreadyExistsException, ComponentCreationException {
+    public T get(ConfigurationNode config) throws ComponentAlreadyExistsException, ComponentCreationException {
         return load(config);
     }
 
     
     @Override
-    public synchronized T load(ConfigurationNode config) throws ComponentAlreadyExistsException, ComponentCreationException {
+    public T load(ConfigurationNode config) throws ComponentAlreadyExistsException, ComponentCreationException {
         Preconditions.checkNotNull(config,         "Configuration cannot be null");
         Preconditions.checkNotNull(config.getId(), "Configuration must have an id");
         
-        if (config.getId() != null && components.containsKey(config.getId())) {
-            throw new ComponentAlreadyExistsException(config.getId());
+        long acquired = lock();
+        try {
+            if (config.getId() != null && components.containsKey(config.getId())) {
+                throw new ComponentAlreadyExistsException(config.getId());
+            }
+            
+            T component = createComponent(config, true);
+            putComponent(config.getId(), component);
+            
+            return component;
         }
-        
-        T component = getComponentFactory(config.getType()).create(config);
-        if (component == null) {
-            throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
+        finally {
+            unlock(acquired);
         }
-        
-        addComponent(config.getId(), component);
-        
-        return component;
     }
 
     @Override
-    public T create(ConfigurationNode config) throws ComponentCreationException, ComponentAlreadyExistsException {
-        T component = getComponentFactory(config.getType()).create(config);
-        if (component == null) {
-            throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
-        }
+    public T build(ConfigurationNode config) throws ComponentCreationException, ComponentAlreadyExistsException {
+        Preconditions.checkNotNull(config, "Configuration cannot be null");
         
-        try {
-            invokePostConstruct(component);
-        } catch (Exception e) {
-            throw new ComponentCreationException("Error creating component : " + config.getId(), e);
-        }
-
-        return component;
+        return createComponent(config, false);
+    }
+    
+    @Override
+    public T create(ConfigurationNode config) throws ComponentCreationException, ComponentAlreadyExistsException {
+        return createComponent(config, true);
     }
 
     @Override
-    public synchronized void replace(String id, T component) throws ComponentAlreadyExistsException, ComponentCreationException {
+    public void replace(String id, T component) throws ComponentAlreadyExistsException, ComponentCreationException {
         Preconditions.checkNotNull(id,       "Component must have a id");
         Preconditions.checkNotNull(component, "Component cannot be null");
         
-        addComponent(id, component);
+        long acquired = lock();
+        try {
+            addComponent(id, component);
+        }
+        finally {
+            unlock(acquired);
+        }
     }
 
     @Override
-    public synchronized void remove(String id) {
+    public void remove(String id) {
         Preconditions.checkNotNull(id,       "Component must have a id");
 
+        long acquired = lock();
         try {
             removeComponent(id, components.get(id));
         } catch (Exception e) {
             LOG.error("Error shutting down component: " + id, e);
+        } finally {
+            unlock(acquired);
+        }
+    }
+    
+    /**
+     * Create a component with the factory for its configured type and record the 
+     * time and outcome with the metrics
+     * 
+     * @param config
+     * @param postConstruct Also invoke the component's PostConstruct methods
+     */
+    private T createComponent(ConfigurationNode config, boolean postConstruct) throws ComponentCreationException, ComponentAlreadyExistsException {
+        ComponentFactory<T> factory = getComponentFactory(config.getType());
+        
+        final boolean timed = metrics != NoopComponentMetrics.INSTANCE;
+        long start = timed ? System.nanoTime() : 0;
+        boolean success = false;
+        try {
+            T component = factory.create(config);
+            if (component == null) {
+                throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
+            }
+            if (postConstruct) {
+                postConstruct(config.getId(), component);
+            }
+            success = true;
+            return component;
+        }
+        finally {
+            if (timed) {
+                Class<?> rawType = factory.getRawType();
+                metrics.recordCreate(
+                        componentType.getType(), 
+                        rawType != null ? rawType.getName() : String.valueOf(config.getType()), 
+                        System.nanoTime() - start, 
+                        success);
+            }
         }
     }
     
@@ -239,38 +312,122 @@ public class SynchronizedComponentManager<T> implements ComponentManager<T> {
         return factory;
     }
 
+    /**
+     * The lock is not timed here since the caller, such as the refresh service, 
+     * times the whole operation including the wait for the lock
+     */
     @Override
-    public synchronized void apply(Runnable operation) {
-        operation.run();
+    public void apply(Runnable operation) {
+        lock.lock();
+        try {
+            operation.run();
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized T replace(ConfigurationNode config) throws ComponentCreationException {
+    public T replace(ConfigurationNode config) throws ComponentCreationException {
         Preconditions.checkNotNull(config,         "Configuration cannot be null");
         Preconditions.checkNotNull(config.getId(), "Configuration must have an id");
         
-        T component;
+        long acquired = lock();
         try {
-            component = getComponentFactory(config.getType()).create(config);
-            if (component == null) {
-                throw new ComponentCreationException(String.format("Error creating component type '%s' with id '%s'", componentType.getType(), config.getId()));
-            }
-            
-            addComponent(config.getId(), component);
+            T component = createComponent(config, true);
+            putComponent(config.getId(), component);
             return component;
         } catch (ComponentAlreadyExistsException e) {
             // This can't really happen
             throw new ComponentCreationException("Can't create component", e);
+        } finally {
+            unlock(acquired);
         }
     }
 
     @Override
-    public synchronized T find(String id) {
+    public T find(String id) {
         return components.get(id);
     }
 
     @Override
-    public synchronized boolean contains(String id) {
+    public boolean contains(String id) {
         return components.containsKey(id);
     }
+
+    @Override
+    public CompletableFuture<T> getAsync(final String id) {
+        Preconditions.checkNotNull(id, String.format("Component of type '%s' must have a id", componentType.getType()));
+        T component = components.get(id);
+        if (component != null) {
+            return CompletableFuture.completedFuture(component);
+        }
+
+        // Attach to a creation already in progress for this id
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        CompletableFuture<T> existing = pending.putIfAbsent(id, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        future.complete(get(id));
+                    }
+                    catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                    finally {
+                        pending.remove(id, future);
+                    }
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            pending.remove(id, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<T> loadAsync(final ConfigurationNode config) {
+        return ComponentExecutors.submit(executor, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return load(config);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<T> replaceAsync(final ConfigurationNode config) {
+        return ComponentExecutors.submit(executor, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return replace(config);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<T> removeAsync(final String id) {
+        return ComponentExecutors.submit(executor, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                lock.lock();
+                try {
+                    T component = components.get(id);
+                    remove(id);
+                    return component;
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
 }
@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class BooleanBinderFactory implements PropertyBinderFactory {
     private final static BooleanBinderFactory instance = new BooleanBinderFactory();
@@ -21,12 +22,13 @@ public class BooleanBinderFactory implements PropertyBinderFactory {
             !clazz.equals(boolean.class)) {
             return null;
         }
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 Object value = node.getValue(Boolean.class);
                 if (value != null) {
-                    method.invoke(obj, value);
+                    setter.invoke(obj, value);
                     return true;
                 }
                 else {
@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class ClassBinderFactory implements PropertyBinderFactory {
     private final static ClassBinderFactory instance = new ClassBinderFactory();
@@ -21,12 +22,13 @@ public class ClassBinderFactory implements PropertyBinderFactory {
         if (!clazz.equals(Class.class))
             return null; 
         
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 String value = node.getValue(String.class);
                 if (value != null) {
-                    method.invoke(obj, Class.forName(value));
+                    setter.invoke(obj, Class.forName(value));
                     return true;
                 }
                 else {
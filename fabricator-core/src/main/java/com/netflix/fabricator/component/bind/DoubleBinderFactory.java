@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class DoubleBinderFactory implements PropertyBinderFactory {
     private final static DoubleBinderFactory instance = new DoubleBinderFactory();
@@ -21,12 +22,13 @@ public class DoubleBinderFactory implements PropertyBinderFactory {
             !clazz.equals(double.class)) {
             return null;
         }
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 Object value = node.getValue(Double.class);
                 if (value != null) {
-                    method.invoke(obj, value);
+                    setter.invoke(obj, value);
                     return true;
                 }
                 else {
@@ -8,6 +8,7 @@ import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
 import com.netflix.fabricator.supplier.ListenableSupplier;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class DynamicBooleanBinderFactory implements PropertyBinderFactory {
     private final static DynamicBooleanBinderFactory instance = new DynamicBooleanBinderFactory();
@@ -31,6 +32,7 @@ public class DynamicBooleanBinderFactory implements PropertyBinderFactory {
             return null;
         }
         
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
@@ -39,7 +41,7 @@ public class DynamicBooleanBinderFactory implements PropertyBinderFactory {
                     //invoke method only when property exists. Otherwise, let builder
                     //plug-in default values
                     if (supplier.get() != null) {
-                        method.invoke(obj, supplier);
+                        setter.invoke(obj, supplier);
                     }
                     return true;
                 }
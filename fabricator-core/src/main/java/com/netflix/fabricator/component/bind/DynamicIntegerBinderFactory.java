@@ -8,6 +8,7 @@ import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
 import com.netflix.fabricator.supplier.ListenableSupplier;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class DynamicIntegerBinderFactory implements PropertyBinderFactory {
 
@@ -32,6 +33,7 @@ public class DynamicIntegerBinderFactory implements PropertyBinderFactory {
             return null;
         }
         
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
@@ -40,7 +42,7 @@ public class DynamicIntegerBinderFactory implements PropertyBinderFactory {
                     //invoke method only when property exists. Otherwise, let builder
                     //plug-in default values
                     if (supplier.get() != null) {
-                        method.invoke(obj, supplier);
+                        setter.invoke(obj, supplier);
                     }
                     return true;
                 }
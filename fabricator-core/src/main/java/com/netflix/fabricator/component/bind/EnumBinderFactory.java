@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class EnumBinderFactory implements PropertyBinderFactory {
     private final static EnumBinderFactory instance = new EnumBinderFactory();
@@ -21,12 +22,13 @@ public class EnumBinderFactory implements PropertyBinderFactory {
             return null;
         }
         
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 String value = node.getValue(String.class);
                 if (value != null) {
-                    method.invoke(obj, Enum.valueOf((Class<Enum>)method.getParameterTypes()[0], value));
+                    setter.invoke(obj, Enum.valueOf((Class<Enum>)clazz, value));
                     return true;
                 }
                 else {
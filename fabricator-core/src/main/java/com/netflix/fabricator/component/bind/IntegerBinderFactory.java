@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class IntegerBinderFactory implements PropertyBinderFactory {
 
@@ -24,12 +25,13 @@ public class IntegerBinderFactory implements PropertyBinderFactory {
             return null;
         }
         
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 Object value = node.getValue(Integer.class);
                 if (value != null) {
-                    method.invoke(obj, value);
+                    setter.invoke(obj, value);
                     return true;
                 }
                 else {
@@ -0,0 +1,124 @@
+package com.netflix.fabricator.component.bind;
+
+import java.lang.reflect.Method;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import com.google.common.base.Function;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.PropertyBinder;
+import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.supplier.ListenableBooleanSupplier;
+import com.netflix.fabricator.supplier.ListenableDoubleSupplier;
+import com.netflix.fabricator.supplier.ListenableIntSupplier;
+import com.netflix.fabricator.supplier.ListenableLongSupplier;
+import com.netflix.fabricator.supplier.ListenableSupplier;
+import com.netflix.fabricator.supplier.PrimitiveSuppliers;
+import com.netflix.fabricator.util.MethodInvoker;
+
+/**
+ * Binds setters taking one of the primitive listenable suppliers (or the matching 
+ * java.util.function supplier) to a supplier that caches the unboxed value.  
+ * See {@link PrimitiveSuppliers}
+ *
+ * @param <T> Boxed type of the value
+ */
+public class ListenablePrimitiveSupplierBinderFactory<T> implements PropertyBinderFactory {
+
+    private final static ListenablePrimitiveSupplierBinderFactory<Integer> intInstance = new ListenablePrimitiveSupplierBinderFactory<Integer>(
+            Integer.class, ListenableIntSupplier.class, IntSupplier.class, 
+            new Function<ListenableSupplier<Integer>, Object>() {
+                @Override
+                public Object apply(ListenableSupplier<Integer> source) {
+                    return PrimitiveSuppliers.ofInt(source);
+                }
+            });
+    
+    private final static ListenablePrimitiveSupplierBinderFactory<Long> longInstance = new ListenablePrimitiveSupplierBinderFactory<Long>(
+            Long.class, ListenableLongSupplier.class, LongSupplier.class, 
+            new Function<ListenableSupplier<Long>, Object>() {
+                @Override
+                public Object apply(ListenableSupplier<Long> source) {
+                    return PrimitiveSuppliers.ofLong(source);
+                }
+            });
+    
+    private final static ListenablePrimitiveSupplierBinderFactory<Double> doubleInstance = new ListenablePrimitiveSupplierBinderFactory<Double>(
+            Double.class, ListenableDoubleSupplier.class, DoubleSupplier.class, 
+            new Function<ListenableSupplier<Double>, Object>() {
+                @Override
+                public Object apply(ListenableSupplier<Double> source) {
+                    return PrimitiveSuppliers.ofDouble(source);
+                }
+            });
+    
+    private final static ListenablePrimitiveSupplierBinderFactory<Boolean> booleanInstance = new ListenablePrimitiveSupplierBinderFactory<Boolean>(
+            Boolean.class, ListenableBooleanSupplier.class, BooleanSupplier.class, 
+            new Function<ListenableSupplier<Boolean>, Object>() {
+                @Override
+                public Object apply(ListenableSupplier<Boolean> source) {
+                    return PrimitiveSuppliers.ofBoolean(source);
+                }
+            });
+    
+    public static ListenablePrimitiveSupplierBinderFactory<Integer> forInt() {
+        return intInstance;
+    }
+
+    public static ListenablePrimitiveSupplierBinderFactory<Long> forLong() {
+        return longInstance;
+    }
+
+    public static ListenablePrimitiveSupplierBinderFactory<Double> forDouble() {
+        return doubleInstance;
+    }
+
+    public static ListenablePrimitiveSupplierBinderFactory<Boolean> forBoolean() {
+        return booleanInstance;
+    }
+
+    private final Class<T> valueType;
+    private final Class<?> listenableType;
+    private final Class<?> supplierType;
+    private final Function<ListenableSupplier<T>, Object> wrap;
+    
+    private ListenablePrimitiveSupplierBinderFactory(Class<T> valueType, Class<?> listenableType, Class<?> supplierType, Function<ListenableSupplier<T>, Object> wrap) {
+        this.valueType      = valueType;
+        this.listenableType = listenableType;
+        this.supplierType   = supplierType;
+        this.wrap           = wrap;
+    }
+    
+    @Override
+    public PropertyBinder createBinder(final Method method, final String propertyName) {
+        final Class<?>[] types = method.getParameterTypes();
+        final Class<?> clazz = types[0];
+        if (!clazz.equals(listenableType) && !clazz.equals(supplierType)) {
+            return null;
+        }
+        
+        final MethodInvoker setter = MethodInvoker.from(method);
+        return new PropertyBinder() {
+            @Override
+            public boolean bind(Object obj, ConfigurationNode node) throws Exception {
+                ListenableSupplier<T> supplier = node.getDynamicValue(valueType);
+                if (supplier != null) {
+                    //invoke method only when property exists. Otherwise, let builder
+                    //plug-in default values
+                    if (supplier.get() != null) {
+                        setter.invoke(obj, wrap.apply(supplier));
+                    }
+                    return true;
+                }
+                else {
+                    return false;
+                }
+            }
+            public String toString() {
+                return listenableType.getSimpleName() + "BinderFactory["+ propertyName + "]";
+            }
+        };    
+    }
+}
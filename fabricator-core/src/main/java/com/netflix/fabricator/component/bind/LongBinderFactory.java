@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class LongBinderFactory implements PropertyBinderFactory {
     private final static LongBinderFactory instance = new LongBinderFactory();
@@ -22,12 +23,13 @@ public class LongBinderFactory implements PropertyBinderFactory {
             return null;
         }
         
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 Object value = node.getValue(Long.class);
                 if (value != null) {
-                    method.invoke(obj, value);
+                    setter.invoke(obj, value);
                     return true;
                 }
                 else {
@@ -6,6 +6,7 @@ import java.util.Properties;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class PropertiesBinderFactory implements PropertyBinderFactory {
     private final static PropertiesBinderFactory instance = new PropertiesBinderFactory();
@@ -22,12 +23,13 @@ public class PropertiesBinderFactory implements PropertyBinderFactory {
             return null;
         }
         
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 Properties props = node.getValue(Properties.class);
                 if (props != null) {
-                    method.invoke(obj, props);
+                    setter.invoke(obj, props);
                     return true;
                 }
                 else {
@@ -1,26 +1,48 @@
 package com.netflix.fabricator.component.bind;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.CaseFormat;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import com.netflix.fabricator.InjectionSpi;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
 import com.netflix.fabricator.PropertyBinderResolver;
 
+/**
+ * Resolve the PropertyBinder for a builder method.  Custom PropertyBinderFactories are
+ * tried first, in order, then the default factories and finally the InjectionSpi.
+ * 
+ * The default factories only look at the setter's parameter type and don't depend on
+ * the resolver, so the matching default factory is indexed by parameter type and the 
+ * binders they create are cached per Method for all resolvers.  Builder classes, and
+ * builder superclasses shared by several implementations, are therefore only analyzed
+ * once even though a resolver is created for every factory and guice initialization.
+ * 
+ * Both caches are ClassValues, which store their values on the key class, so they 
+ * don't keep builder classes or parameter types loaded.  Their entries are in turn 
+ * kept for as long as the key class is loaded.  DEFAULT_FACTORY_BY_TYPE is mostly keyed
+ * by JDK classes such as String.class, which are never unloaded, so once a resolver has 
+ * been used fabricator's own default factories, and fabricator's class loader, stay 
+ * loaded for the life of the JVM.
+ */
 public class SimplePropertyBinderFactoryResolver implements PropertyBinderResolver {
     private static final Logger LOG = LoggerFactory.getLogger(SimplePropertyBinderFactoryResolver.class);
     
     private static final String WITH_METHOD_PREFIX  = "with";
     private static final String SET_METHOD_PREFIX   = "set";
-    private static final List<PropertyBinderFactory> DEFAULT_PROPERTY_FACTORIES = Lists.newArrayList( 
+    private static final List<PropertyBinderFactory> DEFAULT_PROPERTY_FACTORIES = ImmutableList.of( 
             StringBinderFactory.get(),
             LongBinderFactory.get(),
             DoubleBinderFactory.get(),
@@ -33,9 +55,40 @@ public class SimplePropertyBinderFactoryResolver implements PropertyBinderResolv
             DynamicDoubleBinderFactory.get(),
             DynamicBooleanBinderFactory.get(),
             DynamicIntegerBinderFactory.get(),
+            ListenablePrimitiveSupplierBinderFactory.forInt(),
+            ListenablePrimitiveSupplierBinderFactory.forLong(),
+            ListenablePrimitiveSupplierBinderFactory.forDouble(),
+            ListenablePrimitiveSupplierBinderFactory.forBoolean(),
             PropertiesBinderFactory.get()
             );
     
+    /**
+     * First default factory that accepts a parameter, keyed by the parameter's raw type
+     * and then by the name of its generic type.  Absent if no default factory applies.
+     */
+    private static final ClassValue<ConcurrentMap<String, Optional<PropertyBinderFactory>>> DEFAULT_FACTORY_BY_TYPE 
+        = new ClassValue<ConcurrentMap<String, Optional<PropertyBinderFactory>>>() {
+            @Override
+            protected ConcurrentMap<String, Optional<PropertyBinderFactory>> computeValue(Class<?> type) {
+                return Maps.newConcurrentMap();
+            }
+        };
+    
+    /**
+     * Binders created by the default factories keyed by the class declaring the method
+     * and then by method.  Absent if no default factory applies.
+     */
+    private static final ClassValue<ConcurrentMap<Method, Optional<PropertyBinder>>> DEFAULT_BINDERS 
+        = new ClassValue<ConcurrentMap<Method, Optional<PropertyBinder>>>() {
+            @Override
+            protected ConcurrentMap<Method, Optional<PropertyBinder>> computeValue(Class<?> type) {
+                return Maps.newConcurrentMap();
+            }
+        };
+    
+    /**
+     * Custom factories, tried before the default factories
+     */
     private final List<PropertyBinderFactory> propertyBinders;
     private final InjectionSpi injector;
     
@@ -44,7 +97,6 @@ public class SimplePropertyBinderFactoryResolver implements PropertyBinderResolv
             this.propertyBinders = Lists.newArrayList(propertyBinders);
         else
             this.propertyBinders = Lists.newArrayList();
-        this.propertyBinders.addAll(DEFAULT_PROPERTY_FACTORIES);
         this.injector = injector;
     }
     
@@ -82,9 +134,52 @@ public class SimplePropertyBinderFactoryResolver implements PropertyBinderResolv
             }
         }
         
+        PropertyBinder binder = getDefaultBinder(method, propertyName);
+        if (binder != null) {
+            return binder;
+        }
+        
         return injector.createInjectableProperty(propertyName, argType, method);
     }
 
+    private static PropertyBinder getDefaultBinder(Method method, String propertyName) {
+        ConcurrentMap<Method, Optional<PropertyBinder>> binders = DEFAULT_BINDERS.get(method.getDeclaringClass());
+        Optional<PropertyBinder> binder = binders.get(method);
+        if (binder == null) {
+            binder = Optional.fromNullable(createDefaultBinder(method, propertyName));
+            Optional<PropertyBinder> existing = binders.putIfAbsent(method, binder);
+            if (existing != null) {
+                binder = existing;
+            }
+        }
+        return binder.orNull();
+    }
+    
+    /**
+     * Create a binder with the first default factory that accepts the method's parameter
+     * type.  The factories are only scanned the first time a parameter type is seen.
+     */
+    private static PropertyBinder createDefaultBinder(Method method, String propertyName) {
+        Type   type = method.getGenericParameterTypes()[0];
+        String key  = type.getTypeName();
+        ConcurrentMap<String, Optional<PropertyBinderFactory>> factories = DEFAULT_FACTORY_BY_TYPE.get(method.getParameterTypes()[0]);
+        
+        Optional<PropertyBinderFactory> factory = factories.get(key);
+        if (factory != null) {
+            return factory.isPresent() ? factory.get().createBinder(method, propertyName) : null;
+        }
+        
+        for (PropertyBinderFactory candidate : DEFAULT_PROPERTY_FACTORIES) {
+            PropertyBinder binder = candidate.createBinder(method, propertyName);
+            if (binder != null) {
+                factories.putIfAbsent(key, Optional.of(candidate));
+                return binder;
+            }
+        }
+        factories.putIfAbsent(key, Optional.<PropertyBinderFactory>absent());
+        return null;
+    }
+    
     private static boolean hasInjectAnnotation(Method method) {
         return method.isAnnotationPresent(Inject.class) ||
                 method.isAnnotationPresent(javax.inject.Inject.class);
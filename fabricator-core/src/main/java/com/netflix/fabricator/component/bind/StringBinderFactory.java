@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.util.MethodInvoker;
 
 public class StringBinderFactory implements PropertyBinderFactory {
     private final static StringBinderFactory instance = new StringBinderFactory();
@@ -20,12 +21,13 @@ public class StringBinderFactory implements PropertyBinderFactory {
         if (!clazz.isAssignableFrom(String.class)) {
             return null;
         }
+        final MethodInvoker setter = MethodInvoker.from(method);
         return new PropertyBinder() {
             @Override
             public boolean bind(Object obj, ConfigurationNode node) throws Exception {
                 Object value = node.getValue(String.class);
                 if (value != null) {
-                    method.invoke(obj, value);
+                    setter.invoke(obj, value);
                     return true;
                 }
                 else {
@@ -0,0 +1,92 @@
+package com.netflix.fabricator.component.metrics;
+
+/**
+ * Instrumentation SPI for component creation and refresh.  ComponentManagers, the
+ * BindingComponentFactory and the refresh service report to the ComponentMetrics
+ * bound in guice and fall back to {@link NoopComponentMetrics} when none is bound.
+ *
+ * All times are in nanoseconds.  Implementations are called from any thread, often
+ * on the hot path of component creation, and must not block.
+ */
+public interface ComponentMetrics {
+    /**
+     * Phases of creating a single component
+     */
+    public static enum Phase {
+        /**
+         * Creating the builder, including its @Inject dependencies
+         */
+        INSTANTIATE,
+
+        /**
+         * Calling withId()/setId() on the builder
+         */
+        MAP_ID,
+
+        /**
+         * Mapping configuration to builder properties.  Includes the creation of
+         * embedded and named components that aren't created yet.
+         */
+        MAP_PROPERTIES,
+
+        /**
+         * Calling build() on the builder
+         */
+        BUILD,
+
+        /**
+         * Invoking the component's PostConstruct methods
+         */
+        POST_CONSTRUCT
+    }
+
+    /**
+     * Record the time spent in one phase of creating a component
+     *
+     * @param implementation Name of the class being created
+     * @param phase
+     * @param nanos
+     */
+    void recordPhase(String implementation, Phase phase, long nanos);
+
+    /**
+     * Record the creation of a component by a ComponentManager, from looking up
+     * the factory until PostConstruct returned
+     *
+     * @param type            Component type, as in ComponentType.getType()
+     * @param implementation  Name of the class created by the factory
+     * @param nanos
+     * @param success         false if the component could not be created
+     */
+    void recordCreate(String type, String implementation, long nanos, boolean success);
+
+    /**
+     * Record the time spent waiting for a ComponentManager's lock
+     *
+     * @param type
+     * @param nanos
+     */
+    void recordLockWait(String type, long nanos);
+
+    /**
+     * Record the time a ComponentManager's lock was held
+     *
+     * @param type
+     * @param nanos
+     */
+    void recordLockHold(String type, long nanos);
+
+    /**
+     * Record a single refresh cycle of a type
+     *
+     * @param type
+     * @param nanos
+     * @param success  false if any component failed to refresh
+     */
+    void recordRefresh(String type, long nanos, boolean success);
+
+    /**
+     * @return Point in time copy of everything recorded so far
+     */
+    ComponentMetricsSnapshot snapshot();
+}
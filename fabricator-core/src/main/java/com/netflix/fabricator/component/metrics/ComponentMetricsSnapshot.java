@@ -0,0 +1,123 @@
+package com.netflix.fabricator.component.metrics;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.netflix.fabricator.component.metrics.ComponentMetrics.Phase;
+
+/**
+ * Immutable copy of everything recorded by a ComponentMetrics.  Queries for a type,
+ * implementation or phase that was never recorded return {@link TimerSnapshot#EMPTY}.
+ */
+public final class ComponentMetricsSnapshot {
+    public static final ComponentMetricsSnapshot EMPTY = new ComponentMetricsSnapshot(
+            ImmutableTable.<String, String, TimerSnapshot>of(),
+            ImmutableTable.<String, Phase, TimerSnapshot>of(),
+            ImmutableMap.<String, TimerSnapshot>of(),
+            ImmutableMap.<String, TimerSnapshot>of(),
+            ImmutableMap.<String, TimerSnapshot>of());
+
+    private final ImmutableTable<String, String, TimerSnapshot> creates;
+    private final ImmutableTable<String, Phase, TimerSnapshot>  phases;
+    private final ImmutableMap<String, TimerSnapshot>           lockWaits;
+    private final ImmutableMap<String, TimerSnapshot>           lockHolds;
+    private final ImmutableMap<String, TimerSnapshot>           refreshes;
+
+    ComponentMetricsSnapshot(
+            Table<String, String, TimerSnapshot> creates,
+            Table<String, Phase, TimerSnapshot>  phases,
+            Map<String, TimerSnapshot>           lockWaits,
+            Map<String, TimerSnapshot>           lockHolds,
+            Map<String, TimerSnapshot>           refreshes) {
+        this.creates   = ImmutableTable.copyOf(creates);
+        this.phases    = ImmutableTable.copyOf(phases);
+        this.lockWaits = ImmutableMap.copyOf(lockWaits);
+        this.lockHolds = ImmutableMap.copyOf(lockHolds);
+        this.refreshes = ImmutableMap.copyOf(refreshes);
+    }
+
+    /**
+     * @return All component types for which anything was recorded
+     */
+    public Set<String> getTypes() {
+        return ImmutableSet.<String>builder()
+                .addAll(creates.rowKeySet())
+                .addAll(lockWaits.keySet())
+                .addAll(lockHolds.keySet())
+                .addAll(refreshes.keySet())
+                .build();
+    }
+
+    /**
+     * @return All implementation classes for which anything was recorded
+     */
+    public Set<String> getImplementations() {
+        return ImmutableSet.<String>builder()
+                .addAll(creates.columnKeySet())
+                .addAll(phases.rowKeySet())
+                .build();
+    }
+
+    /**
+     * @return Creation times keyed by type and implementation
+     */
+    public ImmutableTable<String, String, TimerSnapshot> getCreates() {
+        return creates;
+    }
+
+    /**
+     * @return Creation times keyed by implementation and phase
+     */
+    public ImmutableTable<String, Phase, TimerSnapshot> getPhases() {
+        return phases;
+    }
+
+    /**
+     * @return Creation times of a type, summed up for all of its implementations
+     */
+    public TimerSnapshot getCreate(String type) {
+        Map<String, TimerSnapshot> row = creates.row(type);
+        if (row.size() == 1) {
+            return row.values().iterator().next();
+        }
+        TimerSnapshot total = TimerSnapshot.EMPTY;
+        for (TimerSnapshot timer : row.values()) {
+            total = total.add(timer);
+        }
+        return total;
+    }
+
+    public TimerSnapshot getCreate(String type, String implementation) {
+        return orEmpty(creates.get(type, implementation));
+    }
+
+    public TimerSnapshot getPhase(String implementation, Phase phase) {
+        return orEmpty(phases.get(implementation, phase));
+    }
+
+    public TimerSnapshot getLockWait(String type) {
+        return orEmpty(lockWaits.get(type));
+    }
+
+    public TimerSnapshot getLockHold(String type) {
+        return orEmpty(lockHolds.get(type));
+    }
+
+    public TimerSnapshot getRefresh(String type) {
+        return orEmpty(refreshes.get(type));
+    }
+
+    private static TimerSnapshot orEmpty(TimerSnapshot timer) {
+        return timer == null ? TimerSnapshot.EMPTY : timer;
+    }
+
+    @Override
+    public String toString() {
+        return "ComponentMetricsSnapshot [creates=" + creates + ", phases=" + phases
+                + ", lockWaits=" + lockWaits + ", lockHolds=" + lockHolds + ", refreshes=" + refreshes + "]";
+    }
+}
@@ -0,0 +1,143 @@
+package com.netflix.fabricator.component.metrics;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
+
+/**
+ * ComponentMetrics that keeps all recordings in memory for the life of the process.
+ * Times are recorded into auto resizing HdrHistograms, which record without locking,
+ * and failures are counted with LongAdders.  Bind it in guice to enable metrics
+ *
+ * <pre>
+ * bind(ComponentMetrics.class).toInstance(new InMemoryComponentMetrics());
+ * </pre>
+ */
+public class InMemoryComponentMetrics implements ComponentMetrics {
+    /**
+     * Precision of the recorded times, as number of significant decimal digits
+     */
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static class Timer {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        final LongAdder           failures  = new LongAdder();
+
+        void record(long nanos, boolean success) {
+            histogram.recordValue(Math.max(0, nanos));
+            if (!success) {
+                failures.increment();
+            }
+        }
+
+        TimerSnapshot snapshot() {
+            return new TimerSnapshot(histogram.copy(), failures.sum());
+        }
+    }
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> creates   = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, Timer[]>                      phases    = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, Timer>                        lockWaits = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, Timer>                        lockHolds = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, Timer>                        refreshes = Maps.newConcurrentMap();
+
+    @Override
+    public void recordPhase(String implementation, Phase phase, long nanos) {
+        Timer[] timers = phases.get(implementation);
+        if (timers == null) {
+            timers = new Timer[PHASES.length];
+            for (int i = 0; i < timers.length; i++) {
+                timers[i] = new Timer();
+            }
+            Timer[] existing = phases.putIfAbsent(implementation, timers);
+            if (existing != null) {
+                timers = existing;
+            }
+        }
+        timers[phase.ordinal()].record(nanos, true);
+    }
+
+    @Override
+    public void recordCreate(String type, String implementation, long nanos, boolean success) {
+        ConcurrentMap<String, Timer> timers = creates.get(type);
+        if (timers == null) {
+            timers = Maps.newConcurrentMap();
+            ConcurrentMap<String, Timer> existing = creates.putIfAbsent(type, timers);
+            if (existing != null) {
+                timers = existing;
+            }
+        }
+        getTimer(timers, implementation).record(nanos, success);
+    }
+
+    @Override
+    public void recordLockWait(String type, long nanos) {
+        getTimer(lockWaits, type).record(nanos, true);
+    }
+
+    @Override
+    public void recordLockHold(String type, long nanos) {
+        getTimer(lockHolds, type).record(nanos, true);
+    }
+
+    @Override
+    public void recordRefresh(String type, long nanos, boolean success) {
+        getTimer(refreshes, type).record(nanos, success);
+    }
+
+    @Override
+    public ComponentMetricsSnapshot snapshot() {
+        Table<String, String, TimerSnapshot> createSnapshots = HashBasedTable.create();
+        for (Entry<String, ConcurrentMap<String, Timer>> type : creates.entrySet()) {
+            for (Entry<String, Timer> implementation : type.getValue().entrySet()) {
+                createSnapshots.put(type.getKey(), implementation.getKey(), implementation.getValue().snapshot());
+            }
+        }
+
+        Table<String, Phase, TimerSnapshot> phaseSnapshots = HashBasedTable.create();
+        for (Entry<String, Timer[]> implementation : phases.entrySet()) {
+            for (Phase phase : PHASES) {
+                Timer timer = implementation.getValue()[phase.ordinal()];
+                if (timer.histogram.getTotalCount() > 0) {
+                    phaseSnapshots.put(implementation.getKey(), phase, timer.snapshot());
+                }
+            }
+        }
+
+        return new ComponentMetricsSnapshot(
+                createSnapshots,
+                phaseSnapshots,
+                snapshot(lockWaits),
+                snapshot(lockHolds),
+                snapshot(refreshes));
+    }
+
+    private static Timer getTimer(ConcurrentMap<String, Timer> timers, String key) {
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = new Timer();
+            Timer existing = timers.putIfAbsent(key, timer);
+            if (existing != null) {
+                timer = existing;
+            }
+        }
+        return timer;
+    }
+
+    private static Map<String, TimerSnapshot> snapshot(Map<String, Timer> timers) {
+        Map<String, TimerSnapshot> snapshots = Maps.newHashMap();
+        for (Entry<String, Timer> entry : timers.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return snapshots;
+    }
+}
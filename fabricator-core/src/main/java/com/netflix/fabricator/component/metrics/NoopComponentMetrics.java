@@ -0,0 +1,37 @@
+package com.netflix.fabricator.component.metrics;
+
+/**
+ * ComponentMetrics that doesn't record anything.  Callers compare against
+ * {@link #INSTANCE} to skip reading the clock when metrics are disabled.
+ */
+public final class NoopComponentMetrics implements ComponentMetrics {
+    public static final NoopComponentMetrics INSTANCE = new NoopComponentMetrics();
+
+    private NoopComponentMetrics() {
+    }
+
+    @Override
+    public void recordPhase(String implementation, Phase phase, long nanos) {
+    }
+
+    @Override
+    public void recordCreate(String type, String implementation, long nanos, boolean success) {
+    }
+
+    @Override
+    public void recordLockWait(String type, long nanos) {
+    }
+
+    @Override
+    public void recordLockHold(String type, long nanos) {
+    }
+
+    @Override
+    public void recordRefresh(String type, long nanos, boolean success) {
+    }
+
+    @Override
+    public ComponentMetricsSnapshot snapshot() {
+        return ComponentMetricsSnapshot.EMPTY;
+    }
+}
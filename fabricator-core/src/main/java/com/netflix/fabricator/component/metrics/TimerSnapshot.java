@@ -0,0 +1,80 @@
+package com.netflix.fabricator.component.metrics;
+
+import org.HdrHistogram.AbstractHistogram;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Immutable distribution of recorded times, in nanoseconds, and the number of those
+ * recordings that were failures.
+ */
+public final class TimerSnapshot {
+    public static final TimerSnapshot EMPTY = new TimerSnapshot(null, 0);
+
+    /**
+     * Private copy of the recorded times or null if nothing was recorded
+     */
+    private final AbstractHistogram histogram;
+    private final long              failures;
+
+    TimerSnapshot(AbstractHistogram histogram, long failures) {
+        this.histogram = histogram;
+        this.failures  = failures;
+    }
+
+    /**
+     * @return Number of recorded times, including failures
+     */
+    public long getCount() {
+        return histogram == null ? 0 : histogram.getTotalCount();
+    }
+
+    /**
+     * @return Number of recordings that were failures
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getMean() {
+        return histogram == null ? 0 : histogram.getMean();
+    }
+
+    public long getMin() {
+        return histogram == null ? 0 : histogram.getMinValue();
+    }
+
+    public long getMax() {
+        return histogram == null ? 0 : histogram.getMaxValue();
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return Time at or below which the given percentage of recorded times fall
+     */
+    public long getPercentile(double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100");
+        return histogram == null ? 0 : histogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @return New snapshot combining the recordings of this and other
+     */
+    TimerSnapshot add(TimerSnapshot other) {
+        if (other.histogram == null) {
+            return this;
+        }
+        if (histogram == null) {
+            return other;
+        }
+        AbstractHistogram sum = histogram.copy();
+        sum.add(other.histogram);
+        return new TimerSnapshot(sum, failures + other.failures);
+    }
+
+    @Override
+    public String toString() {
+        return "TimerSnapshot [count=" + getCount() + ", failures=" + failures
+                + ", mean=" + getMean() + ", p99=" + getPercentile(99) + ", max=" + getMax() + "]";
+    }
+}
@@ -2,6 +2,7 @@ package com.netflix.fabricator.jackson;
 
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +14,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.supplier.ListenableSupplier;
+import com.netflix.fabricator.util.ChildNodeCache;
 
 public class JacksonComponentConfiguration implements ConfigurationNode {
 
@@ -32,7 +34,23 @@ public class JacksonComponentConfiguration implements ConfigurationNode {
     private final String type;
     private final JsonNode node;
     
+    /**
+     * Children shared by all configurations over the same JsonNode, or null to create
+     * children on every call to getChild().  A child only depends on its name and the
+     * immutable JsonNode so a cached child is never stale.
+     */
+    private final ChildNodeCache                           cache;
+    private final ConcurrentMap<String, ConfigurationNode> children;
+    
     public JacksonComponentConfiguration(String id, String type, JsonNode node) {
+        this(id, type, node, null);
+    }
+    
+    /**
+     * @param cache Children keyed by the identity of their parent JsonNode, see 
+     *              {@link ChildNodeCache#byIdentity()}, or null
+     */
+    public JacksonComponentConfiguration(String id, String type, JsonNode node, ChildNodeCache cache) {
         super();
         this.id = id;
         if (type == null && node.has("type")) {
@@ -42,6 +60,8 @@ public class JacksonComponentConfiguration implements ConfigurationNode {
             this.type = type;
         }
         this.node = node;
+        this.cache = cache;
+        this.children = cache != null && node != null ? cache.getChildren(node) : null;
     }
 
     @Override
@@ -56,10 +76,23 @@ public class JacksonComponentConfiguration implements ConfigurationNode {
 
     @Override
     public ConfigurationNode getChild(String name) {
+        if (children != null) {
+            ConfigurationNode cached = children.get(name);
+            if (cached != null) {
+                return cached;
+            }
+        }
         JsonNode child = node.get(name);
         if (child == null)
             return null;
-        return new JacksonComponentConfiguration(name, null, child);
+        ConfigurationNode result = new JacksonComponentConfiguration(name, null, child, cache);
+        if (children != null) {
+            ConfigurationNode existing = children.putIfAbsent(name, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
     }
 
     @Override
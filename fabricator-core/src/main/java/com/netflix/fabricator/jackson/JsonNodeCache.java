@@ -0,0 +1,50 @@
+package com.netflix.fabricator.jackson;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of parsed inline JSON component configurations keyed by the raw JSON text.
+ * Resolvers re-read the same JSON blobs on every getConfiguration() call, including
+ * every refresh, so unchanged text is only parsed once.  Changed text is a different
+ * key and is parsed again while the old entry is eventually evicted.
+ * 
+ * Parsed nodes are shared between callers and must not be modified.
+ */
+public class JsonNodeCache {
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    
+    private final ObjectMapper mapper;
+    private final Cache<String, JsonNode> cache;
+    
+    public JsonNodeCache(ObjectMapper mapper) {
+        this(mapper, DEFAULT_MAX_SIZE);
+    }
+    
+    public JsonNodeCache(ObjectMapper mapper, int maxSize) {
+        this.mapper = mapper;
+        this.cache  = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+    
+    /**
+     * Return the parsed JSON, parsing it only if the same text was not seen before
+     * 
+     * @param json
+     * @return
+     * @throws IOException
+     */
+    public JsonNode readTree(String json) throws IOException {
+        JsonNode node = cache.getIfPresent(json);
+        if (node == null) {
+            node = mapper.readTree(json);
+            cache.put(json, node);
+        }
+        return node;
+    }
+}
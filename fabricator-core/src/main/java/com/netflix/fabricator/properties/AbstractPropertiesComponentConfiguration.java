@@ -1,44 +1,73 @@
 package com.netflix.fabricator.properties;
 
+import java.util.concurrent.ConcurrentMap;
+
 import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.util.ChildNodeCache;
 
 /**
- * Base source for 'properties' driven configuration where each 'child' 
+ * Base source for 'properties' driven configuration where each 'child'
  * is namespaced by a property prefix
- * 
+ *
+ * A child only holds its name while values are always read from the underlying 
+ * properties, so the type of a child is looked up when getType() is called rather 
+ * than when the child is created.  Such a child is never stale so when created with
+ * a ChildNodeCache each child is created once, by its full name, and shared by all 
+ * nodes of the same resolver.
+ *
  * @author elandau
  *
  */
 public abstract class AbstractPropertiesComponentConfiguration implements ConfigurationNode {
+    // TODO: Make 'type' configurable
+    protected static final String TYPE_FIELD = "type";
+
     /**
      * This is the property/field name
      */
     private final String     id;
-    
+
     /**
-     * Element type stored in this property.
-     * 
+     * Element type stored in this property.  null to look it up from ${fullName}.type
+     *
      * TODO: may considering moving this out
      */
     private final String     type;
-    
+
     /**
      * This is the full property name with prefix
      */
     private final String     fullName;
-    
+
+    /**
+     * Full name of the property holding the type of this node
+     */
+    private final String     typeName;
+
+    /**
+     * Children shared by all nodes of the resolver, or null to create children on 
+     * every call to getChild()
+     */
+    private final ChildNodeCache                           cache;
+    private final ConcurrentMap<String, ConfigurationNode> children;
+
     public AbstractPropertiesComponentConfiguration(String id, String type) {
-        this.id    = id;
-        this.type  = type;
-        this.fullName = "";
+        this(id, type, "");
     }
-    
+
     public AbstractPropertiesComponentConfiguration(String id, String type, String fullName) {
-        this.id     = id;
-        this.type   = type;
+        this(id, type, fullName, null);
+    }
+
+    public AbstractPropertiesComponentConfiguration(String id, String type, String fullName, ChildNodeCache cache) {
+        this.id       = id;
+        this.type     = type;
         this.fullName = fullName;
+        this.typeName = getChildName(TYPE_FIELD);
+        this.cache    = cache;
+        this.children = cache != null ? cache.getChildren(fullName != null ? fullName : "") : null;
     }
-    
+
     @Override
     public String getId() {
         return id;
@@ -46,10 +75,60 @@ public abstract class AbstractPropertiesComponentConfiguration implements Config
 
     @Override
     public String getType() {
-        return type;
+        if (type != null) {
+            return type;
+        }
+        return lookupType(typeName);
     }
-    
+
     public String getFullName() {
         return this.fullName;
     }
+
+    @Override
+    public ConfigurationNode getChild(String name) {
+        if (children == null) {
+            return createChild(name, getChildName(name));
+        }
+        ConfigurationNode child = children.get(name);
+        if (child == null) {
+            child = createChild(name, getChildName(name));
+            ConfigurationNode existing = children.putIfAbsent(name, child);
+            if (existing != null) {
+                child = existing;
+            }
+        }
+        return child;
+    }
+
+    /**
+     * @return Cache to pass on to children created by createChild(), may be null
+     */
+    protected ChildNodeCache getChildNodeCache() {
+        return cache;
+    }
+
+    /**
+     * @param name
+     * @return Full property name of the child called name
+     */
+    protected String getChildName(String name) {
+        if (fullName == null) {
+            return name;
+        }
+        return fullName + "." + name;
+    }
+
+    /**
+     * Create a child node whose type is looked up on demand
+     * @param name      Property name of the child
+     * @param fullName  Full property name of the child, including this node's prefix
+     */
+    protected abstract ConfigurationNode createChild(String name, String fullName);
+
+    /**
+     * @param typeName Full name of the type property
+     * @return Current value of the type property or null if not set
+     */
+    protected abstract String lookupType(String typeName);
 }
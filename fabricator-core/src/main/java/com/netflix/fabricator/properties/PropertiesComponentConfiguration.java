@@ -1,10 +1,10 @@
 package com.netflix.fabricator.properties;
 
 import com.google.common.base.Function;
-import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.supplier.ListenableSupplier;
+import com.netflix.fabricator.util.ChildNodeCache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,7 +19,14 @@ public class PropertiesComponentConfiguration extends AbstractPropertiesComponen
     private final Properties props;
     
     public PropertiesComponentConfiguration(String id, String type, Properties props, String fullName) {
-        super(id, type, fullName);
+        this(id, type, props, fullName, null);
+    }
+
+    /**
+     * @param cache Children shared by all configurations of the same properties, or null
+     */
+    public PropertiesComponentConfiguration(String id, String type, Properties props, String fullName, ChildNodeCache cache) {
+        super(id, type, fullName, cache);
         this.props = props;
     }
 
@@ -130,13 +137,13 @@ public class PropertiesComponentConfiguration extends AbstractPropertiesComponen
     }
 
     @Override
-    public ConfigurationNode getChild(String name) {
-        String fullName = Joiner.on(".").skipNulls().join(getFullName(), name);
-        return new PropertiesComponentConfiguration(
-                name, 
-                props.getProperty(Joiner.on(".").join(fullName, "type")),     // TODO: Make 'type' configurable
-                props, 
-                fullName);
+    protected ConfigurationNode createChild(String name, String fullName) {
+        return new PropertiesComponentConfiguration(name, null, props, fullName, getChildNodeCache());
+    }
+
+    @Override
+    protected String lookupType(String typeName) {
+        return props.getProperty(typeName);
     }
 
     @Override
@@ -146,7 +153,7 @@ public class PropertiesComponentConfiguration extends AbstractPropertiesComponen
 
     @Override
     public boolean hasChild(String propertyName) {
-        return props.containsKey(Joiner.on(".").skipNulls().join(getFullName(), propertyName));
+        return props.containsKey(getChildName(propertyName));
     }
 
     @Override
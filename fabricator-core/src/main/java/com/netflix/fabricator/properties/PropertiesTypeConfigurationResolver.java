@@ -9,12 +9,14 @@ import org.apache.commons.lang.StringUtils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.base.Joiner;
 import com.google.common.collect.Maps;
 import com.netflix.fabricator.ComponentConfigurationResolver;
 import com.netflix.fabricator.ConfigurationNode;
 import com.netflix.fabricator.TypeConfigurationResolver;
 import com.netflix.fabricator.jackson.JacksonComponentConfiguration;
+import com.netflix.fabricator.jackson.JsonNodeCache;
+import com.netflix.fabricator.util.ChildNodeCache;
+import com.netflix.fabricator.util.ConfigurationKeyIndex;
 
 /**
  * TypeConfiguration resolver following the convention of ${id}.${type}. to determine
@@ -43,6 +45,25 @@ public class PropertiesTypeConfigurationResolver implements TypeConfigurationRes
     private final Properties properties;
     
     private final ObjectMapper mapper = new ObjectMapper();
+    
+    private final JsonNodeCache jsonCache = new JsonNodeCache(mapper);
+    
+    /**
+     * Children of the configurations returned by this resolver, by full property name 
+     * and by JsonNode.  See {@link ChildNodeCache}.
+     */
+    private final ChildNodeCache propertyChildren = ChildNodeCache.byName();
+    private final ChildNodeCache jsonChildren     = ChildNodeCache.byIdentity();
+    
+    /**
+     * Index of all keys by type and id.  Properties has no change notification so 
+     * the index is rebuilt whenever the number of keys or the hash of the key set no 
+     * longer matches what was indexed.  The hash only sums the cached hash codes of
+     * the keys so checking it is much cheaper than rebuilding the index.
+     */
+    private final ConfigurationKeyIndex index = new ConfigurationKeyIndex();
+    private int indexedSize = -1;
+    private int indexedHash;
 
     @Inject
     public PropertiesTypeConfigurationResolver(Properties properties, Map<String, ComponentConfigurationResolver> overrides) {
@@ -69,10 +90,10 @@ public class PropertiesTypeConfigurationResolver implements TypeConfigurationRes
                     String json = properties.getProperty(prefix).trim();
                     if (!json.isEmpty() && json.startsWith("{") && json.endsWith("}")) {
                         try {
-                            JsonNode node = mapper.readTree(json);
+                            JsonNode node = jsonCache.readTree(json);
                             if (node.get(TYPE_FIELD) == null)
                                 throw new Exception("Missing 'type' field");
-                            return new JacksonComponentConfiguration(key, node.get(TYPE_FIELD).asText(), node);
+                            return new JacksonComponentConfiguration(key, node.get(TYPE_FIELD).asText(), node, jsonChildren);
                         } catch (Exception e) {
                             throw new RuntimeException(
                                 String.format("Unable to parse json from '%s'. (%s)", 
@@ -83,7 +104,7 @@ public class PropertiesTypeConfigurationResolver implements TypeConfigurationRes
                     }
                 }
                 
-                String typeField = Joiner.on(".").join(prefix, TYPE_FIELD);
+                String typeField = prefix + "." + TYPE_FIELD;
                 String typeValue = properties.getProperty(typeField);
                 
                 if (componentType == null) {
@@ -94,26 +115,31 @@ public class PropertiesTypeConfigurationResolver implements TypeConfigurationRes
                         key,
                         typeValue,
                         properties,
-                        prefix);
+                        prefix,
+                        propertyChildren);
             }
             
             @Override
             public Map<String, ConfigurationNode> getAllConfigurations() {
                 Map<String, ConfigurationNode> configs = Maps.newHashMap();
-                for (Object key : properties.keySet()) {
-                    String[] parts = StringUtils.split(key.toString(), ".");
-                    if (parts.length > 1) {
-                        String type = parts[1];
-                        if (type.equals(componentType)) {
-                            String id = parts[0];
-                            if (!configs.containsKey(id)) {
-                                configs.put(id, getConfiguration(id));
-                            }
-                        }
-                    }
+                for (String id : getIndex().getIds(componentType)) {
+                    configs.put(id, getConfiguration(id));
                 }
                 return configs;
             }
         };
     }
+    
+    private synchronized ConfigurationKeyIndex getIndex() {
+        synchronized (properties) {
+            int size = properties.size();
+            int hash = properties.keySet().hashCode();
+            if (size != indexedSize || hash != indexedHash) {
+                index.rebuild(properties.keySet().iterator());
+                indexedSize = size;
+                indexedHash = hash;
+            }
+        }
+        return index;
+    }
 }
@@ -0,0 +1,329 @@
+package com.netflix.fabricator.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Read only view of a configuration bundle written by {@link ConfigurationBundleCompiler}.
+ * The bundle is normally memory mapped with {@link #open(File)} so that keys, values and
+ * their pre-parsed numeric forms stay in the page cache instead of on the heap, and
+ * several processes on the same host share a single copy of a large configuration.
+ * Opening a bundle only reads the header and the list of types, regardless of its size.
+ *
+ * Layout, all integers big endian and all string references relative to the start of
+ * the string table:
+ *
+ * <pre>
+ * header   : magic, version, entryCount, entriesOffset, typesOffset, stringsOffset
+ * entries  : entryCount x { keyRef, valueRef, long, double, flags, padding } sorted by key
+ * types    : typeCount, typeCount x { nameRef, idCount, idCount x idRef } with sorted ids
+ * strings  : { utf-8 length, utf-8 bytes } shared by keys, values, types and ids
+ * </pre>
+ *
+ * Keys are compared in place against the UTF-8 bytes of the bundle, without decoding
+ * them into Strings.  Only the values that are actually read as Strings are decoded.
+ */
+public final class ConfigurationBundle extends ImmutableConfiguration {
+    static final int MAGIC   = 0x46414252;    // 'FABR'
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE     = 24;
+    static final int ENTRY_SIZE      = 32;
+
+    static final int ENTRY_KEY       = 0;
+    static final int ENTRY_VALUE     = 4;
+    static final int ENTRY_LONG      = 8;
+    static final int ENTRY_DOUBLE    = 16;
+    static final int ENTRY_FLAGS     = 24;
+
+    /**
+     * Memory map a bundle file.  The file must not be modified while it is mapped;
+     * ConfigurationBundleCompiler replaces files atomically so that a new version can
+     * be opened while the old one is still in use.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public static ConfigurationBundle open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Bundle '%s' is too large (%d bytes)", file, size));
+            }
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(String.format("Invalid bundle '%s'", file), e);
+        }
+        finally {
+            // The mapping remains valid after the channel is closed
+            channel.close();
+        }
+    }
+
+    /**
+     * Read a bundle from a buffer, such as the output of ConfigurationBundleCompiler.toByteArray()
+     * @param buffer
+     */
+    public static ConfigurationBundle wrap(ByteBuffer buffer) {
+        return new ConfigurationBundle(buffer);
+    }
+
+    public static ConfigurationBundle wrap(byte[] data) {
+        return wrap(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Only absolute reads are used so the buffer can be shared by all threads
+     */
+    private final ByteBuffer buffer;
+    private final int        size;
+    private final int        entriesOffset;
+    private final int        stringsOffset;
+
+    /**
+     * type -> position of the type's idCount
+     */
+    private final Map<String, Integer> types;
+
+    /**
+     * type -> ids, decoded on first use
+     */
+    private final ConcurrentMap<String, Set<String>> ids = Maps.newConcurrentMap();
+
+    private ConfigurationBundle(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+
+        Preconditions.checkArgument(this.buffer.capacity() >= HEADER_SIZE, "Bundle is too small");
+        Preconditions.checkArgument(this.buffer.getInt(0) == MAGIC, "Not a configuration bundle");
+        int version = this.buffer.getInt(4);
+        Preconditions.checkArgument(version == VERSION, String.format("Unsupported bundle version %d", version));
+
+        this.size          = this.buffer.getInt(8);
+        this.entriesOffset = this.buffer.getInt(12);
+        int typesOffset    = this.buffer.getInt(16);
+        this.stringsOffset = this.buffer.getInt(20);
+        Preconditions.checkArgument(
+                   size >= 0
+                && entriesOffset >= HEADER_SIZE
+                && (long)entriesOffset + (long)size * ENTRY_SIZE <= typesOffset
+                && typesOffset <= stringsOffset
+                && stringsOffset <= this.buffer.capacity(),
+                "Corrupt bundle header");
+
+        ImmutableMap.Builder<String, Integer> types = ImmutableMap.builder();
+        int typeCount = this.buffer.getInt(typesOffset);
+        int position  = typesOffset + 4;
+        for (int i = 0; i < typeCount; i++) {
+            String type  = readString(this.buffer.getInt(position));
+            int idCount  = this.buffer.getInt(position + 4);
+            types.put(type, position + 4);
+            position += 8 + idCount * 4;
+        }
+        this.types = types.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<String> getIds(String type) {
+        Set<String> result = ids.get(type);
+        if (result == null) {
+            Integer position = types.get(type);
+            if (position == null) {
+                return ImmutableSet.of();
+            }
+
+            ImmutableSortedSet.Builder<String> builder = ImmutableSortedSet.naturalOrder();
+            int idCount = buffer.getInt(position);
+            for (int i = 0; i < idCount; i++) {
+                builder.add(readString(buffer.getInt(position + 4 + i * 4)));
+            }
+            result = builder.build();
+            ids.putIfAbsent(type, result);
+        }
+        return result;
+    }
+
+    @Override
+    int indexOf(String key) {
+        int low  = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(mid, key, false);
+            if (cmp < 0) {
+                low = mid + 1;
+            }
+            else if (cmp > 0) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    int lowerBound(String key) {
+        int index = indexOf(key);
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    @Override
+    String getKey(int index) {
+        return readString(buffer.getInt(entry(index) + ENTRY_KEY));
+    }
+
+    @Override
+    boolean keyStartsWith(int index, String prefix) {
+        return compareKey(index, prefix, true) == 0;
+    }
+
+    @Override
+    String getString(int index) {
+        return readString(buffer.getInt(entry(index) + ENTRY_VALUE));
+    }
+
+    @Override
+    Boolean getBoolean(int index) {
+        return (flags(index) & ConfigurationSnapshot.IS_TRUE) != 0;
+    }
+
+    @Override
+    Integer getInteger(int index) {
+        if ((flags(index) & ConfigurationSnapshot.IS_LONG) != 0) {
+            long value = buffer.getLong(entry(index) + ENTRY_LONG);
+            if (value == (int)value) {
+                return (int)value;
+            }
+        }
+        return Integer.valueOf(getString(index));
+    }
+
+    @Override
+    Long getLong(int index) {
+        if ((flags(index) & ConfigurationSnapshot.IS_LONG) != 0) {
+            return buffer.getLong(entry(index) + ENTRY_LONG);
+        }
+        return Long.valueOf(getString(index));
+    }
+
+    @Override
+    Double getDouble(int index) {
+        if ((flags(index) & ConfigurationSnapshot.IS_DOUBLE) != 0) {
+            return buffer.getDouble(entry(index) + ENTRY_DOUBLE);
+        }
+        return Double.valueOf(getString(index));
+    }
+
+    private int entry(int index) {
+        return entriesOffset + index * ENTRY_SIZE;
+    }
+
+    private byte flags(int index) {
+        return buffer.get(entry(index) + ENTRY_FLAGS);
+    }
+
+    private String readString(int ref) {
+        int position = stringsOffset + ref;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare the key at index to key in the same order as String.compareTo() by decoding
+     * the stored UTF-8 bytes one char at a time.
+     *
+     * @param prefixOnly If true return 0 when the stored key starts with key
+     */
+    private int compareKey(int index, String key, boolean prefixOnly) {
+        int position = stringsOffset + buffer.getInt(entry(index) + ENTRY_KEY);
+        int end      = position + 4 + buffer.getInt(position);
+        position += 4;
+
+        int  k       = 0;
+        char pending = 0;   // Low surrogate of the last decoded supplementary code point
+        while (k < key.length()) {
+            char c;
+            if (pending != 0) {
+                c = pending;
+                pending = 0;
+            }
+            else if (position < end) {
+                int b = buffer.get(position) & 0xFF;
+                int codePoint;
+                if (b < 0x80) {
+                    codePoint = b;
+                    position += 1;
+                }
+                else if (b < 0xE0) {
+                    codePoint = ((b & 0x1F) << 6)
+                              | (buffer.get(position + 1) & 0x3F);
+                    position += 2;
+                }
+                else if (b < 0xF0) {
+                    codePoint = ((b & 0x0F) << 12)
+                              | ((buffer.get(position + 1) & 0x3F) << 6)
+                              | (buffer.get(position + 2) & 0x3F);
+                    position += 3;
+                }
+                else {
+                    codePoint = ((b & 0x07) << 18)
+                              | ((buffer.get(position + 1) & 0x3F) << 12)
+                              | ((buffer.get(position + 2) & 0x3F) << 6)
+                              | (buffer.get(position + 3) & 0x3F);
+                    position += 4;
+                }
+
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    c       = Character.highSurrogate(codePoint);
+                    pending = Character.lowSurrogate(codePoint);
+                }
+                else {
+                    c = (char)codePoint;
+                }
+            }
+            else {
+                // Stored key is a strict prefix of key
+                return -1;
+            }
+
+            if (c != key.charAt(k)) {
+                return c - key.charAt(k);
+            }
+            k++;
+        }
+
+        if (prefixOnly || (pending == 0 && position == end)) {
+            return 0;
+        }
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigurationBundle[size=" + size + "]";
+    }
+}
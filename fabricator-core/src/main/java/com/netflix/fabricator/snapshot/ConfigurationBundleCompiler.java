@@ -0,0 +1,170 @@
+package com.netflix.fabricator.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Compile a {@link ConfigurationSnapshot} into the binary format read by
+ * {@link ConfigurationBundle}.  Strings are de-duplicated so that ids, types and
+ * repeated values are only stored once, and the parsed forms of numeric and boolean
+ * values are copied from the snapshot so that readers never parse them.
+ *
+ * Can also be run from the command line to compile .properties files ahead of time,
+ *
+ * <pre>
+ * java com.netflix.fabricator.snapshot.ConfigurationBundleCompiler out.bundle a.properties [b.properties ...]
+ * </pre>
+ *
+ * Later files override keys of earlier files.
+ */
+public final class ConfigurationBundleCompiler {
+    private ConfigurationBundleCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ConfigurationBundleCompiler <output> <input.properties> [<input.properties> ...]");
+            System.exit(1);
+        }
+
+        ConfigurationSnapshot.Builder builder = ConfigurationSnapshot.builder();
+        for (int i = 1; i < args.length; i++) {
+            Properties props = new Properties();
+            InputStream is = new FileInputStream(args[i]);
+            try {
+                props.load(is);
+            }
+            finally {
+                is.close();
+            }
+            builder.putAll(props);
+        }
+
+        ConfigurationSnapshot snapshot = builder.build();
+        File output = new File(args[0]);
+        compile(snapshot, output);
+        System.out.println(String.format("Wrote %d keys to %s (%d bytes)", snapshot.size(), output, output.length()));
+    }
+
+    /**
+     * Write the bundle to a temporary file next to output and then move it in place so
+     * that a bundle which is currently mapped is never modified.
+     *
+     * @param snapshot
+     * @param output
+     * @throws IOException
+     */
+    public static void compile(ConfigurationSnapshot snapshot, File output) throws IOException {
+        Path target = output.getAbsoluteFile().toPath();
+        Path temp   = Files.createTempFile(target.getParent(), output.getName(), ".tmp");
+        try {
+            Files.write(temp, toByteArray(snapshot));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static byte[] toByteArray(ConfigurationSnapshot snapshot) throws IOException {
+        StringTable strings = new StringTable();
+        int size = snapshot.size();
+
+        int[] keyRefs   = new int[size];
+        int[] valueRefs = new int[size];
+        for (int i = 0; i < size; i++) {
+            keyRefs[i]   = strings.add(snapshot.getKey(i));
+            valueRefs[i] = strings.add(snapshot.getString(i));
+        }
+
+        ByteArrayOutputStream typesBytes = new ByteArrayOutputStream();
+        DataOutputStream      types      = new DataOutputStream(typesBytes);
+        Set<String> typeNames = ImmutableSortedSet.copyOf(snapshot.getTypes());
+        types.writeInt(typeNames.size());
+        for (String type : typeNames) {
+            Set<String> ids = snapshot.getIds(type);
+            types.writeInt(strings.add(type));
+            types.writeInt(ids.size());
+            for (String id : ids) {
+                types.writeInt(strings.add(id));
+            }
+        }
+        types.flush();
+
+        long entriesOffset = ConfigurationBundle.HEADER_SIZE;
+        long typesOffset   = entriesOffset + (long)size * ConfigurationBundle.ENTRY_SIZE;
+        long stringsOffset = typesOffset + typesBytes.size();
+        long totalSize     = stringsOffset + strings.size();
+        if (totalSize > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Bundle too large (%d bytes)", totalSize));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int)totalSize);
+        buffer.putInt(ConfigurationBundle.MAGIC);
+        buffer.putInt(ConfigurationBundle.VERSION);
+        buffer.putInt(size);
+        buffer.putInt((int)entriesOffset);
+        buffer.putInt((int)typesOffset);
+        buffer.putInt((int)stringsOffset);
+
+        for (int i = 0; i < size; i++) {
+            int entry = (int)entriesOffset + i * ConfigurationBundle.ENTRY_SIZE;
+            byte flags = snapshot.getFlags(i);
+            buffer.putInt   (entry + ConfigurationBundle.ENTRY_KEY,    keyRefs[i]);
+            buffer.putInt   (entry + ConfigurationBundle.ENTRY_VALUE,  valueRefs[i]);
+            buffer.putLong  (entry + ConfigurationBundle.ENTRY_LONG,   (flags & ConfigurationSnapshot.IS_LONG)   != 0 ? snapshot.getRawLong(i)   : 0);
+            buffer.putDouble(entry + ConfigurationBundle.ENTRY_DOUBLE, (flags & ConfigurationSnapshot.IS_DOUBLE) != 0 ? snapshot.getRawDouble(i) : 0);
+            buffer.put      (entry + ConfigurationBundle.ENTRY_FLAGS,  flags);
+        }
+
+        buffer.position((int)typesOffset);
+        buffer.put(typesBytes.toByteArray());
+        buffer.put(strings.toByteArray());
+        return buffer.array();
+    }
+
+    /**
+     * Length prefixed UTF-8 strings, each stored once
+     */
+    private static class StringTable {
+        private final Map<String, Integer>  refs  = Maps.newHashMap();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream      out   = new DataOutputStream(bytes);
+
+        int add(String value) throws IOException {
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = out.size();
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+                refs.put(value, ref);
+            }
+            return ref;
+        }
+
+        int size() {
+            return out.size();
+        }
+
+        byte[] toByteArray() throws IOException {
+            out.flush();
+            return bytes.toByteArray();
+        }
+    }
+}
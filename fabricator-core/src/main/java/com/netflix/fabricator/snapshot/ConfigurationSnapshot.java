@@ -0,0 +1,261 @@
+package com.netflix.fabricator.snapshot;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.netflix.fabricator.util.ConfigurationKeyIndex;
+
+/**
+ * Immutable copy of a flat key/value configuration, such as a Properties object or an
+ * archaius configuration, that can be read by any number of threads without locking.
+ *
+ * Keys are kept in a single sorted array so that all keys sharing a prefix, i.e. all
+ * properties of one component or of one of its sub-configurations, form a contiguous
+ * range that is found with a binary search.  Values that parse as a long or a double
+ * are parsed once when the snapshot is built and stored in primitive arrays next to
+ * the raw strings, so reading a numeric value does not parse it again.  The ids of each
+ * type, following the ${id}.${type} convention, are indexed up front.
+ *
+ * A snapshot is meant to be built once per version of the configuration.  See
+ * {@link SnapshotTypeConfigurationResolver#setSnapshot(ImmutableConfiguration)}.  Use
+ * {@link ConfigurationBundleCompiler} to store a snapshot in a file that can be mapped
+ * into memory instead of being loaded onto the heap.
+ */
+public final class ConfigurationSnapshot extends ImmutableConfiguration {
+    static final byte IS_LONG   = 1;
+    static final byte IS_DOUBLE = 2;
+    static final byte IS_TRUE   = 4;
+
+    public static class Builder {
+        private final SortedMap<String, String> values = Maps.newTreeMap();
+
+        public Builder put(String key, String value) {
+            Preconditions.checkNotNull(key,   "Key must not be null");
+            Preconditions.checkNotNull(value, String.format("Value for '%s' must not be null", key));
+            values.put(key, value);
+            return this;
+        }
+
+        public Builder putAll(Map<String, String> values) {
+            for (Entry<String, String> entry : values.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        public Builder putAll(Properties props) {
+            for (String key : props.stringPropertyNames()) {
+                put(key, props.getProperty(key));
+            }
+            return this;
+        }
+
+        public ConfigurationSnapshot build() {
+            return new ConfigurationSnapshot(values);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static ConfigurationSnapshot from(Properties props) {
+        return builder().putAll(props).build();
+    }
+
+    public static ConfigurationSnapshot from(Map<String, String> values) {
+        return builder().putAll(values).build();
+    }
+
+    private final String[] keys;
+    private final String[] values;
+    private final long[]   longs;
+    private final double[] doubles;
+    private final byte[]   flags;
+
+    /**
+     * type -> ids
+     */
+    private final Map<String, Set<String>> ids;
+
+    private ConfigurationSnapshot(SortedMap<String, String> source) {
+        int size = source.size();
+        keys    = new String[size];
+        values  = new String[size];
+        longs   = new long[size];
+        doubles = new double[size];
+        flags   = new byte[size];
+
+        Map<String, ImmutableSortedSet.Builder<String>> idBuilders = Maps.newHashMap();
+        int i = 0;
+        for (Entry<String, String> entry : source.entrySet()) {
+            keys[i]   = entry.getKey();
+            values[i] = entry.getValue();
+            parse(i);
+
+            String[] parts = ConfigurationKeyIndex.split(keys[i]);
+            if (parts != null) {
+                ImmutableSortedSet.Builder<String> typeIds = idBuilders.get(parts[1]);
+                if (typeIds == null) {
+                    typeIds = ImmutableSortedSet.naturalOrder();
+                    idBuilders.put(parts[1], typeIds);
+                }
+                typeIds.add(parts[0]);
+            }
+            i++;
+        }
+
+        ImmutableMap.Builder<String, Set<String>> ids = ImmutableMap.builder();
+        for (Entry<String, ImmutableSortedSet.Builder<String>> entry : idBuilders.entrySet()) {
+            ids.put(entry.getKey(), entry.getValue().build());
+        }
+        this.ids = ids.build();
+    }
+
+    /**
+     * Fill the typed slots for the value at index.  Values that don't parse exactly are
+     * left to the readers, which then fail the same way they would for a Properties
+     * object.
+     */
+    private void parse(int index) {
+        String value = values[index];
+        if (value.equalsIgnoreCase("true")) {
+            flags[index] |= IS_TRUE;
+        }
+        if (value.isEmpty()) {
+            return;
+        }
+
+        char first = value.charAt(0);
+        if (!Character.isDigit(first) && first != '-' && first != '+' && first != '.') {
+            return;
+        }
+        try {
+            longs[index] = Long.parseLong(value);
+            doubles[index] = longs[index];
+            flags[index] |= IS_LONG | IS_DOUBLE;
+            return;
+        }
+        catch (NumberFormatException e) {
+            // Not a long
+        }
+        try {
+            doubles[index] = Double.parseDouble(value);
+            flags[index] |= IS_DOUBLE;
+        }
+        catch (NumberFormatException e) {
+            // Not a number
+        }
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    int indexOf(String key) {
+        return Arrays.binarySearch(keys, key);
+    }
+
+    @Override
+    int lowerBound(String prefix) {
+        int index = Arrays.binarySearch(keys, prefix);
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    @Override
+    String getKey(int index) {
+        return keys[index];
+    }
+
+    @Override
+    boolean keyStartsWith(int index, String prefix) {
+        return keys[index].startsWith(prefix);
+    }
+
+    @Override
+    String getString(int index) {
+        return values[index];
+    }
+
+    @Override
+    Boolean getBoolean(int index) {
+        return (flags[index] & IS_TRUE) != 0;
+    }
+
+    @Override
+    Integer getInteger(int index) {
+        if ((flags[index] & IS_LONG) != 0 && longs[index] == (int)longs[index]) {
+            return (int)longs[index];
+        }
+        return Integer.valueOf(values[index]);
+    }
+
+    @Override
+    Long getLong(int index) {
+        if ((flags[index] & IS_LONG) != 0) {
+            return longs[index];
+        }
+        return Long.valueOf(values[index]);
+    }
+
+    @Override
+    Double getDouble(int index) {
+        if ((flags[index] & IS_DOUBLE) != 0) {
+            return doubles[index];
+        }
+        return Double.valueOf(values[index]);
+    }
+
+    /**
+     * @return Combination of IS_LONG, IS_DOUBLE and IS_TRUE for the value at index
+     */
+    byte getFlags(int index) {
+        return flags[index];
+    }
+
+    /**
+     * @return The parsed long value at index, only valid if IS_LONG is set
+     */
+    long getRawLong(int index) {
+        return longs[index];
+    }
+
+    /**
+     * @return The parsed double value at index, only valid if IS_DOUBLE is set
+     */
+    double getRawDouble(int index) {
+        return doubles[index];
+    }
+
+    /**
+     * @return All types with at least one id
+     */
+    Set<String> getTypes() {
+        return ids.keySet();
+    }
+
+    @Override
+    public Set<String> getIds(String type) {
+        Set<String> result = ids.get(type);
+        if (result == null) {
+            return ImmutableSet.of();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigurationSnapshot[size=" + keys.length + "]";
+    }
+}
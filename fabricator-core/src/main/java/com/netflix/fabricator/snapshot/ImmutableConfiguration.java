@@ -0,0 +1,114 @@
+package com.netflix.fabricator.snapshot;
+
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Flat key/value configuration that never changes once created and can therefore be
+ * read by any number of threads without locking.  Entries are sorted by key so that
+ * all keys sharing a prefix, i.e. all properties of one component or of one of its
+ * sub-configurations, form a contiguous range.  Entries are addressed by their index
+ * in that order, which lets SnapshotConfigurationNode find its own entry once and
+ * then read it directly.
+ *
+ * @see ConfigurationSnapshot
+ * @see ConfigurationBundle
+ */
+public abstract class ImmutableConfiguration {
+    /**
+     * @return Number of entries
+     */
+    public abstract int size();
+
+    /**
+     * @param type
+     * @return Ids of all components of type following the ${id}.${type} convention
+     */
+    public abstract Set<String> getIds(String type);
+
+    /**
+     * @return Index of key or a negative value if not found
+     */
+    abstract int indexOf(String key);
+
+    /**
+     * @return Index of the first key that is equal to or greater than key
+     */
+    abstract int lowerBound(String key);
+
+    abstract String getKey(int index);
+
+    abstract boolean keyStartsWith(int index, String prefix);
+
+    abstract String getString(int index);
+
+    abstract Boolean getBoolean(int index);
+
+    abstract Integer getInteger(int index);
+
+    abstract Long getLong(int index);
+
+    abstract Double getDouble(int index);
+
+    public boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return The value of key or null if not found
+     */
+    public String getString(String key) {
+        int index = indexOf(key);
+        return index >= 0 ? getString(index) : null;
+    }
+
+    /**
+     * @param prefix
+     * @return All keys starting with prefix + '.' with the prefix removed
+     */
+    public Properties getProperties(String prefix) {
+        String start = prefix + ".";
+        Properties result = new Properties();
+        for (int i = lowerBound(start); i < size() && keyStartsWith(i, start); i++) {
+            result.setProperty(getKey(i).substring(start.length()), getString(i));
+        }
+        return result;
+    }
+
+    /**
+     * @param prefix
+     * @param other
+     * @return True if the value of prefix and of all keys starting with prefix + '.' are the
+     *         same in both configurations
+     */
+    public boolean subtreeEquals(String prefix, ImmutableConfiguration other) {
+        if (this == other) {
+            return true;
+        }
+
+        int index      = indexOf(prefix);
+        int otherIndex = other.indexOf(prefix);
+        if ((index >= 0) != (otherIndex >= 0)) {
+            return false;
+        }
+        if (index >= 0 && !getString(index).equals(other.getString(otherIndex))) {
+            return false;
+        }
+
+        String start = prefix + ".";
+        int i = lowerBound(start);
+        int j = other.lowerBound(start);
+        while (true) {
+            boolean inRange      = i < size()       && keyStartsWith(i, start);
+            boolean otherInRange = j < other.size() && other.keyStartsWith(j, start);
+            if (!inRange || !otherInRange) {
+                return inRange == otherInRange;
+            }
+            if (!getKey(i).equals(other.getKey(j)) || !getString(i).equals(other.getString(j))) {
+                return false;
+            }
+            i++;
+            j++;
+        }
+    }
+}
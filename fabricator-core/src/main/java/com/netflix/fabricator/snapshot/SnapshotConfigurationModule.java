@@ -0,0 +1,26 @@
+package com.netflix.fabricator.snapshot;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.MapBinder;
+import com.netflix.fabricator.ComponentConfigurationResolver;
+import com.netflix.fabricator.TypeConfigurationResolver;
+
+/**
+ * Read all component configurations from an ImmutableConfiguration, i.e. a
+ * ConfigurationSnapshot or a ConfigurationBundle.  Inject
+ * SnapshotTypeConfigurationResolver to publish new versions of the configuration.
+ */
+public class SnapshotConfigurationModule extends AbstractModule {
+    private final ImmutableConfiguration snapshot;
+
+    public SnapshotConfigurationModule(ImmutableConfiguration snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    protected void configure() {
+        bind(ImmutableConfiguration.class).toInstance(snapshot);
+        MapBinder.newMapBinder(binder(), String.class, ComponentConfigurationResolver.class);
+        bind(TypeConfigurationResolver.class).to(SnapshotTypeConfigurationResolver.class);
+    }
+}
@@ -0,0 +1,218 @@
+package com.netflix.fabricator.snapshot;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.supplier.ListenableSupplier;
+
+/**
+ * ConfigurationNode reading from an {@link ImmutableConfiguration}, either a heap
+ * ConfigurationSnapshot or a memory mapped ConfigurationBundle.  Keys are
+ * named the same way as for PropertiesComponentConfiguration, i.e. ${prefix}.${property}.
+ *
+ * Since the configuration never changes, the position of the node's own value is found once
+ * when the node is created and dynamic values are constant.  For the same reason nodes are
+ * shared by full name between all nodes of the same snapshot, so each node is only created
+ * once per snapshot.
+ */
+public class SnapshotConfigurationNode implements ConfigurationNode {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotConfigurationNode.class);
+
+    private static final String TYPE_FIELD = "type";
+
+    private static class ConstantSupplier<T> implements ListenableSupplier<T> {
+        private final T value;
+
+        ConstantSupplier(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T get() {
+            return value;
+        }
+
+        @Override
+        public void onChange(Function<T, Void> func) {
+            // noop
+        }
+    }
+
+    private final ImmutableConfiguration snapshot;
+    private final String                 id;
+    private final String                 type;
+    private final String                 fullName;
+
+    /**
+     * Index of fullName in the snapshot or negative if this node has no value of its own
+     */
+    private final int                    index;
+
+    /**
+     * Nodes of the snapshot that were already created, by full name
+     */
+    private final ConcurrentMap<String, ConfigurationNode> nodes;
+
+    public SnapshotConfigurationNode(ImmutableConfiguration snapshot, String id, String type, String fullName) {
+        this(snapshot, id, type, fullName, Maps.<String, ConfigurationNode>newConcurrentMap());
+    }
+
+    SnapshotConfigurationNode(ImmutableConfiguration snapshot, String id, String type, String fullName, ConcurrentMap<String, ConfigurationNode> nodes) {
+        this.snapshot = snapshot;
+        this.id       = id;
+        this.fullName = fullName;
+        this.index    = snapshot.indexOf(fullName);
+        this.type     = type != null ? type : snapshot.getString(fullName + "." + TYPE_FIELD);
+        this.nodes    = nodes;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public ImmutableConfiguration getSnapshot() {
+        return snapshot;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getValue(Class<T> type) {
+        if ( Properties.class.isAssignableFrom(type)) {
+            if (index >= 0) {
+                throw new RuntimeException(fullName + " is not a root for a properties structure");
+            }
+            return (T) snapshot.getProperties(fullName);
+        }
+
+        if (index < 0) {
+            return null;
+        }
+
+        if ( String.class.isAssignableFrom(type) ) {
+            return (T) snapshot.getString(index);
+        }
+        else if ( Boolean.class.isAssignableFrom(type)
+                  || boolean.class.equals(type)) {
+            return (T) snapshot.getBoolean(index);
+        }
+        else if ( Integer.class.isAssignableFrom(type)
+                  || int.class.equals(type)) {
+            return (T) snapshot.getInteger(index);
+        }
+        else if ( Long.class.isAssignableFrom(type)
+                  || long.class.equals(type)) {
+            return (T) snapshot.getLong(index);
+        }
+        else if ( Double.class.isAssignableFrom(type)
+                  || double.class.equals(type)) {
+            return (T) snapshot.getDouble(index);
+        }
+        else {
+            LOG.warn(String.format("Unknown type '%s' for property '%s'", type.getCanonicalName(), fullName));
+            return null;
+        }
+    }
+
+    @Override
+    public <T> ListenableSupplier<T> getDynamicValue(Class<T> type) {
+        if (!isSupported(type)) {
+            LOG.warn(String.format("Unknown type '%s' for property '%s'", type.getCanonicalName(), fullName));
+            return null;
+        }
+        return new ConstantSupplier<T>(getValue(type));
+    }
+
+    private static boolean isSupported(Class<?> type) {
+        return String.class.isAssignableFrom(type)
+            || Boolean.class.isAssignableFrom(type) || boolean.class.equals(type)
+            || Integer.class.isAssignableFrom(type) || int.class.equals(type)
+            || Long.class.isAssignableFrom(type)    || long.class.equals(type)
+            || Double.class.isAssignableFrom(type)  || double.class.equals(type)
+            || Properties.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public ConfigurationNode getChild(String name) {
+        String childName = fullName + "." + name;
+        ConfigurationNode child = nodes.get(childName);
+        if (child == null) {
+            child = new SnapshotConfigurationNode(snapshot, name, null, childName, nodes);
+            ConfigurationNode existing = nodes.putIfAbsent(childName, child);
+            if (existing != null) {
+                child = existing;
+            }
+        }
+        return child;
+    }
+
+    @Override
+    public boolean isSingle() {
+        return index >= 0;
+    }
+
+    @Override
+    public boolean hasChild(String propertyName) {
+        return snapshot.containsKey(fullName + "." + propertyName);
+    }
+
+    @Override
+    public Set<String> getUnknownProperties(Set<String> supportedProperties) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("SnapshotConfigurationNode[")
+            .append("id=").append(id)
+            .append(",type=").append(type)
+            .append(",full=").append(fullName)
+            .append(",snapshot=").append(snapshot)
+            .append("]")
+            .toString();
+    }
+
+    /**
+     * Nodes are equal if they refer to the same prefix and all values under that prefix
+     * are the same.  Nodes from two versions of the configuration are therefore equal when
+     * the component's configuration did not change between the versions.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id, type, fullName);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        SnapshotConfigurationNode other = (SnapshotConfigurationNode) obj;
+        return Objects.equal(id,       other.id)
+            && Objects.equal(type,     other.type)
+            && Objects.equal(fullName, other.fullName)
+            && snapshot.subtreeEquals(fullName, other.snapshot);
+    }
+}
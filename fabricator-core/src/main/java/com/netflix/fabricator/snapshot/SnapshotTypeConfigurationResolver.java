@@ -0,0 +1,215 @@
+package com.netflix.fabricator.snapshot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.fabricator.ComponentConfigurationListener;
+import com.netflix.fabricator.ComponentConfigurationResolver;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.ObservableComponentConfigurationResolver;
+import com.netflix.fabricator.TypeConfigurationResolver;
+import com.netflix.fabricator.jackson.JacksonComponentConfiguration;
+import com.netflix.fabricator.jackson.JsonNodeCache;
+import com.netflix.fabricator.util.ChildNodeCache;
+
+/**
+ * TypeConfigurationResolver following the ${id}.${type} convention that reads from an
+ * {@link ImmutableConfiguration}, such as a ConfigurationSnapshot or a memory mapped
+ * ConfigurationBundle.  Unlike PropertiesTypeConfigurationResolver no
+ * lock is taken when reading the configuration, which makes it a better fit when many
+ * components are created concurrently.
+ *
+ * Nodes are created once per snapshot and returned again by later calls, until a new 
+ * version of the configuration is published with setSnapshot().  Listeners of
+ * each type are then notified of the ids whose configuration differs between the
+ * two snapshots.
+ */
+@Singleton
+public class SnapshotTypeConfigurationResolver implements TypeConfigurationResolver {
+    private static String DEFAULT_FORMAT_STRING = "%s.%s";
+
+    private static String TYPE_FIELD            = "type";
+
+    /**
+     * Map of type to ComponentConfigurationResolver overrides in the event that the
+     * naming convention used in this class is not adequate
+     */
+    private final Map<String, ComponentConfigurationResolver> overrides;
+
+    private final JsonNodeCache jsonCache = new JsonNodeCache(new ObjectMapper());
+    
+    /**
+     * Children of inline json configurations.  See {@link ChildNodeCache}.
+     */
+    private final ChildNodeCache jsonChildren = ChildNodeCache.byIdentity();
+
+    /**
+     * type -> listeners
+     */
+    private final ConcurrentMap<String, List<ComponentConfigurationListener>> listeners = Maps.newConcurrentMap();
+
+    /**
+     * A snapshot and the nodes created from it, by full name
+     */
+    private static class Version {
+        final ImmutableConfiguration                   snapshot;
+        final ConcurrentMap<String, ConfigurationNode> nodes = Maps.newConcurrentMap();
+
+        Version(ImmutableConfiguration snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    private volatile Version current;
+
+    @Inject
+    public SnapshotTypeConfigurationResolver(ImmutableConfiguration snapshot, Map<String, ComponentConfigurationResolver> overrides) {
+        Preconditions.checkNotNull(snapshot, "Snapshot must not be null");
+        if (overrides == null) {
+            overrides = Maps.newHashMap();
+        }
+        this.overrides = overrides;
+        this.current   = new Version(snapshot);
+    }
+
+    public ImmutableConfiguration getSnapshot() {
+        return current.snapshot;
+    }
+
+    /**
+     * Replace the current snapshot and notify listeners of the ids that changed
+     * @param newSnapshot
+     */
+    public void setSnapshot(ImmutableConfiguration newSnapshot) {
+        Preconditions.checkNotNull(newSnapshot, "Snapshot must not be null");
+        ImmutableConfiguration oldSnapshot;
+        synchronized (this) {
+            oldSnapshot = current.snapshot;
+            current     = new Version(newSnapshot);
+        }
+
+        for (Map.Entry<String, List<ComponentConfigurationListener>> entry : listeners.entrySet()) {
+            String type = entry.getKey();
+            Set<String> changed = Sets.newHashSet();
+            for (String id : Sets.union(oldSnapshot.getIds(type), newSnapshot.getIds(type))) {
+                if (!newSnapshot.subtreeEquals(String.format(DEFAULT_FORMAT_STRING, id, type), oldSnapshot)) {
+                    changed.add(id);
+                }
+            }
+            if (!changed.isEmpty()) {
+                for (ComponentConfigurationListener listener : entry.getValue()) {
+                    listener.onChange(changed);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ComponentConfigurationResolver getConfigurationFactory(final String componentType) {
+        // Look for overrides
+        ComponentConfigurationResolver factory = overrides.get(componentType);
+        if (factory != null)
+            return factory;
+
+        return new SnapshotResolver(componentType);
+    }
+
+    private class SnapshotResolver implements ObservableComponentConfigurationResolver {
+        private final String componentType;
+
+        SnapshotResolver(String componentType) {
+            this.componentType = componentType;
+        }
+
+        @Override
+        public ConfigurationNode getConfiguration(String key) {
+            return getConfiguration(current, key);
+        }
+
+        private ConfigurationNode getConfiguration(Version version, String key) {
+            String prefix = String.format(DEFAULT_FORMAT_STRING, key, componentType);
+            ConfigurationNode node = version.nodes.get(prefix);
+            if (node == null) {
+                node = createConfiguration(version, key, prefix);
+                ConfigurationNode existing = version.nodes.putIfAbsent(prefix, node);
+                if (existing != null) {
+                    node = existing;
+                }
+            }
+            return node;
+        }
+
+        private ConfigurationNode createConfiguration(Version version, String key, String prefix) {
+            ImmutableConfiguration snapshot = version.snapshot;
+            String json = snapshot.getString(prefix);
+            if (json != null) {
+                json = json.trim();
+                if (!json.isEmpty() && json.startsWith("{") && json.endsWith("}")) {
+                    try {
+                        JsonNode node = jsonCache.readTree(json);
+                        if (node.get(TYPE_FIELD) == null)
+                            throw new Exception("Missing 'type' field");
+                        return new JacksonComponentConfiguration(key, node.get(TYPE_FIELD).asText(), node, jsonChildren);
+                    } catch (Exception e) {
+                        throw new RuntimeException(
+                            String.format("Unable to parse json from '%s'. (%s)",
+                                prefix,
+                                StringUtils.abbreviate(json, 256)),
+                            e);
+                    }
+                }
+            }
+
+            return new SnapshotConfigurationNode(snapshot, key, null, prefix, version.nodes);
+        }
+
+        @Override
+        public Map<String, ConfigurationNode> getAllConfigurations() {
+            Version version = current;
+            Map<String, ConfigurationNode> configs = Maps.newHashMap();
+            for (String id : version.snapshot.getIds(componentType)) {
+                configs.put(id, getConfiguration(version, id));
+            }
+            return configs;
+        }
+
+        @Override
+        public boolean hasConfiguration(String id) {
+            return current.snapshot.getIds(componentType).contains(id);
+        }
+
+        @Override
+        public void addListener(ComponentConfigurationListener listener) {
+            List<ComponentConfigurationListener> typeListeners = listeners.get(componentType);
+            if (typeListeners == null) {
+                typeListeners = new CopyOnWriteArrayList<ComponentConfigurationListener>();
+                List<ComponentConfigurationListener> existing = listeners.putIfAbsent(componentType, typeListeners);
+                if (existing != null) {
+                    typeListeners = existing;
+                }
+            }
+            typeListeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(ComponentConfigurationListener listener) {
+            List<ComponentConfigurationListener> typeListeners = listeners.get(componentType);
+            if (typeListeners != null) {
+                typeListeners.remove(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.netflix.fabricator.supplier;
+
+import java.util.function.BooleanSupplier;
+
+import com.google.common.base.Function;
+
+/**
+ * boolean specialization of {@link ListenableSupplier}.  getAsBoolean() returns the current value
+ * without boxing, which makes it suitable for values that are read on every request.
+ *
+ * @see PrimitiveSuppliers
+ */
+public interface ListenableBooleanSupplier extends BooleanSupplier {
+    public void onChange(Function<Boolean, Void> func);
+}
@@ -0,0 +1,15 @@
+package com.netflix.fabricator.supplier;
+
+import java.util.function.DoubleSupplier;
+
+import com.google.common.base.Function;
+
+/**
+ * double specialization of {@link ListenableSupplier}.  getAsDouble() returns the current value
+ * without boxing, which makes it suitable for values that are read on every request.
+ *
+ * @see PrimitiveSuppliers
+ */
+public interface ListenableDoubleSupplier extends DoubleSupplier {
+    public void onChange(Function<Double, Void> func);
+}
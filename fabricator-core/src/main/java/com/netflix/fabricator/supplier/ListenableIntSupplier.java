@@ -0,0 +1,15 @@
+package com.netflix.fabricator.supplier;
+
+import java.util.function.IntSupplier;
+
+import com.google.common.base.Function;
+
+/**
+ * int specialization of {@link ListenableSupplier}.  getAsInt() returns the current value
+ * without boxing, which makes it suitable for values that are read on every request.
+ *
+ * @see PrimitiveSuppliers
+ */
+public interface ListenableIntSupplier extends IntSupplier {
+    public void onChange(Function<Integer, Void> func);
+}
@@ -0,0 +1,15 @@
+package com.netflix.fabricator.supplier;
+
+import java.util.function.LongSupplier;
+
+import com.google.common.base.Function;
+
+/**
+ * long specialization of {@link ListenableSupplier}.  getAsLong() returns the current value
+ * without boxing, which makes it suitable for values that are read on every request.
+ *
+ * @see PrimitiveSuppliers
+ */
+public interface ListenableLongSupplier extends LongSupplier {
+    public void onChange(Function<Long, Void> func);
+}
@@ -15,4 +15,11 @@ import com.google.common.base.Supplier;
  */
 public interface ListenableSupplier<T> extends Supplier<T> {
     public void onChange(Function<T, Void> func);
+    
+    /**
+     * Remove a function added with onChange().  Does nothing for suppliers whose 
+     * value never changes.
+     */
+    public default void removeOnChange(Function<T, Void> func) {
+    }
 }
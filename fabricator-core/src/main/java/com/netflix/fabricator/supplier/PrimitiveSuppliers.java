@@ -0,0 +1,265 @@
+package com.netflix.fabricator.supplier;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.common.base.Function;
+
+/**
+ * Factory methods for the primitive listenable suppliers.
+ *
+ * Suppliers created from a ListenableSupplier read the source once and then keep the
+ * value in a volatile primitive field that is only updated from the source's change
+ * notification, so reads neither allocate nor go back to the configuration.  Sources
+ * without change notification (.properties and json) therefore yield a value that is
+ * fixed once bound.  If the source later returns null, such as when an archaius property
+ * is removed, the last known value is kept.
+ *
+ * The change callback registered on the source only holds a weak reference to the
+ * supplier so that components discarded by a refresh can be collected, and is removed
+ * from the source on the first change after the supplier was collected.
+ */
+public final class PrimitiveSuppliers {
+    private PrimitiveSuppliers() {
+    }
+
+    public static ListenableIntSupplier ofInt(ListenableSupplier<Integer> source) {
+        return new CachedIntSupplier(source);
+    }
+
+    public static ListenableLongSupplier ofLong(ListenableSupplier<Long> source) {
+        return new CachedLongSupplier(source);
+    }
+
+    public static ListenableDoubleSupplier ofDouble(ListenableSupplier<Double> source) {
+        return new CachedDoubleSupplier(source);
+    }
+
+    public static ListenableBooleanSupplier ofBoolean(ListenableSupplier<Boolean> source) {
+        return new CachedBooleanSupplier(source);
+    }
+
+    /**
+     * @return Supplier of a fixed value, such as a builder default.  Change notification is never called
+     */
+    public static ListenableIntSupplier ofInt(final int value) {
+        return new ListenableIntSupplier() {
+            @Override
+            public int getAsInt() {
+                return value;
+            }
+
+            @Override
+            public void onChange(Function<Integer, Void> func) {
+            }
+        };
+    }
+
+    public static ListenableLongSupplier ofLong(final long value) {
+        return new ListenableLongSupplier() {
+            @Override
+            public long getAsLong() {
+                return value;
+            }
+
+            @Override
+            public void onChange(Function<Long, Void> func) {
+            }
+        };
+    }
+
+    public static ListenableDoubleSupplier ofDouble(final double value) {
+        return new ListenableDoubleSupplier() {
+            @Override
+            public double getAsDouble() {
+                return value;
+            }
+
+            @Override
+            public void onChange(Function<Double, Void> func) {
+            }
+        };
+    }
+
+    public static ListenableBooleanSupplier ofBoolean(final boolean value) {
+        return new ListenableBooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                return value;
+            }
+
+            @Override
+            public void onChange(Function<Boolean, Void> func) {
+            }
+        };
+    }
+
+    /**
+     * Common handling of the source's change notification and of our own listeners,
+     * which are called after the cached value was updated.
+     *
+     * The callback is registered with the source before the initial value is read so
+     * that a change in between is not lost.  Subclasses must not initialize their value
+     * field since set() may be called before their constructor runs.
+     */
+    private static abstract class CachedSupplier<T> {
+        private final List<Function<T, Void>> listeners = new CopyOnWriteArrayList<Function<T, Void>>();
+        
+        /**
+         * Set once a change was received.  Guarded by this.
+         */
+        private boolean changed = false;
+
+        CachedSupplier(ListenableSupplier<T> source) {
+            Function<T, Void> callback = weakCallback(new WeakReference<CachedSupplier<T>>(this), source);
+            source.onChange(callback);
+            
+            T initial = source.get();
+            if (initial == null) {
+                source.removeOnChange(callback);
+                throw new NullPointerException("Source has no value");
+            }
+            synchronized (this) {
+                // A change received after registering is at least as recent as initial
+                if (!changed) {
+                    set(initial);
+                }
+            }
+        }
+
+        /**
+         * Created in a static method since an anonymous class created by an instance 
+         * would hold a strong reference to it
+         */
+        private static <T> Function<T, Void> weakCallback(final WeakReference<CachedSupplier<T>> ref, final ListenableSupplier<T> source) {
+            return new Function<T, Void>() {
+                @Override
+                public Void apply(T value) {
+                    CachedSupplier<T> supplier = ref.get();
+                    if (supplier == null) {
+                        source.removeOnChange(this);
+                    }
+                    else {
+                        supplier.changed(value);
+                    }
+                    return null;
+                }
+            };
+        }
+
+        private void changed(T value) {
+            T current;
+            synchronized (this) {
+                if (value != null) {
+                    set(value);
+                    changed = true;
+                }
+                current = current();
+            }
+            for (Function<T, Void> listener : listeners) {
+                listener.apply(current);
+            }
+        }
+
+        public void onChange(Function<T, Void> func) {
+            listeners.add(func);
+        }
+
+        protected abstract void set(T value);
+
+        protected abstract T current();
+    }
+
+    private static class CachedIntSupplier extends CachedSupplier<Integer> implements ListenableIntSupplier {
+        private volatile int value;
+
+        CachedIntSupplier(ListenableSupplier<Integer> source) {
+            super(source);
+        }
+
+        @Override
+        public int getAsInt() {
+            return value;
+        }
+
+        @Override
+        protected void set(Integer value) {
+            this.value = value;
+        }
+
+        @Override
+        protected Integer current() {
+            return value;
+        }
+    }
+
+    private static class CachedLongSupplier extends CachedSupplier<Long> implements ListenableLongSupplier {
+        private volatile long value;
+
+        CachedLongSupplier(ListenableSupplier<Long> source) {
+            super(source);
+        }
+
+        @Override
+        public long getAsLong() {
+            return value;
+        }
+
+        @Override
+        protected void set(Long value) {
+            this.value = value;
+        }
+
+        @Override
+        protected Long current() {
+            return value;
+        }
+    }
+
+    private static class CachedDoubleSupplier extends CachedSupplier<Double> implements ListenableDoubleSupplier {
+        private volatile double value;
+
+        CachedDoubleSupplier(ListenableSupplier<Double> source) {
+            super(source);
+        }
+
+        @Override
+        public double getAsDouble() {
+            return value;
+        }
+
+        @Override
+        protected void set(Double value) {
+            this.value = value;
+        }
+
+        @Override
+        protected Double current() {
+            return value;
+        }
+    }
+
+    private static class CachedBooleanSupplier extends CachedSupplier<Boolean> implements ListenableBooleanSupplier {
+        private volatile boolean value;
+
+        CachedBooleanSupplier(ListenableSupplier<Boolean> source) {
+            super(source);
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            return value;
+        }
+
+        @Override
+        protected void set(Boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        protected Boolean current() {
+            return value;
+        }
+    }
+}
@@ -104,6 +104,11 @@ public class SupplierWithDefault<T> implements ListenableSupplier<T> {
     public void onChange(Function<T, Void> func) {
         source.onChange(func);
     }
+    
+    @Override
+    public void removeOnChange(Function<T, Void> func) {
+        source.removeOnChange(func);
+    }
 
     /**
      * Assign a simple Supplier that does not provide change notification
@@ -0,0 +1,61 @@
+package com.netflix.fabricator.util;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.netflix.fabricator.ConfigurationNode;
+
+/**
+ * Children of ConfigurationNodes shared by all nodes created by the same resolver, so
+ * that each child path is only created once even though resolvers create a new root
+ * node for every component.  The children of a node are keyed by something that fully
+ * determines them:
+ *
+ * - byName()      the full property name of the parent, for nodes that only hold their
+ *                 name and read values and type from the underlying configuration
+ * - byIdentity()  the immutable source of the parent, such as a JsonNode shared by
+ *                 the JsonNodeCache.  Entries go away once the source is collected.
+ *
+ * A cached child is therefore never stale.  Both are bounded so that lookups of ids
+ * that are not configured can't grow them without limit.
+ */
+public final class ChildNodeCache {
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    public static ChildNodeCache byName() {
+        return new ChildNodeCache(CacheBuilder.newBuilder()
+                .maximumSize(DEFAULT_MAX_SIZE)
+                .<Object, ConcurrentMap<String, ConfigurationNode>>build());
+    }
+
+    public static ChildNodeCache byIdentity() {
+        return new ChildNodeCache(CacheBuilder.newBuilder()
+                .weakKeys()
+                .maximumSize(DEFAULT_MAX_SIZE)
+                .<Object, ConcurrentMap<String, ConfigurationNode>>build());
+    }
+
+    private final ConcurrentMap<Object, ConcurrentMap<String, ConfigurationNode>> children;
+
+    private ChildNodeCache(Cache<Object, ConcurrentMap<String, ConfigurationNode>> cache) {
+        this.children = cache.asMap();
+    }
+
+    /**
+     * @param key Full name or source of the parent node
+     * @return Children of the parent node keyed by property name
+     */
+    public ConcurrentMap<String, ConfigurationNode> getChildren(Object key) {
+        ConcurrentMap<String, ConfigurationNode> result = children.get(key);
+        if (result == null) {
+            result = Maps.newConcurrentMap();
+            ConcurrentMap<String, ConfigurationNode> existing = children.putIfAbsent(key, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+}
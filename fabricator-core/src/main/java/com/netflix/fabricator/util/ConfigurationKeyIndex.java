@@ -0,0 +1,140 @@
+package com.netflix.fabricator.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Index of configuration keys following the ${id}.${type} convention, grouped by
+ * type and then by id.  Used by the type configuration resolvers so that enumerating
+ * the ids of one type, or the keys of a single component, costs O(matches) instead
+ * of a scan over every configuration key.
+ *
+ * A key is indexed under the first two '.' separated parts of its name.  For example,
+ * 'foo.cassandra.port' belongs to the component with id 'foo' and type 'cassandra'.
+ */
+public class ConfigurationKeyIndex {
+    /**
+     * type -> id -> keys
+     */
+    private Map<String, Map<String, Set<String>>> index = Maps.newHashMap();
+
+    /**
+     * Replace the contents of the index with the provided keys
+     * @param keys
+     */
+    public void rebuild(Iterator<?> keys) {
+        Map<String, Map<String, Set<String>>> newIndex = Maps.newHashMap();
+        while (keys.hasNext()) {
+            add(newIndex, keys.next().toString());
+        }
+        synchronized (this) {
+            index = newIndex;
+        }
+    }
+
+    public synchronized void add(String key) {
+        add(index, key);
+    }
+
+    public synchronized void remove(String key) {
+        String[] parts = split(key);
+        if (parts == null) {
+            return;
+        }
+
+        Map<String, Set<String>> ids = index.get(parts[1]);
+        if (ids == null) {
+            return;
+        }
+        Set<String> keys = ids.get(parts[0]);
+        if (keys == null) {
+            return;
+        }
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            ids.remove(parts[0]);
+            if (ids.isEmpty()) {
+                index.remove(parts[1]);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        index = Maps.newHashMap();
+    }
+
+    /**
+     * @param type
+     * @return All ids with at least one key for the type
+     */
+    public synchronized Set<String> getIds(String type) {
+        Map<String, Set<String>> ids = index.get(type);
+        if (ids == null) {
+            return ImmutableSet.of();
+        }
+        return ImmutableSet.copyOf(ids.keySet());
+    }
+
+    /**
+     * @param type
+     * @param id
+     * @return All keys of the component with id and type
+     */
+    public synchronized Set<String> getKeys(String type, String id) {
+        Map<String, Set<String>> ids = index.get(type);
+        if (ids == null) {
+            return ImmutableSet.of();
+        }
+        Set<String> keys = ids.get(id);
+        if (keys == null) {
+            return ImmutableSet.of();
+        }
+        return ImmutableSet.copyOf(keys);
+    }
+
+    public synchronized boolean contains(String type, String id) {
+        Map<String, Set<String>> ids = index.get(type);
+        return ids != null && ids.containsKey(id);
+    }
+
+    /**
+     * @param key
+     * @return Array of {id, type} or null if the key does not follow the ${id}.${type} convention
+     */
+    public static String[] split(String key) {
+        if (key == null) {
+            return null;
+        }
+        String[] parts = StringUtils.split(key, ".");
+        if (parts.length > 1) {
+            return new String[]{parts[0], parts[1]};
+        }
+        return null;
+    }
+
+    private static void add(Map<String, Map<String, Set<String>>> index, String key) {
+        String[] parts = split(key);
+        if (parts == null) {
+            return;
+        }
+
+        Map<String, Set<String>> ids = index.get(parts[1]);
+        if (ids == null) {
+            ids = Maps.newHashMap();
+            index.put(parts[1], ids);
+        }
+        Set<String> keys = ids.get(parts[0]);
+        if (keys == null) {
+            keys = Sets.newHashSet();
+            ids.put(parts[0], keys);
+        }
+        keys.add(key);
+    }
+}
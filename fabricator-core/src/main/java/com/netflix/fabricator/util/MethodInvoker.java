@@ -0,0 +1,99 @@
+package com.netflix.fabricator.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Pre-linked invoker for a method that is resolved once and then called many
+ * times, such as a builder's withXXX setter or build() method.  The method is
+ * unreflected into a MethodHandle adapted to an all Object signature so that
+ * calls go through invokeExact without the access checks and Object[] varargs
+ * allocation of {@link Method#invoke(Object, Object...)}.
+ *
+ * Static methods are adapted to ignore the target argument.
+ */
+public final class MethodInvoker {
+    private final Method       method;
+    private final MethodHandle handle;
+
+    private MethodInvoker(Method method, MethodHandle handle) {
+        this.method = method;
+        this.handle = handle;
+    }
+
+    public static MethodInvoker from(Method method) {
+        Preconditions.checkNotNull(method, "Method cannot be null");
+        try {
+            try {
+                method.setAccessible(true);
+            }
+            catch (SecurityException e) {
+                // Fall back to the default access checks
+            }
+
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return new MethodInvoker(method, handle.asType(MethodType.genericMethodType(handle.type().parameterCount())));
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Unable to access method " + method, e);
+        }
+    }
+
+    /**
+     * Invoke a method that takes no arguments
+     * @param target    Instance on which to invoke the method.  Ignored for static methods
+     * @return Value returned by the method or null for void methods
+     */
+    public Object invoke(Object target) throws Exception {
+        try {
+            return (Object)handle.invokeExact(target);
+        }
+        catch (Exception e) {
+            throw e;
+        }
+        catch (Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Invoke a method that takes a single argument
+     * @param target    Instance on which to invoke the method.  Ignored for static methods
+     * @param arg
+     * @return Value returned by the method or null for void methods
+     */
+    public Object invoke(Object target, Object arg) throws Exception {
+        try {
+            return (Object)handle.invokeExact(target, arg);
+        }
+        catch (Exception e) {
+            throw e;
+        }
+        catch (Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodInvoker[" + method + "]";
+    }
+}
@@ -0,0 +1,127 @@
+package com.netflix.fabricator;
+
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.annotations.TypeImplementation;
+
+public class FabricatorTest {
+    public static interface Policy {
+        int getLimit();
+    }
+
+    @TypeImplementation("simple")
+    public static class SimplePolicy implements Policy {
+        public static class Builder {
+            private int limit;
+
+            public Builder withLimit(int limit) {
+                this.limit = limit;
+                return this;
+            }
+
+            public SimplePolicy build() {
+                return new SimplePolicy(limit);
+            }
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        private final int limit;
+
+        private SimplePolicy(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public int getLimit() {
+            return limit;
+        }
+    }
+
+    @Type("client")
+    public static class Client {
+        public static class Builder {
+            private String name;
+            private Policy policy;
+            private Client parent;
+
+            public Builder withName(String name) {
+                this.name = name;
+                return this;
+            }
+
+            public Builder withPolicy(Policy policy) {
+                this.policy = policy;
+                return this;
+            }
+
+            public Builder withParent(Client parent) {
+                this.parent = parent;
+                return this;
+            }
+
+            public Client build() {
+                return new Client(this);
+            }
+        }
+
+        private final String name;
+        private final Policy policy;
+        private final Client parent;
+
+        private Client(Builder builder) {
+            this.name   = builder.name;
+            this.policy = builder.policy;
+            this.parent = builder.parent;
+        }
+    }
+
+    @Test
+    public void testProperties() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("c1.client.name",         "one");
+        props.setProperty("c1.client.policy.type",  "simple");
+        props.setProperty("c1.client.policy.limit", "10");
+        props.setProperty("c2.client.name",         "two");
+        props.setProperty("c2.client.parent",       "c1");
+
+        Fabricator fabricator = Fabricator.builder()
+                .forProperties(props)
+                .implementation(Policy.class, SimplePolicy.class)
+                .build();
+
+        Client c1 = fabricator.get("c1", Client.class);
+        Assert.assertEquals("one", c1.name);
+        Assert.assertEquals(10, c1.policy.getLimit());
+
+        // Named references resolve through the same manager
+        Client c2 = fabricator.get("c2", Client.class);
+        Assert.assertEquals("two", c2.name);
+        Assert.assertSame(c1, c2.parent);
+        Assert.assertSame(c2, fabricator.get("c2", Client.class));
+        Assert.assertSame(fabricator.getManager(Client.class), fabricator.getManager(Client.class));
+    }
+
+    @Test
+    public void testJson() throws Exception {
+        Fabricator fabricator = Fabricator.builder()
+                .forJson("{\"c1\":{\"client\":{\"type\":\"client\",\"name\":\"one\",\"policy\":{\"type\":\"simple\",\"limit\":5}}}}")
+                .implementation(Policy.class, SimplePolicy.class)
+                .build();
+
+        Client c1 = fabricator.get("c1", Client.class);
+        Assert.assertEquals("one", c1.name);
+        Assert.assertEquals(5, c1.policy.getLimit());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNotAComponent() throws Exception {
+        Fabricator.builder().build().get("c1", String.class);
+    }
+}
@@ -0,0 +1,244 @@
+package com.netflix.fabricator.component;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.fabricator.ComponentConfigurationResolver;
+import com.netflix.fabricator.ComponentType;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.PropertyInfo;
+import com.netflix.fabricator.TypeConfigurationResolver;
+import com.netflix.fabricator.jackson.JacksonComponentConfiguration;
+
+public class BaseComponentRefreshServiceTest {
+    public static class SomeComponent {
+        private final ConfigurationNode config;
+        private volatile boolean initialized = false;
+        private volatile boolean destroyed = false;
+
+        public SomeComponent(ConfigurationNode config) {
+            this.config = config;
+        }
+
+        @PostConstruct
+        public void init() {
+            initialized = true;
+        }
+
+        @PreDestroy
+        public void destroy() {
+            Assert.assertTrue(initialized);
+            destroyed = true;
+        }
+    }
+
+    /**
+     * Factory that blocks creation of the 'slow' component, ignoring interrupts, until released
+     */
+    public static class BlockingFactory implements ComponentFactory<SomeComponent> {
+        final CountDownLatch      release = new CountDownLatch(1);
+        final List<SomeComponent> created = new CopyOnWriteArrayList<SomeComponent>();
+
+        @Override
+        public SomeComponent create(ConfigurationNode config) {
+            if (config.getId().equals("slow")) {
+                boolean interrupted = false;
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            SomeComponent component = new SomeComponent(config);
+            created.add(component);
+            return component;
+        }
+
+        @Override
+        public Map<String, PropertyInfo> getProperties() {
+            return ImmutableMap.of();
+        }
+
+        @Override
+        public Class<?> getRawType() {
+            return SomeComponent.class;
+        }
+    }
+
+    private final ObjectMapper                             mapper   = new ObjectMapper();
+    private final ConcurrentMap<String, ConfigurationNode> configs  = Maps.newConcurrentMap();
+    private final BlockingFactory                          factory  = new BlockingFactory();
+    private ScheduledExecutorService                       executor;
+    private ConcurrentComponentManager<SomeComponent>      manager;
+    private BaseComponentRefreshService<SomeComponent>     service;
+
+    @Before
+    public void setup() {
+        TypeConfigurationResolver resolver = new TypeConfigurationResolver() {
+            @Override
+            public ComponentConfigurationResolver getConfigurationFactory(String type) {
+                return new ComponentConfigurationResolver() {
+                    @Override
+                    public ConfigurationNode getConfiguration(String id) {
+                        return configs.get(id);
+                    }
+
+                    @Override
+                    public Map<String, ConfigurationNode> getAllConfigurations() {
+                        return ImmutableMap.copyOf(configs);
+                    }
+                };
+            }
+        };
+
+        ComponentType<SomeComponent> type = new ComponentType<SomeComponent>("some");
+        Map<String, ComponentFactory<SomeComponent>> factories = ImmutableMap.<String, ComponentFactory<SomeComponent>>of("blocking", factory);
+        executor = Executors.newSingleThreadScheduledExecutor();
+        manager  = new ConcurrentComponentManager<SomeComponent>(type, factories, resolver);
+        service  = new BaseComponentRefreshService<SomeComponent>(manager, type, resolver, executor);
+    }
+
+    @After
+    public void teardown() {
+        factory.release.countDown();
+        service.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSerialChanges() throws Exception {
+        assertChanges(0);
+    }
+
+    @Test
+    public void testParallelChanges() throws Exception {
+        assertChanges(4);
+    }
+
+    /**
+     * Both modes keep a component that already exists for a new configuration,
+     * rebuild changed components and remove deleted ones
+     */
+    private void assertChanges(int parallelism) throws Exception {
+        start(parallelism, 60);
+
+        setConfig("a", 1);
+        setConfig("b", 1);
+        setConfig("c", 1);
+        SomeComponent existing = manager.get("a");
+        service.refresh();
+
+        Assert.assertEquals(Sets.newHashSet("a", "b", "c"), Sets.newHashSet(manager.getIds()));
+        Assert.assertSame(existing, manager.find("a"));
+        Assert.assertFalse(existing.destroyed);
+
+        SomeComponent b = manager.find("b");
+        SomeComponent c = manager.find("c");
+        setConfig("b", 2);
+        configs.remove("c");
+        setConfig("d", 1);
+        service.refresh();
+
+        Assert.assertEquals(Sets.newHashSet("a", "b", "d"), Sets.newHashSet(manager.getIds()));
+        Assert.assertSame(existing, manager.find("a"));
+        Assert.assertEquals(2, manager.find("b").config.getChild("value").getValue(Integer.class).intValue());
+        Assert.assertTrue(b.destroyed);
+        Assert.assertTrue(c.destroyed);
+        // Only a, b and d are left alive
+        Assert.assertEquals(3, countLive());
+    }
+
+    /**
+     * The timeout fires even when the refresh runs on a single threaded executor.  A
+     * build that completes after it was cancelled is dropped without being initialized
+     * or destroyed, and retried on the next refresh.
+     */
+    @Test(timeout=30000)
+    public void testTimeout() throws Exception {
+        start(2, 1);
+
+        setConfig("slow", 1);
+        setConfig("fast", 1);
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                service.refresh();
+                return null;
+            }
+        }).get();
+
+        Assert.assertNotNull(manager.find("fast"));
+        Assert.assertNull(manager.find("slow"));
+
+        factory.release.countDown();
+        SomeComponent late = null;
+        while (late == null) {
+            TimeUnit.MILLISECONDS.sleep(10);
+            for (SomeComponent component : factory.created) {
+                if (component.config.getId().equals("slow")) {
+                    late = component;
+                }
+            }
+        }
+
+        service.refresh();
+        Assert.assertNotNull(manager.find("slow"));
+        Assert.assertNotSame(late, manager.find("slow"));
+        Assert.assertFalse(late.initialized);
+        Assert.assertFalse(late.destroyed);
+    }
+
+    private void start(int parallelism, long componentTimeout) throws Exception {
+        set("enabled",          true);
+        set("refreshRate",      3600L);
+        set("parallelism",      parallelism);
+        set("componentTimeout", componentTimeout);
+        service.init();
+    }
+
+    private int countLive() {
+        int count = 0;
+        for (SomeComponent component : factory.created) {
+            if (!component.destroyed) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void setConfig(String id, int value) throws Exception {
+        configs.put(id, new JacksonComponentConfiguration(id, null,
+                mapper.readTree("{\"type\":\"blocking\",\"value\":" + value + "}")));
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = BaseComponentRefreshService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}
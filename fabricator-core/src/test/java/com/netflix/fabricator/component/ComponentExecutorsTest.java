@@ -0,0 +1,53 @@
+package com.netflix.fabricator.component;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class ComponentExecutorsTest {
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        final int count = 1000;
+        final CountDownLatch started = new CountDownLatch(count);
+        ExecutorService executor = ComponentExecutors.newVirtualThreadExecutor("test");
+        try {
+            // Every task blocks until all tasks have started, which only completes if
+            // each task gets its own thread
+            List<CompletableFuture<Boolean>> futures = Lists.newArrayList();
+            for (int i = 0; i < count; i++) {
+                futures.add(ComponentExecutors.submit(executor, new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        started.countDown();
+                        started.await();
+                        return isVirtual(Thread.currentThread());
+                    }
+                }));
+            }
+
+            for (CompletableFuture<Boolean> future : futures) {
+                Assert.assertEquals(ComponentExecutors.isVirtualThreadSupported(), future.get(30, TimeUnit.SECONDS));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.netflix.fabricator.component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.fabricator.ComponentType;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.PropertyInfo;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+import com.netflix.fabricator.properties.PropertiesTypeConfigurationResolver;
+
+public class ConcurrentComponentManagerTest {
+    public static class SomeComponent {
+        private final String id;
+        private boolean destroyed = false;
+
+        public SomeComponent(String id) {
+            this.id = id;
+        }
+
+        @PreDestroy
+        public void destroy() {
+            destroyed = true;
+        }
+    }
+
+    /**
+     * Factory that blocks creation of the 'slow' component until released
+     */
+    public static class BlockingFactory implements ComponentFactory<SomeComponent> {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger  created = new AtomicInteger();
+
+        @Override
+        public SomeComponent create(ConfigurationNode config) {
+            created.incrementAndGet();
+            if (config.getId().equals("slow")) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return new SomeComponent(config.getId());
+        }
+
+        @Override
+        public Map<String, PropertyInfo> getProperties() {
+            return ImmutableMap.of();
+        }
+
+        @Override
+        public Class<?> getRawType() {
+            return SomeComponent.class;
+        }
+    }
+
+    private ConcurrentComponentManager<SomeComponent> newManager(ComponentFactory<SomeComponent> factory) {
+        Properties props = new Properties();
+        props.setProperty("slow.some.type", "blocking");
+        props.setProperty("fast.some.type", "blocking");
+
+        Map<String, ComponentFactory<SomeComponent>> factories = ImmutableMap.of("blocking", factory);
+        return new ConcurrentComponentManager<SomeComponent>(
+                new ComponentType<SomeComponent>("some"),
+                factories,
+                new PropertiesTypeConfigurationResolver(props, null));
+    }
+
+    @Test
+    public void testSingleFlightCreation() throws Exception {
+        final BlockingFactory factory = new BlockingFactory();
+        final ConcurrentComponentManager<SomeComponent> manager = newManager(factory);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SomeComponent>> futures = Lists.newArrayList();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<SomeComponent>() {
+                    @Override
+                    public SomeComponent call() throws Exception {
+                        return manager.get("slow");
+                    }
+                }));
+            }
+
+            Assert.assertTrue(factory.started.await(10, TimeUnit.SECONDS));
+
+            // Other ids are not blocked by the slow creation
+            Assert.assertEquals("fast", manager.get("fast").id);
+            Assert.assertNull(manager.find("slow"));
+
+            factory.release.countDown();
+            SomeComponent component = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<SomeComponent> future : futures) {
+                Assert.assertSame(component, future.get(10, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(2, factory.created.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Factory where 'a' and 'b' get each other from the manager while being created
+     */
+    public static class CyclicFactory implements ComponentFactory<SomeComponent> {
+        ConcurrentComponentManager<SomeComponent> manager;
+
+        @Override
+        public SomeComponent create(ConfigurationNode config) {
+            try {
+                manager.get(config.getId().equals("a") ? "b" : "a");
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return new SomeComponent(config.getId());
+        }
+
+        @Override
+        public Map<String, PropertyInfo> getProperties() {
+            return ImmutableMap.of();
+        }
+
+        @Override
+        public Class<?> getRawType() {
+            return SomeComponent.class;
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testDependencyCycle() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("a.some.type", "cyclic");
+        props.setProperty("b.some.type", "cyclic");
+
+        CyclicFactory factory = new CyclicFactory();
+        factory.manager = new ConcurrentComponentManager<SomeComponent>(
+                new ComponentType<SomeComponent>("some"),
+                ImmutableMap.<String, ComponentFactory<SomeComponent>>of("cyclic", factory),
+                new PropertiesTypeConfigurationResolver(props, null));
+
+        try {
+            factory.manager.get("a");
+            Assert.fail();
+        }
+        catch (RuntimeException e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof ComponentCreationException)) {
+                cause = cause.getCause();
+            }
+            Assert.assertNotNull(cause);
+            Assert.assertTrue(cause.getMessage(), cause.getMessage().endsWith("a -> b -> a"));
+        }
+        Assert.assertTrue(factory.manager.getIds().isEmpty());
+    }
+
+    @Test
+    public void testReplaceAndRemove() throws Exception {
+        BlockingFactory factory = new BlockingFactory();
+        ConcurrentComponentManager<SomeComponent> manager = newManager(factory);
+
+        SomeComponent first = manager.get("fast");
+        SomeComponent second = new SomeComponent("fast");
+        manager.replace("fast", second);
+        Assert.assertTrue(first.destroyed);
+        Assert.assertSame(second, manager.get("fast"));
+
+        manager.remove("fast");
+        Assert.assertTrue(second.destroyed);
+        Assert.assertFalse(manager.contains("fast"));
+    }
+
+    @Test
+    public void testGetAsyncSharesFuture() throws Exception {
+        BlockingFactory factory = new BlockingFactory();
+        ConcurrentComponentManager<SomeComponent> manager = newManager(factory);
+
+        CompletableFuture<SomeComponent> first  = manager.getAsync("slow");
+        CompletableFuture<SomeComponent> second = manager.getAsync("slow");
+        Assert.assertSame(first, second);
+        Assert.assertTrue(factory.started.await(10, TimeUnit.SECONDS));
+        Assert.assertFalse(first.isDone());
+
+        factory.release.countDown();
+        Assert.assertSame(first.get(10, TimeUnit.SECONDS), manager.get("slow"));
+        Assert.assertEquals(1, factory.created.get());
+
+        Assert.assertSame(first.get(), manager.removeAsync("slow").get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(first.get().destroyed);
+    }
+}
@@ -0,0 +1,69 @@
+package com.netflix.fabricator.component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.PropertyBinder;
+import com.netflix.fabricator.PropertyBinderFactory;
+import com.netflix.fabricator.component.bind.SimplePropertyBinderFactoryResolver;
+
+public class SimplePropertyBinderFactoryResolverTest {
+    public static class BaseBuilder {
+        public BaseBuilder withName(String name) {
+            return this;
+        }
+
+        public BaseBuilder withUnit(TimeUnit unit) {
+            return this;
+        }
+    }
+
+    public static class BuilderA extends BaseBuilder {
+        public BuilderA withCount(long count) {
+            return this;
+        }
+    }
+
+    public static class BuilderB extends BaseBuilder {
+    }
+
+    @Test
+    public void testDefaultBindersAreShared() throws Exception {
+        SimplePropertyBinderFactoryResolver resolver1 = new SimplePropertyBinderFactoryResolver();
+        SimplePropertyBinderFactoryResolver resolver2 = new SimplePropertyBinderFactoryResolver();
+
+        // The inherited method is only analyzed once for all builders and resolvers
+        PropertyBinder name = resolver1.get(BuilderA.class.getMethod("withName", String.class));
+        Assert.assertNotNull(name);
+        Assert.assertSame(name, resolver2.get(BuilderB.class.getMethod("withName", String.class)));
+        Assert.assertNotNull(resolver1.get(BuilderA.class.getMethod("withUnit", TimeUnit.class)));
+        Assert.assertNotNull(resolver1.get(BuilderA.class.getMethod("withCount", long.class)));
+    }
+
+    @Test
+    public void testCustomFactoriesFirst() throws Exception {
+        final PropertyBinder custom = new PropertyBinder() {
+            @Override
+            public boolean bind(Object obj, ConfigurationNode node) throws Exception {
+                return true;
+            }
+        };
+        SimplePropertyBinderFactoryResolver resolver = new SimplePropertyBinderFactoryResolver(
+                ImmutableList.<PropertyBinderFactory>of(new PropertyBinderFactory() {
+                    @Override
+                    public PropertyBinder createBinder(Method method, String propertyName) {
+                        return propertyName.equals("name") ? custom : null;
+                    }
+                }),
+                null);
+
+        Method method = BuilderB.class.getMethod("withName", String.class);
+        Assert.assertSame(custom, resolver.get(method));
+        Assert.assertNotSame(custom, new SimplePropertyBinderFactoryResolver().get(method));
+    }
+}
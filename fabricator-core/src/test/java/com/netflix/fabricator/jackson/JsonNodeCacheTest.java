@@ -0,0 +1,78 @@
+package com.netflix.fabricator.jackson;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonNodeCacheTest {
+    /**
+     * ObjectMapper that counts how often text is parsed
+     */
+    public static class CountingMapper extends ObjectMapper {
+        private static final long serialVersionUID = 1L;
+
+        int parses = 0;
+
+        @Override
+        public JsonNode readTree(String content) throws IOException, JsonProcessingException {
+            parses++;
+            return super.readTree(content);
+        }
+    }
+
+    @Test
+    public void testSameTextIsParsedOnce() throws Exception {
+        CountingMapper mapper = new CountingMapper();
+        JsonNodeCache cache = new JsonNodeCache(mapper);
+
+        JsonNode node = cache.readTree("{\"type\":\"a\"}");
+        Assert.assertEquals("a", node.get("type").asText());
+        Assert.assertSame(node, cache.readTree("{\"type\":\"a\"}"));
+        Assert.assertEquals(1, mapper.parses);
+
+        // Changed text is parsed again
+        Assert.assertEquals("b", cache.readTree("{\"type\":\"b\"}").get("type").asText());
+        Assert.assertSame(node, cache.readTree("{\"type\":\"a\"}"));
+        Assert.assertEquals(2, mapper.parses);
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        CountingMapper mapper = new CountingMapper();
+        JsonNodeCache cache = new JsonNodeCache(mapper, 2);
+
+        JsonNode a = cache.readTree("{\"type\":\"a\"}");
+        cache.readTree("{\"type\":\"b\"}");
+        cache.readTree("{\"type\":\"c\"}");
+        Assert.assertEquals(3, mapper.parses);
+
+        // The least recently used text was evicted and is parsed again
+        JsonNode again = cache.readTree("{\"type\":\"a\"}");
+        Assert.assertEquals(4, mapper.parses);
+        Assert.assertNotSame(a, again);
+        Assert.assertEquals(a, again);
+    }
+
+    @Test
+    public void testParseErrorsAreNotCached() throws Exception {
+        CountingMapper mapper = new CountingMapper();
+        JsonNodeCache cache = new JsonNodeCache(mapper);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.readTree("{\"type\":");
+                Assert.fail();
+            }
+            catch (IOException e) {
+            }
+        }
+        // Each attempt parses the text again
+        Assert.assertEquals(2, mapper.parses);
+        Assert.assertEquals("a", cache.readTree("{\"type\":\"a\"}").get("type").asText());
+    }
+}
@@ -6,6 +6,8 @@ import java.util.Properties;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableSet;
+import com.netflix.fabricator.ComponentConfigurationResolver;
 import com.netflix.fabricator.ConfigurationNode;
 
 public class PropertiesTypeConfigurationResolverTest {
@@ -29,4 +31,63 @@ public class PropertiesTypeConfigurationResolverTest {
         Assert.assertEquals(1, someOtherTypeConfigs.keySet().size());
         Assert.assertEquals("_a", someOtherTypeConfigs.get("id1").getChild("a").getValue(String.class));
     }
+    
+    @Test
+    public void testIndexTracksChanges() {
+        Properties properties = new Properties();
+        properties.put("id1.sometype.a", "_a1");
+        
+        PropertiesTypeConfigurationResolver resolver = new PropertiesTypeConfigurationResolver(properties, null);
+        Assert.assertEquals(ImmutableSet.of("id1"), resolver.getConfigurationFactory("sometype").getAllConfigurations().keySet());
+        
+        properties.put("id2.sometype.a", "_a2");
+        Assert.assertEquals(ImmutableSet.of("id1", "id2"), resolver.getConfigurationFactory("sometype").getAllConfigurations().keySet());
+        
+        properties.remove("id2.sometype.a");
+        Assert.assertEquals(ImmutableSet.of("id1"), resolver.getConfigurationFactory("sometype").getAllConfigurations().keySet());
+        
+        // Replacing a key keeps the same number of keys
+        properties.remove("id1.sometype.a");
+        properties.put("id3.sometype.a", "_a3");
+        Assert.assertEquals(ImmutableSet.of("id3"), resolver.getConfigurationFactory("sometype").getAllConfigurations().keySet());
+    }
+
+    @Test
+    public void testChildren() {
+        Properties properties = new Properties();
+        properties.put("id1.sometype.policy.type", "a");
+        properties.put("id1.sometype.policy.arg", "_arg");
+        
+        ComponentConfigurationResolver resolver = new PropertiesTypeConfigurationResolver(properties, null).getConfigurationFactory("sometype");
+        ConfigurationNode node = resolver.getConfiguration("id1");
+        ConfigurationNode policy = node.getChild("policy");
+        Assert.assertEquals("id1.sometype.policy.arg", ((PropertiesComponentConfiguration)policy.getChild("arg")).getFullName());
+        Assert.assertEquals("a", policy.getType());
+        
+        // Children are shared by the configurations of every later call
+        Assert.assertNotSame(node, resolver.getConfiguration("id1"));
+        Assert.assertSame(policy, resolver.getConfiguration("id1").getChild("policy"));
+        Assert.assertSame(policy.getChild("arg"), policy.getChild("arg"));
+        
+        // Type and values are still read live
+        properties.put("id1.sometype.policy.type", "b");
+        properties.put("id1.sometype.policy.arg", "_arg2");
+        Assert.assertEquals("b", policy.getType());
+        Assert.assertEquals("_arg2", policy.getChild("arg").getValue(String.class));
+    }
+
+    @Test
+    public void testJsonChildren() {
+        Properties properties = new Properties();
+        properties.put("id1.sometype", "{\"type\":\"a\",\"policy\":{\"type\":\"p\",\"arg\":\"_arg\"}}");
+        
+        ComponentConfigurationResolver resolver = new PropertiesTypeConfigurationResolver(properties, null).getConfigurationFactory("sometype");
+        ConfigurationNode policy = resolver.getConfiguration("id1").getChild("policy");
+        Assert.assertEquals("p", policy.getType());
+        Assert.assertSame(policy, resolver.getConfiguration("id1").getChild("policy"));
+        
+        // Changed json is a new tree
+        properties.put("id1.sometype", "{\"type\":\"a\",\"policy\":{\"type\":\"q\"}}");
+        Assert.assertEquals("q", resolver.getConfiguration("id1").getChild("policy").getType());
+    }
 }
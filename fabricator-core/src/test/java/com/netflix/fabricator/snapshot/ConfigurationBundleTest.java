@@ -0,0 +1,86 @@
+package com.netflix.fabricator.snapshot;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableSet;
+import com.netflix.fabricator.ConfigurationNode;
+
+public class ConfigurationBundleTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadMappedBundle() throws Exception {
+        Properties properties = new Properties();
+        properties.put("id1.sometype.type",          "a");
+        properties.put("id1.sometype.string",        "str");
+        properties.put("id1.sometype.integer",       "2");
+        properties.put("id1.sometype.long",          "5000000000");
+        properties.put("id1.sometype.double",        "2.5");
+        properties.put("id1.sometype.boolean",       "true");
+        properties.put("id1.sometype.properties.a",  "_a");
+        properties.put("id1.sometype.properties.b",  "_b");
+        properties.put("id1.sometype.policy.type",   "pa");
+        properties.put("id1.sometype.policy.arg",    "_arg");
+        properties.put("id2.sometype",               "{\"type\":\"b\",\"a\":\"_a2\"}");
+        properties.put("id3.othertype.a",            "_a3");
+
+        File file = folder.newFile("test.bundle");
+        ConfigurationBundleCompiler.compile(ConfigurationSnapshot.from(properties), file);
+        ConfigurationBundle bundle = ConfigurationBundle.open(file);
+        Assert.assertEquals(properties.size(), bundle.size());
+
+        SnapshotTypeConfigurationResolver resolver = new SnapshotTypeConfigurationResolver(bundle, null);
+        Assert.assertEquals(ImmutableSet.of("id1", "id2"), resolver.getConfigurationFactory("sometype").getAllConfigurations().keySet());
+        Assert.assertEquals(ImmutableSet.of("id3"), bundle.getIds("othertype"));
+
+        ConfigurationNode node = resolver.getConfigurationFactory("sometype").getConfiguration("id1");
+        Assert.assertEquals("a",            node.getType());
+        Assert.assertEquals("str",          node.getChild("string").getValue(String.class));
+        Assert.assertEquals(2,              node.getChild("integer").getValue(Integer.class).intValue());
+        Assert.assertEquals(5000000000L,    node.getChild("long").getValue(Long.class).longValue());
+        Assert.assertEquals(2.5,            node.getChild("double").getValue(Double.class), 0);
+        Assert.assertEquals(true,           node.getChild("boolean").getValue(Boolean.class));
+        Assert.assertNull(node.getChild("missing").getValue(String.class));
+        Assert.assertEquals("_b",           node.getChild("properties").getValue(Properties.class).getProperty("b"));
+        Assert.assertEquals("pa",           node.getChild("policy").getType());
+        Assert.assertEquals("_arg",         node.getChild("policy").getChild("arg").getValue(String.class));
+
+        Assert.assertEquals("b",            resolver.getConfigurationFactory("sometype").getConfiguration("id2").getType());
+
+        // A bundle and the snapshot it was compiled from hold the same configuration
+        Assert.assertTrue(bundle.subtreeEquals("id1.sometype", ConfigurationSnapshot.from(properties)));
+    }
+
+    @Test
+    public void testNonAsciiKeys() throws Exception {
+        // Keys covering 1 to 4 byte UTF-8 sequences, including a supplementary code point
+        // that sorts differently by code point than by UTF-16 char
+        String[] keys = {"a", "a.b", "ab", "\u00e9", "\u4e2d", "\uffee", "\ud83d\ude00", "\ud83d\ude00.x"};
+        ConfigurationSnapshot.Builder builder = ConfigurationSnapshot.builder();
+        for (String key : keys) {
+            builder.put(key, "_" + key);
+        }
+        ConfigurationSnapshot snapshot = builder.build();
+        ConfigurationBundle bundle = ConfigurationBundle.wrap(ConfigurationBundleCompiler.toByteArray(snapshot));
+
+        for (String key : keys) {
+            Assert.assertEquals("_" + key, bundle.getString(key));
+            Assert.assertEquals(snapshot.indexOf(key), bundle.indexOf(key));
+        }
+        Assert.assertFalse(bundle.containsKey("\ud83d"));
+        Assert.assertFalse(bundle.containsKey("a."));
+        Assert.assertEquals("_\ud83d\ude00.x", bundle.getProperties("\ud83d\ude00").getProperty("x"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidBundle() {
+        ConfigurationBundle.wrap(new byte[64]);
+    }
+}
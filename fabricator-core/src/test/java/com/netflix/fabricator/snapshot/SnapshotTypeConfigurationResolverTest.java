@@ -0,0 +1,106 @@
+package com.netflix.fabricator.snapshot;
+
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.netflix.fabricator.ComponentConfigurationListener;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.ObservableComponentConfigurationResolver;
+
+public class SnapshotTypeConfigurationResolverTest {
+    @Test
+    public void testReadValues() {
+        Properties properties = new Properties();
+        properties.put("id1.sometype.type",          "a");
+        properties.put("id1.sometype.string",        "str");
+        properties.put("id1.sometype.integer",       "2");
+        properties.put("id1.sometype.long",          "5000000000");
+        properties.put("id1.sometype.double",        "2.5");
+        properties.put("id1.sometype.boolean",       "TRUE");
+        properties.put("id1.sometype.properties.a",  "_a");
+        properties.put("id1.sometype.properties.b",  "_b");
+        properties.put("id1.sometype.policy.type",   "pa");
+        properties.put("id1.sometype.policy.arg",    "_arg");
+        properties.put("id2.sometype",               "{\"type\":\"b\",\"a\":\"_a2\"}");
+        properties.put("id3.othertype.a",            "_a3");
+
+        SnapshotTypeConfigurationResolver resolver = new SnapshotTypeConfigurationResolver(ConfigurationSnapshot.from(properties), null);
+        Assert.assertEquals(ImmutableSet.of("id1", "id2"), resolver.getConfigurationFactory("sometype").getAllConfigurations().keySet());
+
+        ConfigurationNode node = resolver.getConfigurationFactory("sometype").getConfiguration("id1");
+        Assert.assertEquals("a",            node.getType());
+        Assert.assertEquals("str",          node.getChild("string").getValue(String.class));
+        Assert.assertEquals(2,              node.getChild("integer").getValue(Integer.class).intValue());
+        Assert.assertEquals(5000000000L,    node.getChild("long").getValue(Long.class).longValue());
+        Assert.assertEquals(2.5,            node.getChild("double").getValue(Double.class), 0);
+        Assert.assertEquals(true,           node.getChild("boolean").getDynamicValue(Boolean.class).get());
+        Assert.assertNull(node.getChild("missing").getValue(String.class));
+        Assert.assertFalse(node.getChild("properties").isSingle());
+        Assert.assertEquals("_b",           node.getChild("properties").getValue(Properties.class).getProperty("b"));
+        Assert.assertEquals("pa",           node.getChild("policy").getType());
+        Assert.assertEquals("_arg",         node.getChild("policy").getChild("arg").getValue(String.class));
+        Assert.assertSame(node.getChild("policy"), node.getChild("policy"));
+
+        ConfigurationNode json = resolver.getConfigurationFactory("sometype").getConfiguration("id2");
+        Assert.assertEquals("b",            json.getType());
+        Assert.assertEquals("_a2",          json.getChild("a").getValue(String.class));
+    }
+
+    @Test(expected=NumberFormatException.class)
+    public void testInvalidNumber() {
+        Properties properties = new Properties();
+        properties.put("id1.sometype.integer", "abc");
+
+        SnapshotTypeConfigurationResolver resolver = new SnapshotTypeConfigurationResolver(ConfigurationSnapshot.from(properties), null);
+        resolver.getConfigurationFactory("sometype").getConfiguration("id1").getChild("integer").getValue(Integer.class);
+    }
+
+    @Test
+    public void testSetSnapshot() {
+        Properties properties = new Properties();
+        properties.put("id1.sometype.a", "_a1");
+        properties.put("id2.sometype.a", "_a2");
+        properties.put("id3.othertype.a", "_a3");
+
+        SnapshotTypeConfigurationResolver resolver = new SnapshotTypeConfigurationResolver(ConfigurationSnapshot.from(properties), null);
+        ObservableComponentConfigurationResolver typeResolver = (ObservableComponentConfigurationResolver)resolver.getConfigurationFactory("sometype");
+        ConfigurationNode id1 = typeResolver.getConfiguration("id1");
+        ConfigurationNode id2 = typeResolver.getConfiguration("id2");
+
+        // Nodes are reused until the snapshot changes
+        Assert.assertSame(id1, typeResolver.getConfiguration("id1"));
+        Assert.assertSame(id1.getChild("a"), typeResolver.getConfiguration("id1").getChild("a"));
+        Assert.assertSame(id1, typeResolver.getAllConfigurations().get("id1"));
+
+        final Set<String> changed = Sets.newHashSet();
+        typeResolver.addListener(new ComponentConfigurationListener() {
+            @Override
+            public void onChange(Set<String> ids) {
+                changed.addAll(ids);
+            }
+
+            @Override
+            public void onReset() {
+            }
+        });
+
+        properties.put("id2.sometype.a", "_a2_new");
+        properties.put("id3.othertype.a", "_a3_new");
+        properties.put("id4.sometype.a", "_a4");
+        resolver.setSnapshot(ConfigurationSnapshot.from(properties));
+
+        Assert.assertEquals(ImmutableSet.of("id2", "id4"), changed);
+        Assert.assertTrue(typeResolver.hasConfiguration("id4"));
+
+        // Nodes from the old snapshot keep reading the old values
+        Assert.assertEquals("_a2", id2.getChild("a").getValue(String.class));
+        Assert.assertEquals(id1, typeResolver.getConfiguration("id1"));
+        Assert.assertNotSame(id1, typeResolver.getConfiguration("id1"));
+        Assert.assertNotEquals(id2, typeResolver.getConfiguration("id2"));
+    }
+}
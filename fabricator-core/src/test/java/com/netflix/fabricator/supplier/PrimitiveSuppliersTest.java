@@ -0,0 +1,94 @@
+package com.netflix.fabricator.supplier;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+
+public class PrimitiveSuppliersTest {
+    /**
+     * Source that notifies its listeners on every set()
+     */
+    public static class SettableSupplier implements ListenableSupplier<Integer> {
+        final List<Function<Integer, Void>> listeners = new CopyOnWriteArrayList<Function<Integer, Void>>();
+        volatile Integer value;
+
+        SettableSupplier(Integer value) {
+            this.value = value;
+        }
+
+        void set(Integer value) {
+            this.value = value;
+            for (Function<Integer, Void> listener : listeners) {
+                listener.apply(value);
+            }
+        }
+
+        @Override
+        public Integer get() {
+            return value;
+        }
+
+        @Override
+        public void onChange(Function<Integer, Void> func) {
+            listeners.add(func);
+        }
+
+        @Override
+        public void removeOnChange(Function<Integer, Void> func) {
+            listeners.remove(func);
+        }
+    }
+
+    @Test
+    public void testChangeBeforeRead() {
+        final SettableSupplier source = new SettableSupplier(1) {
+            @Override
+            public Integer get() {
+                // A change between registering the callback and reading the value
+                if (value == 1) {
+                    set(2);
+                    return 1;
+                }
+                return value;
+            }
+        };
+        Assert.assertEquals(2, PrimitiveSuppliers.ofInt(source).getAsInt());
+    }
+
+    @Test
+    public void testCallbackRemovedAfterCollection() throws Exception {
+        SettableSupplier source = new SettableSupplier(1);
+        ListenableIntSupplier supplier = PrimitiveSuppliers.ofInt(source);
+        Assert.assertEquals(1, source.listeners.size());
+
+        source.set(2);
+        Assert.assertEquals(2, supplier.getAsInt());
+
+        WeakReference<ListenableIntSupplier> ref = new WeakReference<ListenableIntSupplier>(supplier);
+        supplier = null;
+        for (int i = 0; i < 100 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(ref.get());
+
+        source.set(3);
+        Assert.assertTrue(source.listeners.isEmpty());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNoValue() {
+        SettableSupplier source = new SettableSupplier(null);
+        try {
+            PrimitiveSuppliers.ofInt(source);
+        }
+        finally {
+            Assert.assertTrue(source.listeners.isEmpty());
+        }
+    }
+}
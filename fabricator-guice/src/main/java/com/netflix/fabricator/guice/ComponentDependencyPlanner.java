@@ -0,0 +1,314 @@
+package com.netflix.fabricator.guice;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Binding;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Types;
+import com.netflix.fabricator.ComponentConfigurationResolver;
+import com.netflix.fabricator.ComponentType;
+import com.netflix.fabricator.ConfigurationNode;
+import com.netflix.fabricator.PropertyInfo;
+import com.netflix.fabricator.TypeConfigurationResolver;
+import com.netflix.fabricator.annotations.Default;
+import com.netflix.fabricator.component.ComponentFactory;
+import com.netflix.fabricator.component.ComponentManager;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+
+/**
+ * Build a {@link ComponentPlan} for a set of components by walking their configuration
+ * before any of them is created.
+ *
+ * A component depends on another managed component when one of its properties, or a
+ * property of one of its embedded components, names the id of a configured component
+ * whose type has a ComponentManager binding.  This mirrors NamedComponentManagerBinding
+ * which resolves such properties with ComponentManager.get(id) while the dependent
+ * component is being built.  Dependencies of the requested components are added to the
+ * plan as well, even if their type was not requested.  Only embedded components with
+ * a type field are walked since the configuration API can't tell an empty structure
+ * from a missing one.
+ *
+ * The graph is walked iteratively, so long chains of dependencies can't overflow the
+ * stack, and a dependency cycle is reported by plan() before anything is created.
+ */
+public class ComponentDependencyPlanner {
+    private static final String NODE_FORMAT = "%s.%s";
+
+    /**
+     * Everything needed to resolve the configuration of and create one component type
+     */
+    static class TypeInfo {
+        final Class<?>                       componentClass;
+        final String                         type;
+        final ComponentManager<?>            manager;
+        final ComponentConfigurationResolver resolver;
+        Set<String>                          ids;
+
+        TypeInfo(Class<?> componentClass, String type, ComponentManager<?> manager, ComponentConfigurationResolver resolver) {
+            this.componentClass = componentClass;
+            this.type           = type;
+            this.manager        = manager;
+            this.resolver       = resolver;
+        }
+
+        Set<String> getIds() {
+            if (ids == null) {
+                ids = ImmutableSet.copyOf(resolver.getAllConfigurations().keySet());
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * A single component in the plan
+     */
+    static class Node {
+        final TypeInfo   typeInfo;
+        final String     id;
+        final String     name;
+        final List<Node> dependencies = Lists.newArrayList();
+
+        Node(TypeInfo typeInfo, String id) {
+            this.typeInfo = typeInfo;
+            this.id       = id;
+            this.name     = String.format(NODE_FORMAT, id, typeInfo.type);
+        }
+    }
+
+    private final Injector                  injector;
+    private final TypeConfigurationResolver config;
+
+    /**
+     * Component class -> type info or null if the class is not a managed component type.
+     * Only used from plan() which is not thread safe.
+     */
+    private final Map<Class<?>, TypeInfo>   types = Maps.newHashMap();
+
+    @Inject
+    public ComponentDependencyPlanner(Injector injector, TypeConfigurationResolver config) {
+        this.injector = injector;
+        this.config   = config;
+    }
+
+    /**
+     * Plan the creation of all configured components of the given component classes
+     *
+     * @param componentClasses
+     * @return Plan listing the components in dependency order
+     * @throws ComponentCreationException if a class is not a managed component type or
+     *         the components have a dependency cycle
+     */
+    public ComponentPlan plan(Iterable<? extends Class<?>> componentClasses) throws ComponentCreationException {
+        Map<String, Node> nodes = Maps.newLinkedHashMap();
+        Deque<Node>       queue = new ArrayDeque<Node>();
+
+        for (Class<?> componentClass : componentClasses) {
+            TypeInfo typeInfo = getTypeInfo(componentClass);
+            if (typeInfo == null) {
+                throw new ComponentCreationException("No ComponentManager bound for " + componentClass.getCanonicalName());
+            }
+            for (String id : typeInfo.getIds()) {
+                getOrAddNode(nodes, queue, typeInfo, id);
+            }
+        }
+
+        // Discover dependencies breadth first, adding nodes as they are found
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            ConfigurationNode nodeConfig = node.typeInfo.resolver.getConfiguration(node.id);
+            if (nodeConfig == null) {
+                continue;
+            }
+
+            Deque<Entry<ComponentFactory<?>, ConfigurationNode>> embedded = new ArrayDeque<Entry<ComponentFactory<?>, ConfigurationNode>>();
+            ComponentFactory<?> factory = getFactory(node.typeInfo.componentClass, nodeConfig.getType());
+            if (factory != null) {
+                embedded.add(Maps.<ComponentFactory<?>, ConfigurationNode>immutableEntry(factory, nodeConfig));
+            }
+
+            while (!embedded.isEmpty()) {
+                Entry<ComponentFactory<?>, ConfigurationNode> entry = embedded.poll();
+                for (Entry<String, PropertyInfo> prop : entry.getKey().getProperties().entrySet()) {
+                    Class<?> argType = prop.getValue().getType();
+                    if (argType == null || argType.isPrimitive() || argType.getName().startsWith("java.")) {
+                        continue;
+                    }
+
+                    ConfigurationNode child = entry.getValue().getChild(prop.getKey());
+                    if (child == null) {
+                        continue;
+                    }
+
+                    if (child.isSingle()) {
+                        TypeInfo dependencyType = getTypeInfo(argType);
+                        String   dependencyId   = child.getValue(String.class);
+                        if (dependencyType != null && dependencyId != null && dependencyType.getIds().contains(dependencyId)) {
+                            Node dependency = getOrAddNode(nodes, queue, dependencyType, dependencyId);
+                            if (!node.dependencies.contains(dependency)) {
+                                node.dependencies.add(dependency);
+                            }
+                        }
+                    }
+                    else if (child.getType() != null) {
+                        ComponentFactory<?> embeddedFactory = getFactory(argType, child.getType());
+                        if (embeddedFactory != null) {
+                            embedded.add(Maps.<ComponentFactory<?>, ConfigurationNode>immutableEntry(embeddedFactory, child));
+                        }
+                    }
+                }
+            }
+        }
+
+        return new ComponentPlan(sort(nodes.values()));
+    }
+
+    private static Node getOrAddNode(Map<String, Node> nodes, Deque<Node> queue, TypeInfo typeInfo, String id) {
+        String name = String.format(NODE_FORMAT, id, typeInfo.type);
+        Node node = nodes.get(name);
+        if (node == null) {
+            node = new Node(typeInfo, id);
+            nodes.put(name, node);
+            queue.add(node);
+        }
+        return node;
+    }
+
+    /**
+     * Order nodes so that every node comes after all of its dependencies (Kahn's algorithm)
+     */
+    private static List<Node> sort(Iterable<Node> nodes) throws ComponentCreationException {
+        Map<Node, Integer>    remaining  = Maps.newHashMap();
+        Map<Node, List<Node>> dependents = Maps.newHashMap();
+        Deque<Node>           ready      = new ArrayDeque<Node>();
+        for (Node node : nodes) {
+            remaining.put(node, node.dependencies.size());
+            if (node.dependencies.isEmpty()) {
+                ready.add(node);
+            }
+            for (Node dependency : node.dependencies) {
+                List<Node> list = dependents.get(dependency);
+                if (list == null) {
+                    list = Lists.newArrayList();
+                    dependents.put(dependency, list);
+                }
+                list.add(node);
+            }
+        }
+
+        List<Node> sorted = Lists.newArrayListWithCapacity(remaining.size());
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            sorted.add(node);
+            List<Node> list = dependents.get(node);
+            if (list != null) {
+                for (Node dependent : list) {
+                    int count = remaining.get(dependent) - 1;
+                    remaining.put(dependent, count);
+                    if (count == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+        }
+
+        if (sorted.size() < remaining.size()) {
+            throw new ComponentCreationException("Dependency cycle between components : " + findCycle(remaining));
+        }
+        return sorted;
+    }
+
+    /**
+     * Follow dependencies from any node left over by sort() until a node repeats.  Every
+     * left over node has at least one left over dependency so this always ends in a cycle.
+     */
+    private static String findCycle(Map<Node, Integer> remaining) {
+        Node node = null;
+        for (Entry<Node, Integer> entry : remaining.entrySet()) {
+            if (entry.getValue() > 0) {
+                node = entry.getKey();
+                break;
+            }
+        }
+
+        List<Node> path    = Lists.newArrayList();
+        Set<Node>  visited = Sets.newHashSet();
+        while (visited.add(node)) {
+            path.add(node);
+            for (Node dependency : node.dependencies) {
+                if (remaining.get(dependency) > 0) {
+                    node = dependency;
+                    break;
+                }
+            }
+        }
+
+        List<String> names = Lists.newArrayList();
+        for (Node cycleNode : path.subList(path.indexOf(node), path.size())) {
+            names.add(cycleNode.name);
+        }
+        names.add(node.name);
+        return Joiner.on(" -> ").join(names);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypeInfo getTypeInfo(Class<?> componentClass) {
+        if (types.containsKey(componentClass)) {
+            return types.get(componentClass);
+        }
+
+        TypeInfo typeInfo = null;
+        Binding<ComponentManager<?>> managerBinding = injector.getExistingBinding(Key.get(
+                (TypeLiteral<ComponentManager<?>>) TypeLiteral.get(Types.newParameterizedType(ComponentManager.class, componentClass))));
+        Binding<ComponentType<?>> typeBinding = injector.getExistingBinding(Key.get(
+                (TypeLiteral<ComponentType<?>>) TypeLiteral.get(Types.newParameterizedType(ComponentType.class, componentClass))));
+        if (managerBinding != null && typeBinding != null) {
+            String type = typeBinding.getProvider().get().getType();
+            typeInfo = new TypeInfo(
+                    componentClass,
+                    type,
+                    managerBinding.getProvider().get(),
+                    config.getConfigurationFactory(type));
+        }
+        types.put(componentClass, typeInfo);
+        return typeInfo;
+    }
+
+    /**
+     * Find the factory used for a component of componentClass with the given sub type,
+     * using the same precedence as the ComponentManagers
+     */
+    @SuppressWarnings("unchecked")
+    private ComponentFactory<?> getFactory(Class<?> componentClass, String subType) {
+        TypeLiteral<?> factoryType = TypeLiteral.get(Types.newParameterizedType(ComponentFactory.class, componentClass));
+        if (subType != null) {
+            Binding<Map<String, ComponentFactory<?>>> factoriesBinding = injector.getExistingBinding(Key.get(
+                    (TypeLiteral<Map<String, ComponentFactory<?>>>) TypeLiteral.get(Types.mapOf(String.class, factoryType.getType()))));
+            if (factoriesBinding != null) {
+                ComponentFactory<?> factory = factoriesBinding.getProvider().get().get(subType);
+                if (factory != null) {
+                    return factory;
+                }
+            }
+        }
+
+        Binding<ComponentFactory<?>> defaultBinding = injector.getExistingBinding(Key.get(
+                (TypeLiteral<ComponentFactory<?>>) factoryType, Default.class));
+        if (defaultBinding != null) {
+            return defaultBinding.getProvider().get();
+        }
+        return null;
+    }
+}
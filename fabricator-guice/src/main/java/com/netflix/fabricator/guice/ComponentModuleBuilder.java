@@ -13,6 +13,7 @@ import com.google.inject.Module;
 import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.MapBinder;
+import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 import com.google.inject.util.Types;
 import com.netflix.fabricator.Builder;
@@ -22,6 +23,7 @@ import com.netflix.fabricator.annotations.TypeImplementation;
 import com.netflix.fabricator.annotations.Type;
 import com.netflix.fabricator.component.ComponentFactory;
 import com.netflix.fabricator.component.ComponentManager;
+import com.netflix.fabricator.component.GeneratedComponentFactories;
 import com.netflix.governator.guice.lazy.LazySingletonScope;
 /**
  * Utility class for creating a binding between a type string name and an
@@ -37,6 +39,7 @@ public class ComponentModuleBuilder<T> {
     private Map<String, T> instances = Maps.newHashMap();
     private Class<? extends ComponentManager> managerClass;
     private String typeName;
+    private boolean warmUp = false;
     
     public Module build(final Class<T> type) {
         return new AbstractModule() {
@@ -63,13 +66,23 @@ public class ComponentModuleBuilder<T> {
                         .to(managerTypeImpl)
                         .in(LazySingletonScope.get());
                     
+                    if (warmUp) {
+                        install(new ComponentWarmUpModule());
+                        Multibinder.newSetBinder(binder(), ComponentWarmUpModule.WARM_UP_TYPE)
+                            .addBinding()
+                            .toProvider(new ComponentWarmUpProvider<T>(type, componentType, managerType));
+                    }
+                    
                     if (!Modifier.isAbstract(type.getModifiers() )) {
                         bind(componentFactoryTypeLiteral)
                             .annotatedWith(Default.class)
-                            .toProvider(new GuiceBindingComponentFactoryProvider<T>((Class<T>) type))
+                            .toProvider(factoryProvider(type))
                             .in(LazySingletonScope.get());
                     }
                 }
+                else {
+                    Preconditions.checkState(!warmUp, "warmUp() requires a manager for " + type.getCanonicalName());
+                }
 
                 
                 // Create the multi binder for this type.
@@ -110,14 +123,14 @@ public class ComponentModuleBuilder<T> {
      * @param subType
      */
     public ComponentModuleBuilder<T> implementation(String subTypeName, Class<? extends T> subType) {
-        bindings.put(subTypeName, new GuiceBindingComponentFactoryProvider<T>(subType));
+        bindings.put(subTypeName, factoryProvider(subType));
         return this;
     }
 
     public ComponentModuleBuilder<T> implementation(Class<? extends T> type) {
         TypeImplementation subType = type.getAnnotation(TypeImplementation.class);
         Preconditions.checkNotNull(subType, "Missing @TypeImplementation for class " + type.getCanonicalName());
-        bindings.put(subType.value(), new GuiceBindingComponentFactoryProvider<T>((Class<T>) type));
+        bindings.put(subType.value(), factoryProvider(type));
         return this;
     }
     
@@ -136,6 +149,19 @@ public class ComponentModuleBuilder<T> {
         return this;
     }
 
+    /**
+     * Create all configured components of this type in the background as soon as the 
+     * injector is created instead of on the first call to ComponentManager.get(id).
+     * Requires a manager.  Inject {@link ComponentWarmUpService} to find out when all
+     * components have been created.
+     * 
+     * @return
+     */
+    public ComponentModuleBuilder<T> warmUp() {
+        warmUp = true;
+        return this;
+    }
+
     /**
      * Specify a builder (as a Factory) on which configuration will be mapped and the
      * final object created when the builder's build() method is called.  Use this
@@ -164,10 +190,27 @@ public class ComponentModuleBuilder<T> {
      * @return
      */
     public ComponentModuleBuilder<T> builder(String type, Class<? extends Builder<T>> builder) {
-        bindings.put(type, new GuiceBindingComponentFactoryProvider<T>(builder));
+        bindings.put(type, factoryProvider(builder));
         return this;
     }
 
+    /**
+     * Use the ComponentFactory generated by fabricator-apt for clazz if one exists and
+     * the injector has no binding for its builder class.  Otherwise fall back to mapping 
+     * the builder at runtime using reflection, creating the builder through the injector.
+     * 
+     * Factories are only generated for builders without injected members or properties, 
+     * so there is nothing to plan for them.  However they don't record the per phase 
+     * ComponentMetrics of a BindingComponentFactory; only the create time recorded by
+     * the manager.
+     * 
+     * @param clazz
+     * @return
+     */
+    private Provider<ComponentFactory<T>> factoryProvider(Class<?> clazz) {
+        return new GuiceBindingComponentFactoryProvider<T>(clazz, GeneratedComponentFactories.<T>find(clazz));
+    }
+
     /**
      * Indicate a specific instance for id.  This makes it possible to inject an instance
      * using @Named('id') instead of the ComponentManager
@@ -0,0 +1,135 @@
+package com.netflix.fabricator.guice;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+import com.netflix.fabricator.guice.ComponentDependencyPlanner.Node;
+
+/**
+ * Components to create in dependency order, as computed by {@link ComponentDependencyPlanner}.
+ *
+ * execute() creates every component with ComponentManager.getAsync() as soon as all of
+ * its dependencies have been created.  Components that don't depend on each other are
+ * therefore created in parallel, and a component's named dependencies already exist
+ * when its builder asks for them so creation is never nested.
+ */
+public class ComponentPlan {
+    private static final Logger LOG = LoggerFactory.getLogger(ComponentPlan.class);
+
+    private final List<Node> nodes;
+
+    ComponentPlan(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return Names of all components, formatted as ${id}.${type}, in an order where each
+     *         component comes after all of its dependencies
+     */
+    public List<String> getOrder() {
+        ImmutableList.Builder<String> order = ImmutableList.builder();
+        for (Node node : nodes) {
+            order.add(node.name);
+        }
+        return order.build();
+    }
+
+    /**
+     * @return Number of components in the plan
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Create all components of the plan.  A component whose dependency failed is not
+     * created and is reported as failed as well.
+     *
+     * @return Future that completes once all components were created or with a
+     *         ComponentCreationException naming the components that failed
+     */
+    public CompletableFuture<Void> execute() {
+        final Set<String> failed = Sets.newConcurrentHashSet();
+
+        // Futures never complete exceptionally, they complete with false when the
+        // component or one of its dependencies failed
+        Map<Node, CompletableFuture<Boolean>> futures = Maps.newHashMap();
+        for (final Node node : nodes) {
+            List<CompletableFuture<Boolean>> dependencies = Lists.newArrayListWithCapacity(node.dependencies.size());
+            for (Node dependency : node.dependencies) {
+                dependencies.add(futures.get(dependency));
+            }
+
+            final List<CompletableFuture<Boolean>> dependencyFutures = dependencies;
+            futures.put(node, CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[dependencies.size()])).thenCompose(new Function<Void, CompletableFuture<Boolean>>() {
+                @Override
+                public CompletableFuture<Boolean> apply(Void ignore) {
+                    for (CompletableFuture<Boolean> dependency : dependencyFutures) {
+                        if (!dependency.join()) {
+                            LOG.warn(String.format("Not creating '%s' because one of its dependencies failed", node.name));
+                            failed.add(node.name);
+                            return CompletableFuture.completedFuture(false);
+                        }
+                    }
+                    return create(node, failed);
+                }
+            }));
+        }
+
+        CompletableFuture<?>[] all = futures.values().toArray(new CompletableFuture<?>[futures.size()]);
+        return CompletableFuture.allOf(all).thenCompose(new Function<Void, CompletableFuture<Void>>() {
+            @Override
+            public CompletableFuture<Void> apply(Void ignore) {
+                CompletableFuture<Void> future = new CompletableFuture<Void>();
+                if (failed.isEmpty()) {
+                    future.complete(null);
+                }
+                else {
+                    future.completeExceptionally(new ComponentCreationException("Failed to create components " + failed));
+                }
+                return future;
+            }
+        });
+    }
+
+    private static CompletableFuture<Boolean> create(final Node node, final Set<String> failed) {
+        CompletableFuture<?> future;
+        try {
+            future = node.typeInfo.manager.getAsync(node.id);
+        }
+        catch (RuntimeException e) {
+            CompletableFuture<Object> failedFuture = new CompletableFuture<Object>();
+            failedFuture.completeExceptionally(e);
+            future = failedFuture;
+        }
+
+        return future.handle(new BiFunction<Object, Throwable, Boolean>() {
+            @Override
+            public Boolean apply(Object component, Throwable error) {
+                if (error != null) {
+                    LOG.warn(String.format("Failed to create '%s'", node.name), error);
+                    failed.add(node.name);
+                    return false;
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "ComponentPlan" + getOrder();
+    }
+}
@@ -0,0 +1,33 @@
+package com.netflix.fabricator.guice;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.Multibinder;
+import com.netflix.fabricator.component.ComponentWarmUp;
+
+/**
+ * Installed by every ComponentModuleBuilder with warmUp() enabled.  All instances are
+ * equal so Guice only installs the module once no matter how many types are warmed up.
+ */
+class ComponentWarmUpModule extends AbstractModule {
+    /**
+     * Element type of the set of ComponentWarmUps of all types
+     */
+    static final TypeLiteral<ComponentWarmUp<?>> WARM_UP_TYPE = new TypeLiteral<ComponentWarmUp<?>>() {};
+
+    @Override
+    protected void configure() {
+        Multibinder.newSetBinder(binder(), WARM_UP_TYPE);
+        bind(ComponentWarmUpService.class).asEagerSingleton();
+    }
+
+    @Override
+    public int hashCode() {
+        return ComponentWarmUpModule.class.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ComponentWarmUpModule;
+    }
+}
@@ -0,0 +1,41 @@
+package com.netflix.fabricator.guice;
+
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import com.netflix.fabricator.ComponentType;
+import com.netflix.fabricator.TypeConfigurationResolver;
+import com.netflix.fabricator.component.ComponentManager;
+import com.netflix.fabricator.component.ComponentWarmUp;
+
+/**
+ * Provide the ComponentWarmUp for a single component type from the type's
+ * ComponentManager and ComponentType bindings
+ *
+ * @param <T>
+ */
+class ComponentWarmUpProvider<T> implements Provider<ComponentWarmUp<?>> {
+    private final Class<T>                         componentClass;
+    private final TypeLiteral<ComponentType<T>>    componentType;
+    private final TypeLiteral<ComponentManager<T>> managerType;
+
+    @Inject
+    private Injector injector;
+
+    ComponentWarmUpProvider(Class<T> componentClass, TypeLiteral<ComponentType<T>> componentType, TypeLiteral<ComponentManager<T>> managerType) {
+        this.componentClass = componentClass;
+        this.componentType = componentType;
+        this.managerType   = managerType;
+    }
+
+    @Override
+    public ComponentWarmUp<?> get() {
+        return new ComponentWarmUp<T>(
+                componentClass,
+                injector.getInstance(Key.get(componentType)),
+                injector.getInstance(Key.get(managerType)),
+                injector.getInstance(TypeConfigurationResolver.class));
+    }
+}
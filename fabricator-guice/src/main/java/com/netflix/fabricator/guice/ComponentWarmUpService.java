@@ -0,0 +1,90 @@
+package com.netflix.fabricator.guice;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.netflix.fabricator.component.ComponentWarmUp;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+
+/**
+ * Eager singleton that starts building all configured components of the types
+ * registered with {@link ComponentModuleBuilder#warmUp()} as soon as the injector is
+ * created.  Components are created in dependency order, see
+ * {@link ComponentDependencyPlanner}, and a dependency cycle fails the creation of the
+ * injector.  The warm up runs in the background; health checks should report the
+ * service as healthy only once {@link #isWarm()} returns true, or block on
+ * {@link #awaitWarm(long, TimeUnit)} during startup.
+ */
+@Singleton
+public class ComponentWarmUpService {
+    private static final Logger LOG = LoggerFactory.getLogger(ComponentWarmUpService.class);
+
+    private final CompletableFuture<Void> future;
+
+    @Inject
+    public ComponentWarmUpService(Set<ComponentWarmUp<?>> warmUps, ComponentDependencyPlanner planner) throws ComponentCreationException {
+        final long startTime = System.nanoTime();
+        List<Class<?>> componentClasses = Lists.newArrayList();
+        for (ComponentWarmUp<?> warmUp : warmUps) {
+            componentClasses.add(warmUp.getComponentClass());
+        }
+
+        // Fails injector creation when the components have a dependency cycle
+        ComponentPlan plan = planner.plan(componentClasses);
+        LOG.info(String.format("Warming up %d components of %d types", plan.size(), warmUps.size()));
+        future = plan.execute();
+        future.thenRun(new Runnable() {
+            @Override
+            public void run() {
+                LOG.info(String.format("Components warmed up in %d ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
+            }
+        });
+    }
+
+    /**
+     * @return True once all components were created successfully
+     */
+    public boolean isWarm() {
+        return future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * @return Future that completes once all components were created or with a
+     *         ComponentCreationException naming the components that failed
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    /**
+     * Block until all components were created
+     *
+     * @param timeout
+     * @param units
+     * @throws ComponentCreationException if any component failed to be created
+     * @throws TimeoutException
+     * @throws InterruptedException
+     */
+    public void awaitWarm(long timeout, TimeUnit units) throws ComponentCreationException, TimeoutException, InterruptedException {
+        try {
+            future.get(timeout, units);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof ComponentCreationException) {
+                throw (ComponentCreationException)e.getCause();
+            }
+            throw new ComponentCreationException("Failed to warm up components", e.getCause());
+        }
+    }
+}
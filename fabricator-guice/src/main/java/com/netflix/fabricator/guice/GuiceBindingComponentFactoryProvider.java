@@ -5,8 +5,10 @@ import java.lang.reflect.Method;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.inject.Binding;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.spi.BindingTargetVisitor;
 import com.google.inject.spi.ProviderInstanceBinding;
 import com.google.inject.spi.ProviderWithExtensionVisitor;
@@ -18,6 +20,7 @@ import com.netflix.fabricator.PropertyBinder;
 import com.netflix.fabricator.PropertyBinderResolver;
 import com.netflix.fabricator.component.ComponentFactory;
 import com.netflix.fabricator.component.bind.SimplePropertyBinderFactoryResolver;
+import com.netflix.fabricator.component.metrics.ComponentMetrics;
 import com.netflix.fabricator.guice.mapping.EmbeddedComponentManagerBinding;
 import com.netflix.fabricator.guice.mapping.NamedComponentManagerBinding;
 import com.netflix.fabricator.guice.mapping.EmbeddedComponentFactoryBinding;
@@ -45,13 +48,37 @@ public class GuiceBindingComponentFactoryProvider<T> implements ProviderWithExte
     private PropertyBinderResolver      binderResolver;
     private Class<?>                    clazz;
     
+    /**
+     * Factory generated by fabricator-apt for clazz, or null if there is none
+     */
+    private final ComponentFactory<T>   generated;
+    private boolean                     useGenerated = false;
+    
     public GuiceBindingComponentFactoryProvider(final Class<?> clazz) {
         this(clazz, new SettableInjector());
     }
     
     public GuiceBindingComponentFactoryProvider(final Class<?> clazz, SettableInjector injector) {
+        this(clazz, injector, null);
+    }
+    
+    /**
+     * Use a factory generated by fabricator-apt for clazz unless the injector has a 
+     * binding for the builder class that a BindingComponentFactory would get from the
+     * injector.  A generated factory creates the builder with new, so such a binding 
+     * would otherwise be ignored.
+     * 
+     * @param clazz
+     * @param generated Generated factory or null to always map the builder at runtime
+     */
+    public GuiceBindingComponentFactoryProvider(final Class<?> clazz, ComponentFactory<T> generated) {
+        this(clazz, new SettableInjector(), generated);
+    }
+    
+    private GuiceBindingComponentFactoryProvider(final Class<?> clazz, SettableInjector injector, ComponentFactory<T> generated) {
         this.binderResolver = new SimplePropertyBinderFactoryResolver(null, this);
         this.clazz          = clazz;
+        this.generated      = generated;
 
         if (injector != null)   
             initialize(injector);
@@ -60,6 +87,9 @@ public class GuiceBindingComponentFactoryProvider<T> implements ProviderWithExte
     
     @Override
     public ComponentFactory<T> get() {
+        if (useGenerated) {
+            return generated;
+        }
         return factory.get();
     }
 
@@ -78,7 +108,42 @@ public class GuiceBindingComponentFactoryProvider<T> implements ProviderWithExte
     @Toolable
     void initialize(Injector injector) {
         this.injector.set(injector);
+        
+        // The builder is only analyzed once the injector shows that the generated factory 
+        // can't be used
+        if (generated != null && (!this.injector.isSet() || !hasBuilderBinding(injector))) {
+            this.useGenerated = true;
+            return;
+        }
+        
+        this.useGenerated = false;
         this.factory = new BindingComponentFactory<T>(clazz, binderResolver, this);
+        
+        // The constructor initializes with an empty injector before guice calls this
+        if (this.injector.isSet()) {
+            Binding<ComponentMetrics> metrics = injector.getExistingBinding(Key.get(ComponentMetrics.class));
+            if (metrics != null) {
+                this.factory.setMetrics(metrics.getProvider().get());
+            }
+        }
+    }
+    
+    /**
+     * @return True if clazz's builder is created by the injector and has an explicit 
+     *         binding in the injector or any of its parents
+     */
+    private boolean hasBuilderBinding(Injector injector) {
+        Class<?> builderClass = BindingComponentFactory.getInjectedBuilderClass(clazz);
+        if (builderClass == null) {
+            return false;
+        }
+        Key<?> key = Key.get(builderClass);
+        for (Injector current = injector; current != null; current = current.getParent()) {
+            if (current.getBindings().containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
     }
     
     @Override
@@ -100,6 +165,13 @@ public class GuiceBindingComponentFactoryProvider<T> implements ProviderWithExte
                 .addStrategy(new NamedMapBinding()                              // Does this belong here
                 );
         
+        // Keep only the strategies that can apply to argType once the real injector is known.
+        // The factory is created again from initialize() when the injector is set.
+        if (injector.isSet()) {
+            namedPropertyInjection.plan();
+            embeddedPropertyInjection.plan();
+        }
+        
         //Build up a sequence of Binding resolving and value retrieving processes.
         //Any successful step will terminate the sequence
         return new PropertyBinder() {
@@ -113,4 +113,14 @@ public class SettableInjector implements Injector {
         this.injector = injector;
     }
 
+    /**
+     * @return True once set with an injector that is itself not an unset SettableInjector
+     */
+    public boolean isSet() {
+        if (injector instanceof SettableInjector) {
+            return ((SettableInjector)injector).isSet();
+        }
+        return injector != null;
+    }
+
 }
@@ -0,0 +1,59 @@
+package com.netflix.fabricator.guice.mapping;
+
+import java.lang.reflect.Method;
+
+import com.google.inject.Injector;
+import com.netflix.fabricator.ConfigurationNode;
+
+/**
+ * BindingReslove that separates looking up the guice bindings for a property from
+ * applying them.  The bindings of an injector don't change once it is created so
+ * {@link PropertyInjection} only calls resolve() the first time a property is mapped
+ * and reuses the result, including a null result, for every component after that.
+ * Once the injector is known {@link PropertyInjection#plan()} resolves strategies
+ * up front and drops the ones that can't apply to the property.
+ *
+ * @param <R> Result of the lookup, typically a Provider
+ */
+public abstract class CachedBindingReslove<R> implements BindingReslove {
+    /**
+     * @return True if resolve() depends on the property value passed as name, in which
+     *         case the lookup is cached per value instead of once per property
+     */
+    public boolean isNamed() {
+        return false;
+    }
+
+    /**
+     * Check if resolve() can find bindings for any property value.  Only called for
+     * named strategies, which can't be resolved up front, and defaults to true.
+     *
+     * @return False if this strategy can never apply to a property of type argType
+     */
+    public boolean canResolve(Class<?> argType, Injector injector, Method method) {
+        return true;
+    }
+
+    /**
+     * Look up the bindings needed to map a property of type argType
+     *
+     * @return Resolved bindings or null if this strategy doesn't apply to the property
+     */
+    public abstract R resolve(String name, Class<?> argType, Injector injector, Method method);
+
+    /**
+     * Map the property using bindings returned by resolve()
+     *
+     * @return True if the property was mapped
+     */
+    public abstract boolean execute(R resolved, String name, Object obj, ConfigurationNode node, Class<?> argType, Method method) throws Exception;
+
+    @Override
+    public final boolean execute(String name, Object obj, ConfigurationNode node, Class<?> argType, Injector injector, Method method) throws Exception {
+        R resolved = resolve(name, argType, injector, method);
+        if (resolved == null) {
+            return false;
+        }
+        return execute(resolved, name, obj, node, argType, method);
+    }
+}
@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import com.google.inject.Binding;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.util.Types;
 import com.netflix.fabricator.ConfigurationNode;
@@ -15,7 +16,7 @@ import com.netflix.fabricator.component.ComponentManager;
  * 
  * @author elandau
  */
-public class EmbeddedComponentManagerBinding implements BindingReslove {
+public class EmbeddedComponentManagerBinding extends CachedBindingReslove<Provider<ComponentManager<?>>> {
     private String propertyName;
 
     public EmbeddedComponentManagerBinding(String propertyName) {
@@ -23,21 +24,26 @@ public class EmbeddedComponentManagerBinding implements BindingReslove {
     }
 
     @Override
-    public boolean execute(String name, Object obj, ConfigurationNode node, Class<?> argType, Injector injector, Method method) throws Exception {
+    public Provider<ComponentManager<?>> resolve(String name, Class<?> argType, Injector injector, Method method) {
         TypeLiteral<ComponentManager<?>> managerLiteral = (TypeLiteral<ComponentManager<?>>) TypeLiteral.get(Types.newParameterizedType(ComponentManager.class, argType));
         Binding<ComponentManager<?>> managerBinding = injector.getExistingBinding(Key.get(managerLiteral));
         if (managerBinding != null) {
-            ComponentManager<?> manager = managerBinding.getProvider().get();
-            try {
-                method.invoke(obj, manager.create(node));
-                return true;
-            }
-            catch (Exception e) {
-                throw new Exception(String.format(
-                        "Unable to get component '%s' (%s) for property '%s' must be one of %s",
-                        name, argType.getSimpleName(), propertyName, manager.getIds()), e);
-            }
+            return managerBinding.getProvider();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean execute(Provider<ComponentManager<?>> provider, String name, Object obj, ConfigurationNode node, Class<?> argType, Method method) throws Exception {
+        ComponentManager<?> manager = provider.get();
+        try {
+            method.invoke(obj, manager.create(node));
+            return true;
+        }
+        catch (Exception e) {
+            throw new Exception(String.format(
+                    "Unable to get component '%s' (%s) for property '%s' must be one of %s",
+                    name, argType.getSimpleName(), propertyName, manager.getIds()), e);
         }
-        return false;    
     }
 }
@@ -3,6 +3,7 @@ package com.netflix.fabricator.guice.mapping;
 import com.google.inject.Binding;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.util.Types;
 import com.netflix.fabricator.ConfigurationNode;
@@ -16,9 +17,9 @@ import java.util.Map;
  * 
  * Created by hyuan on 1/17/14.
  */
-public class EmbeddedMapToComponentFactoryBinding implements BindingReslove {
+public class EmbeddedMapToComponentFactoryBinding extends CachedBindingReslove<Provider<Map<String, ComponentFactory<?>>>> {
     @Override
-    public boolean execute(String name, Object obj, ConfigurationNode node, Class<?> argType, Injector injector, Method method) throws Exception {
+    public Provider<Map<String, ComponentFactory<?>>> resolve(String name, Class<?> argType, Injector injector, Method method) {
         if (argType.isInterface()) {
             @SuppressWarnings("unchecked")
             TypeLiteral<Map<String, ComponentFactory<?>>> mapType =
@@ -32,16 +33,20 @@ public class EmbeddedMapToComponentFactoryBinding implements BindingReslove {
             Binding<Map<String, ComponentFactory<?>>> binding = injector.getExistingBinding(mapKey);
             
             if (binding != null) {
-                if (node.getType() != null) {
-                    Map<String, ComponentFactory<?>> map = binding.getProvider().get();
-                    ComponentFactory<?> factory = map.get(node.getType());
-                    if (factory != null) {
-                        Object subObject = factory
-                                .create(node);
-                        method.invoke(obj, subObject);
-                        return true;
-                    }
-                }
+                return binding.getProvider();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean execute(Provider<Map<String, ComponentFactory<?>>> provider, String name, Object obj, ConfigurationNode node, Class<?> argType, Method method) throws Exception {
+        if (node.getType() != null) {
+            ComponentFactory<?> factory = provider.get().get(node.getType());
+            if (factory != null) {
+                Object subObject = factory.create(node);
+                method.invoke(obj, subObject);
+                return true;
             }
         }
         return false;
@@ -3,6 +3,9 @@ package com.netflix.fabricator.guice.mapping;
 import com.google.inject.Binding;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Named;
 import com.google.inject.name.Names;
 import com.netflix.fabricator.ConfigurationNode;
 
@@ -14,11 +17,33 @@ import java.lang.reflect.Type;
  *  
  * Created by hyuan on 1/16/14.
  */
-public class NamedBinding implements BindingReslove {
+public class NamedBinding extends CachedBindingReslove<Provider<?>> {
 
     @Override
-    public boolean execute(String name, Object obj, ConfigurationNode config, Class<?> argType, Injector injector, Method method) throws Exception {
-        
+    public boolean isNamed() {
+        return true;
+    }
+    
+    /**
+     * Named bindings are explicit so this binding can only apply if the injector has
+     * or one of its parents has at least one named binding of the property type
+     */
+    @Override
+    public boolean canResolve(Class<?> argType, Injector injector, Method method) {
+        TypeLiteral<?> pType = TypeLiteral.get(method.getGenericParameterTypes()[0]);
+        for (Injector current = injector; current != null; current = current.getParent()) {
+            for (Binding<?> binding : current.findBindingsByType(pType)) {
+                Class<?> annotationType = binding.getKey().getAnnotationType();
+                if (annotationType == Named.class || annotationType == javax.inject.Named.class) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public Provider<?> resolve(String name, Class<?> argType, Injector injector, Method method) {
         Binding<?> binding;
         
         Type pType = method.getGenericParameterTypes()[0];
@@ -30,9 +55,14 @@ public class NamedBinding implements BindingReslove {
         }
         
         if (binding != null) {
-            method.invoke(obj, binding.getProvider().get());
-            return true;
+            return binding.getProvider();
         }
-        return false;
+        return null;
+    }
+
+    @Override
+    public boolean execute(Provider<?> provider, String name, Object obj, ConfigurationNode config, Class<?> argType, Method method) throws Exception {
+        method.invoke(obj, provider.get());
+        return true;
     }
 }
@@ -3,6 +3,7 @@ package com.netflix.fabricator.guice.mapping;
 import com.google.inject.Binding;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.util.Types;
 import com.netflix.fabricator.ConfigurationNode;
@@ -15,7 +16,7 @@ import java.lang.reflect.Method;
  * 
  * Created by hyuan on 1/16/14.
  */
-public class NamedComponentManagerBinding implements BindingReslove {
+public class NamedComponentManagerBinding extends CachedBindingReslove<Provider<ComponentManager<?>>> {
     private String propertyName;
 
     public NamedComponentManagerBinding(String propertyName) {
@@ -23,21 +24,26 @@ public class NamedComponentManagerBinding implements BindingReslove {
     }
 
     @Override
-    public boolean execute(String name, Object obj, ConfigurationNode node, Class<?> argType, Injector injector, Method method) throws Exception {
+    public Provider<ComponentManager<?>> resolve(String name, Class<?> argType, Injector injector, Method method) {
         TypeLiteral<ComponentManager<?>> managerLiteral = (TypeLiteral<ComponentManager<?>>) TypeLiteral.get(Types.newParameterizedType(ComponentManager.class, argType));
         Binding<ComponentManager<?>> managerBinding = injector.getExistingBinding(Key.get(managerLiteral));
         if (managerBinding != null) {
-            ComponentManager<?> manager = managerBinding.getProvider().get();
-            try {
-                method.invoke(obj, manager.get(name));
-                return true;
-            }
-            catch (Exception e) {
-                throw new Exception(String.format(
-                        "Unable to get component '%s' (%s) for property '%s' must be one of %s",
-                        name, argType.getSimpleName(), propertyName, manager.getIds()), e);
-            }
+            return managerBinding.getProvider();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean execute(Provider<ComponentManager<?>> provider, String name, Object obj, ConfigurationNode node, Class<?> argType, Method method) throws Exception {
+        ComponentManager<?> manager = provider.get();
+        try {
+            method.invoke(obj, manager.get(name));
+            return true;
+        }
+        catch (Exception e) {
+            throw new Exception(String.format(
+                    "Unable to get component '%s' (%s) for property '%s' must be one of %s",
+                    name, argType.getSimpleName(), propertyName, manager.getIds()), e);
         }
-        return false;    
     }
 }
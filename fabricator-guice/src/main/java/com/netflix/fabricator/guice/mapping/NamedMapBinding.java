@@ -1,8 +1,12 @@
 package com.netflix.fabricator.guice.mapping;
 
+import com.google.common.base.Function;
+import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.Maps;
 import com.google.inject.Binding;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.util.Types;
 import com.netflix.fabricator.ConfigurationNode;
@@ -12,22 +16,52 @@ import java.util.Map;
 
 /**
  * Look for a named component in a map binding : Map<String, T>
- * 
+ *
+ * A MapBinder also binds Map<String, Provider<T>>, which doesn't change once the
+ * injector is created, so that map is resolved once and only the provider of the
+ * named entry is called.  A plain Map<String, T> binding is fetched on every call
+ * so that its scope is honoured.
+ *
  * Created by hyuan on 1/16/14.
  */
-public class NamedMapBinding implements BindingReslove {
+public class NamedMapBinding extends CachedBindingReslove<Map<String, ?>> {
+    @SuppressWarnings("unchecked")
     @Override
-    public boolean execute(String name, Object obj, ConfigurationNode config, Class<?> argType, Injector injector, Method method) throws Exception {
+    public Map<String, ?> resolve(String name, Class<?> argType, Injector injector, Method method) {
         // Look for a MapBinder binding
+        TypeLiteral<Map<String, Provider<?>>> providersLiteral = (TypeLiteral<Map<String, Provider<?>>>) TypeLiteral.get(
+                Types.mapOf(String.class, Types.providerOf(argType)));
+        Binding<Map<String, Provider<?>>> providersBinding = injector.getExistingBinding(Key.get(providersLiteral));
+        if (providersBinding != null) {
+            // A view that only calls the provider of the entry that is read
+            return Maps.transformValues(providersBinding.getProvider().get(), new Function<Provider<?>, Object>() {
+                @Override
+                public Object apply(Provider<?> provider) {
+                    return provider.get();
+                }
+            });
+        }
+
         TypeLiteral<Map<String, ?>> mapLiteral = (TypeLiteral<Map<String, ?>>) TypeLiteral.get(
                 Types.mapOf(String.class, argType));
         Binding<Map<String, ?>> mapBinding = injector.getExistingBinding(Key.get(mapLiteral));
         if (mapBinding != null) {
-            Map<String, ?> map = mapBinding.getProvider().get();
-            if (map.containsKey(name)) {
-                method.invoke(obj, map.get(name));
-                return true;
-            }
+            final Provider<Map<String, ?>> provider = mapBinding.getProvider();
+            return new ForwardingMap<String, Object>() {
+                @Override
+                protected Map<String, Object> delegate() {
+                    return (Map<String, Object>) provider.get();
+                }
+            };
+        }
+        return null;
+    }
+
+    @Override
+    public boolean execute(Map<String, ?> map, String name, Object obj, ConfigurationNode config, Class<?> argType, Method method) throws Exception {
+        if (map.containsKey(name)) {
+            method.invoke(obj, map.get(name));
+            return true;
         }
         return false;
     }
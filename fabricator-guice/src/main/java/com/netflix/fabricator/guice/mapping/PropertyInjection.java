@@ -1,18 +1,108 @@
 package com.netflix.fabricator.guice.mapping;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Injector;
 import com.netflix.fabricator.ConfigurationNode;
 
 import java.lang.reflect.Method;
+import java.util.Iterator;
 import java.util.List;
 
 /**
+ * Ordered strategies for mapping a single property.  Guice lookups of strategies that
+ * extend {@link CachedBindingReslove} are done the first time the property is mapped
+ * and cached, including negative results, so later components of the same type only
+ * pay for a field read (or a map hit for named strategies) per strategy.  Results of
+ * named strategies are kept for at most {@link #MAX_NAMED_LOOKUPS} property values
+ * so that configurations naming many missing components can't grow them without
+ * bound.  plan() goes further and removes strategies that can never apply so that 
+ * execute() goes straight to the strategy that maps the property.
+ *
  * Created by hyuan on 1/16/14.
  */
 public class PropertyInjection implements PropertyInjectionStrategy {
-    private final List<BindingReslove> injectionStrategies;
+    /**
+     * A strategy and the cached result of its guice lookups for this property
+     */
+    private class Strategy {
+        final BindingReslove                          strategy;
+        final CachedBindingReslove<Object>            cached;
+
+        /**
+         * Result of resolve() or null if not resolved yet
+         */
+        volatile Optional<Object>                     resolved;
+
+        /**
+         * Results of resolve() keyed by property value for named strategies
+         */
+        final Cache<String, Optional<Object>>         resolvedByName;
+
+        @SuppressWarnings("unchecked")
+        Strategy(BindingReslove strategy) {
+            this.strategy = strategy;
+            if (strategy instanceof CachedBindingReslove) {
+                this.cached         = (CachedBindingReslove<Object>) strategy;
+                this.resolvedByName = cached.isNamed() 
+                                    ? CacheBuilder.newBuilder().maximumSize(MAX_NAMED_LOOKUPS).<String, Optional<Object>>build() 
+                                    : null;
+            }
+            else {
+                this.cached         = null;
+                this.resolvedByName = null;
+            }
+        }
+
+        /**
+         * Resolve the strategy ahead of time
+         * @return False if the strategy can never apply to the property
+         */
+        boolean plan() {
+            if (cached == null) {
+                return true;
+            }
+            if (resolvedByName != null) {
+                return cached.canResolve(argType, injector, buildMethod);
+            }
+            resolved = Optional.fromNullable(cached.resolve(null, argType, injector, buildMethod));
+            return resolved.isPresent();
+        }
+
+        boolean execute(String name, Object targetObj, ConfigurationNode node) throws Exception {
+            if (cached == null || (resolvedByName != null && name == null)) {
+                return strategy.execute(name, targetObj, node, argType, injector, buildMethod);
+            }
+
+            Optional<Object> result = resolvedByName != null ? resolvedByName.getIfPresent(name) : resolved;
+            if (result == null) {
+                // Concurrent first lookups resolve the same bindings so there is no need to lock
+                result = Optional.fromNullable(cached.resolve(name, argType, injector, buildMethod));
+                if (resolvedByName != null) {
+                    resolvedByName.put(name, result);
+                }
+                else {
+                    resolved = result;
+                }
+            }
+
+            if (!result.isPresent()) {
+                return false;
+            }
+            return cached.execute(result.get(), name, targetObj, node, argType, buildMethod);
+        }
+    }
+
+    /**
+     * Maximum number of property values for which the lookups of each named strategy are cached
+     */
+    public static final int MAX_NAMED_LOOKUPS = 1024;
+    
+    private final List<Strategy> injectionStrategies;
     private final Class<?> argType;
     private final Injector injector;
     private final Method buildMethod;
@@ -30,14 +120,42 @@ public class PropertyInjection implements PropertyInjectionStrategy {
 
     @Override
     public PropertyInjectionStrategy addStrategy(BindingReslove concretePropertyInjectionImpl) {
-        injectionStrategies.add(concretePropertyInjectionImpl);
+        injectionStrategies.add(new Strategy(concretePropertyInjectionImpl));
         return this;
     }
 
+    /**
+     * Resolve all strategies and remove the ones that can't apply to this property given
+     * the injector's bindings.  Must only be called once the injector has been created
+     * and before the property is mapped for the first time.
+     * 
+     * @return this
+     */
+    public PropertyInjection plan() {
+        Iterator<Strategy> iter = injectionStrategies.iterator();
+        while (iter.hasNext()) {
+            if (!iter.next().plan()) {
+                iter.remove();
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * @return Strategies in the order they are tried
+     */
+    public List<BindingReslove> getStrategies() {
+        ImmutableList.Builder<BindingReslove> strategies = ImmutableList.builder();
+        for (Strategy strategy : injectionStrategies) {
+            strategies.add(strategy.strategy);
+        }
+        return strategies.build();
+    }
+
     @Override
     public boolean execute(String name, Object targetObj, ConfigurationNode node) throws Exception {
-        for (BindingReslove strategy : injectionStrategies) {
-            if (strategy.execute(name, targetObj, node, argType, injector, buildMethod)) {
+        for (Strategy strategy : injectionStrategies) {
+            if (strategy.execute(name, targetObj, node)) {
                 return true;
             }
         }
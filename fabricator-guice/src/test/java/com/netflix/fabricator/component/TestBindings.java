@@ -5,9 +5,11 @@ import java.util.Properties;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.netflix.fabricator.annotations.Type;
 import com.netflix.fabricator.component.exception.ComponentAlreadyExistsException;
@@ -44,6 +46,36 @@ public class TestBindings {
         }
     }
     
+    @Type("bound")
+    public static class BoundComponent {
+        public static class Builder {
+            private String name;
+            private int    value;
+            
+            public Builder withName(String name) {
+                this.name = name;
+                return this;
+            }
+            
+            public Builder withValue(int value) {
+                this.value = value;
+                return this;
+            }
+            
+            public BoundComponent build() {
+                return new BoundComponent(this);
+            }
+        }
+        
+        private final String name;
+        private final int    value;
+        
+        private BoundComponent(Builder builder) {
+            this.name  = builder.name;
+            this.value = builder.value;
+        }
+    }
+    
     @Test
     public void test() throws ComponentCreationException, ComponentAlreadyExistsException {
 
@@ -62,4 +94,38 @@ public class TestBindings {
         SomeComponent component = manager.get("id1");
         Assert.assertEquals(String.class, component.getClazz());
     }
+
+    /**
+     * A builder bound in the injector, here in a parent injector, is created by the
+     * injector instead of by the factory generated by fabricator-apt
+     */
+    @Test
+    public void testBoundBuilder() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("b1.bound.name", "a");
+        
+        Injector parent = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(BoundComponent.Builder.class).toProvider(new Provider<BoundComponent.Builder>() {
+                    @Override
+                    public BoundComponent.Builder get() {
+                        return new BoundComponent.Builder().withValue(42);
+                    }
+                });
+            }
+        });
+        Injector injector = parent.createChildInjector(
+                new PropertiesConfigurationModule(props),
+                new ComponentModuleBuilder<BoundComponent>()
+                    .manager(SynchronizedComponentManager.class)
+                    .build(BoundComponent.class)
+                );
+        
+        Assert.assertNotNull(GeneratedComponentFactories.find(BoundComponent.class));
+        ComponentManager<BoundComponent> manager = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<BoundComponent>>() {}));
+        BoundComponent component = manager.get("b1");
+        Assert.assertEquals("a", component.name);
+        Assert.assertEquals(42, component.value);
+    }
 }
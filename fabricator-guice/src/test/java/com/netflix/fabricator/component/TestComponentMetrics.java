@@ -0,0 +1,115 @@
+package com.netflix.fabricator.component;
+
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.netflix.fabricator.component.TestWarmUp.DependentComponent;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+import com.netflix.fabricator.component.metrics.ComponentMetrics;
+import com.netflix.fabricator.component.metrics.ComponentMetrics.Phase;
+import com.netflix.fabricator.component.metrics.ComponentMetricsSnapshot;
+import com.netflix.fabricator.component.metrics.InMemoryComponentMetrics;
+import com.netflix.fabricator.component.metrics.TimerSnapshot;
+import com.netflix.fabricator.guice.ComponentModuleBuilder;
+import com.netflix.fabricator.properties.PropertiesConfigurationModule;
+
+public class TestComponentMetrics {
+    @Test
+    public void testCreateMetrics() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("s1.simple.string",    "a");
+        props.setProperty("d1.dependent.simple", "s1");
+        props.setProperty("d2.dependent.simple", "s1");
+        props.setProperty("d2.dependent.fail",   "true");
+
+        final InMemoryComponentMetrics metrics = new InMemoryComponentMetrics();
+        Injector injector = Guice.createInjector(
+                new PropertiesConfigurationModule(props),
+                new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(ComponentMetrics.class).toInstance(metrics);
+                    }
+                },
+                new ComponentModuleBuilder<DependentComponent>()
+                    .manager(SynchronizedComponentManager.class)
+                    .build(DependentComponent.class),
+                new ComponentModuleBuilder<SimpleComponent>()
+                    .manager(SynchronizedComponentManager.class)
+                    .build(SimpleComponent.class)
+                );
+
+        ComponentManager<DependentComponent> dependent = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<DependentComponent>>() {}));
+        dependent.get("d1");
+        try {
+            dependent.get("d2");
+            Assert.fail();
+        }
+        catch (RuntimeException e) {
+        }
+        catch (ComponentCreationException e) {
+        }
+
+        ComponentMetricsSnapshot snapshot = metrics.snapshot();
+        TimerSnapshot creates = snapshot.getCreate("dependent", DependentComponent.class.getName());
+        Assert.assertEquals(2, creates.getCount());
+        Assert.assertEquals(1, creates.getFailures());
+        Assert.assertEquals(creates.getCount(), snapshot.getCreate("dependent").getCount());
+
+        // s1 was created once while mapping the properties of d1
+        Assert.assertEquals(1, snapshot.getCreate("simple").getCount());
+        Assert.assertEquals(0, snapshot.getCreate("simple").getFailures());
+        Assert.assertEquals(1, snapshot.getPhase(SimpleComponent.class.getName(), Phase.POST_CONSTRUCT).getCount());
+        Assert.assertTrue(snapshot.getPhase(DependentComponent.class.getName(), Phase.MAP_PROPERTIES).getMax()
+                       >= snapshot.getCreate("simple").getMin());
+
+        // d2 failed in build() so it never got to PostConstruct
+        String implementation = DependentComponent.class.getName();
+        Assert.assertEquals(2, snapshot.getPhase(implementation, Phase.INSTANTIATE).getCount());
+        Assert.assertEquals(2, snapshot.getPhase(implementation, Phase.MAP_ID).getCount());
+        Assert.assertEquals(2, snapshot.getPhase(implementation, Phase.MAP_PROPERTIES).getCount());
+        Assert.assertEquals(1, snapshot.getPhase(implementation, Phase.BUILD).getCount());
+        Assert.assertEquals(1, snapshot.getPhase(implementation, Phase.POST_CONSTRUCT).getCount());
+        Assert.assertEquals(TimerSnapshot.EMPTY, snapshot.getCreate("unknown", "unknown"));
+
+        // SimpleComponent uses the factory generated by fabricator-apt, which doesn't
+        // record the phases of a BindingComponentFactory
+        Assert.assertNotNull(GeneratedComponentFactories.find(SimpleComponent.class));
+        Assert.assertEquals(TimerSnapshot.EMPTY, snapshot.getPhase(SimpleComponent.class.getName(), Phase.INSTANTIATE));
+        Assert.assertEquals(TimerSnapshot.EMPTY, snapshot.getPhase(SimpleComponent.class.getName(), Phase.MAP_PROPERTIES));
+
+        // Each get() on a SynchronizedComponentManager records the wait for its lock, s1
+        // is looked up by both d1 and d2
+        Assert.assertEquals(2, snapshot.getLockWait("dependent").getCount());
+        Assert.assertEquals(2, snapshot.getLockHold("dependent").getCount());
+        Assert.assertEquals(2, snapshot.getLockWait("simple").getCount());
+    }
+
+    @Test
+    public void testLockMetrics() {
+        InMemoryComponentMetrics metrics = new InMemoryComponentMetrics();
+        metrics.recordLockWait("simple", 1000);
+        metrics.recordLockWait("simple", 3000);
+        metrics.recordLockHold("simple", 5000);
+        metrics.recordRefresh("simple", 10000, false);
+
+        ComponentMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(2,    snapshot.getLockWait("simple").getCount());
+        Assert.assertEquals(2000, snapshot.getLockWait("simple").getMean(), 100);
+        Assert.assertEquals(5000, snapshot.getLockHold("simple").getMax(), 100);
+        Assert.assertEquals(1,    snapshot.getRefresh("simple").getFailures());
+        Assert.assertTrue(snapshot.getTypes().contains("simple"));
+
+        // Later recordings don't change an existing snapshot
+        metrics.recordLockWait("simple", 1000);
+        Assert.assertEquals(2, snapshot.getLockWait("simple").getCount());
+        Assert.assertEquals(3, metrics.snapshot().getLockWait("simple").getCount());
+    }
+}
@@ -0,0 +1,210 @@
+package com.netflix.fabricator.component;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.CreationException;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.annotations.TypeImplementation;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+import com.netflix.fabricator.guice.ComponentDependencyPlanner;
+import com.netflix.fabricator.guice.ComponentModuleBuilder;
+import com.netflix.fabricator.guice.ComponentPlan;
+import com.netflix.fabricator.properties.PropertiesConfigurationModule;
+
+public class TestComponentPlan {
+    @Type("client")
+    public static class Client {
+        public static class Builder {
+            private Backend backend;
+
+            public Builder withBackend(Backend backend) {
+                this.backend = backend;
+                return this;
+            }
+
+            public Client build() {
+                return new Client(backend);
+            }
+        }
+
+        private final Backend backend;
+
+        private Client(Backend backend) {
+            this.backend = backend;
+        }
+
+        public Backend getBackend() {
+            return backend;
+        }
+    }
+
+    @Type("backend")
+    public static class Backend {
+        public static class Builder {
+            private Router router;
+
+            public Builder withRouter(Router router) {
+                this.router = router;
+                return this;
+            }
+
+            public Backend build() {
+                return new Backend(router);
+            }
+        }
+
+        private final Router router;
+
+        private Backend(Router router) {
+            this.router = router;
+        }
+
+        public Router getRouter() {
+            return router;
+        }
+    }
+
+    /**
+     * Embedded type without a manager that references a managed component
+     */
+    @Type("router")
+    public static interface Router {
+        SimpleComponent getTarget();
+    }
+
+    @TypeImplementation("fixed")
+    public static class FixedRouter implements Router {
+        public static class Builder {
+            private SimpleComponent target;
+
+            public Builder withTarget(SimpleComponent target) {
+                this.target = target;
+                return this;
+            }
+
+            public FixedRouter build() {
+                return new FixedRouter(target);
+            }
+        }
+
+        private final SimpleComponent target;
+
+        private FixedRouter(SimpleComponent target) {
+            this.target = target;
+        }
+
+        @Override
+        public SimpleComponent getTarget() {
+            return target;
+        }
+    }
+
+    @Type("cycle")
+    public static class Cycle {
+        public static class Builder {
+            public Builder withNext(Cycle next) {
+                return this;
+            }
+
+            public Cycle build() {
+                return new Cycle();
+            }
+        }
+    }
+
+    @Test
+    public void testPlanOrder() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("c1.client.backend",            "b1");
+        props.setProperty("c2.client.backend",            "b1");
+        props.setProperty("b1.backend.router.type",       "fixed");
+        props.setProperty("b1.backend.router.target",     "s1");
+        props.setProperty("s1.simple.string",             "a");
+        props.setProperty("s2.simple.string",             "b");
+
+        Injector injector = Guice.createInjector(
+                new PropertiesConfigurationModule(props),
+                new ComponentModuleBuilder<Client>()
+                    .manager(ConcurrentComponentManager.class)
+                    .build(Client.class),
+                new ComponentModuleBuilder<Backend>()
+                    .manager(SynchronizedComponentManager.class)
+                    .build(Backend.class),
+                new ComponentModuleBuilder<SimpleComponent>()
+                    .manager(SynchronizedComponentManager.class)
+                    .build(SimpleComponent.class),
+                new ComponentModuleBuilder<Router>()
+                    .implementation(FixedRouter.class)
+                    .build(Router.class)
+                );
+
+        ComponentPlan plan = injector.getInstance(ComponentDependencyPlanner.class)
+            .plan(ImmutableList.<Class<?>>of(Client.class));
+
+        // s1 is only referenced through the embedded router of b1 and s2 isn't referenced
+        List<String> order = plan.getOrder();
+        Assert.assertEquals(ImmutableSet.of("c1.client", "c2.client", "b1.backend", "s1.simple"), ImmutableSet.copyOf(order));
+        Assert.assertTrue(order.indexOf("s1.simple")  < order.indexOf("b1.backend"));
+        Assert.assertTrue(order.indexOf("b1.backend") < order.indexOf("c1.client"));
+        Assert.assertTrue(order.indexOf("b1.backend") < order.indexOf("c2.client"));
+
+        plan.execute().get(10, TimeUnit.SECONDS);
+
+        ComponentManager<Client>          clients = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<Client>>() {}));
+        ComponentManager<Backend>         backends = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<Backend>>() {}));
+        ComponentManager<SimpleComponent> simple  = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<SimpleComponent>>() {}));
+        Assert.assertSame(backends.find("b1"), clients.find("c1").getBackend());
+        Assert.assertSame(backends.find("b1"), clients.find("c2").getBackend());
+        Assert.assertSame(simple.find("s1"), backends.find("b1").getRouter().getTarget());
+        Assert.assertFalse(simple.contains("s2"));
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("a.cycle.next", "b");
+        props.setProperty("b.cycle.next", "c");
+        props.setProperty("c.cycle.next", "a");
+        props.setProperty("d.cycle.next", "a");
+
+        Injector injector = Guice.createInjector(
+                new PropertiesConfigurationModule(props),
+                new ComponentModuleBuilder<Cycle>()
+                    .manager(ConcurrentComponentManager.class)
+                    .build(Cycle.class));
+        try {
+            injector.getInstance(ComponentDependencyPlanner.class).plan(ImmutableList.<Class<?>>of(Cycle.class));
+            Assert.fail();
+        }
+        catch (ComponentCreationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("a.cycle -> b.cycle -> c.cycle -> a.cycle")
+                                           || e.getMessage().contains("b.cycle -> c.cycle -> a.cycle -> b.cycle")
+                                           || e.getMessage().contains("c.cycle -> a.cycle -> b.cycle -> c.cycle"));
+        }
+
+        // The warm up reports the cycle when the injector is created
+        try {
+            Guice.createInjector(
+                new PropertiesConfigurationModule(props),
+                new ComponentModuleBuilder<Cycle>()
+                    .manager(ConcurrentComponentManager.class)
+                    .warmUp()
+                    .build(Cycle.class));
+            Assert.fail();
+        }
+        catch (CreationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("Dependency cycle"));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.netflix.fabricator.component;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.MapBinder;
+import com.google.inject.name.Names;
+import com.netflix.fabricator.guice.mapping.BindingReslove;
+import com.netflix.fabricator.guice.mapping.NamedBinding;
+import com.netflix.fabricator.guice.mapping.NamedComponentManagerBinding;
+import com.netflix.fabricator.guice.mapping.NamedMapBinding;
+import com.netflix.fabricator.guice.mapping.PropertyInjection;
+
+public class TestPropertyInjection {
+    public static class Target {
+        private String value;
+
+        public Target withValue(String value) {
+            this.value = value;
+            return this;
+        }
+    }
+
+    public static class CountingNamedBinding extends NamedBinding {
+        int resolves = 0;
+
+        @Override
+        public Provider<?> resolve(String name, Class<?> argType, Injector injector, Method method) {
+            resolves++;
+            return super.resolve(name, argType, injector, method);
+        }
+    }
+
+    public static class CountingNamedMapBinding extends NamedMapBinding {
+        int resolves = 0;
+
+        @Override
+        public Map<String, ?> resolve(String name, Class<?> argType, Injector injector, Method method) {
+            resolves++;
+            return super.resolve(name, argType, injector, method);
+        }
+    }
+
+    @Test
+    public void testLookupsAreCached() throws Exception {
+        Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(String.class).annotatedWith(Names.named("a")).toInstance("A");
+            }
+        });
+
+        CountingNamedMapBinding map   = new CountingNamedMapBinding();
+        CountingNamedBinding    named = new CountingNamedBinding();
+        PropertyInjection injection = new PropertyInjection(String.class, injector, Target.class.getMethod("withValue", String.class));
+        injection.addStrategy(map).addStrategy(named);
+
+        for (int i = 0; i < 3; i++) {
+            Target target = new Target();
+            Assert.assertTrue(injection.execute("a", target, null));
+            Assert.assertEquals("A", target.value);
+        }
+        // There is no Map<String, String> so the negative result is cached as well
+        Assert.assertEquals(1, map.resolves);
+        Assert.assertEquals(1, named.resolves);
+
+        // Named lookups are cached per name
+        Assert.assertFalse(injection.execute("b", new Target(), null));
+        Assert.assertFalse(injection.execute("b", new Target(), null));
+        Assert.assertEquals(1, map.resolves);
+        Assert.assertEquals(2, named.resolves);
+    }
+
+    @Test
+    public void testNamedMapOnlyGetsNamedEntry() throws Exception {
+        final AtomicInteger bGets = new AtomicInteger();
+        Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                MapBinder<String, String> map = MapBinder.newMapBinder(binder(), String.class, String.class);
+                map.addBinding("a").toInstance("A");
+                map.addBinding("b").toProvider(new Provider<String>() {
+                    @Override
+                    public String get() {
+                        bGets.incrementAndGet();
+                        return "B";
+                    }
+                });
+            }
+        });
+
+        CountingNamedMapBinding map = new CountingNamedMapBinding();
+        PropertyInjection injection = new PropertyInjection(String.class, injector, Target.class.getMethod("withValue", String.class));
+        injection.addStrategy(map);
+
+        for (int i = 0; i < 3; i++) {
+            Target target = new Target();
+            Assert.assertTrue(injection.execute("a", target, null));
+            Assert.assertEquals("A", target.value);
+        }
+        Assert.assertFalse(injection.execute("c", new Target(), null));
+        Assert.assertEquals(1, map.resolves);
+        // The other entries of the map are never created
+        Assert.assertEquals(0, bGets.get());
+    }
+
+    @Test
+    public void testNamedMapInjectsNullEntry() throws Exception {
+        final Map<String, String> values = new HashMap<String, String>();
+        values.put("a", null);
+        Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(new TypeLiteral<Map<String, String>>() {}).toInstance(values);
+            }
+        });
+
+        PropertyInjection injection = new PropertyInjection(String.class, injector, Target.class.getMethod("withValue", String.class));
+        injection.addStrategy(new NamedMapBinding());
+
+        // An entry that is present is injected even if it is null
+        Target target = new Target().withValue("default");
+        Assert.assertTrue(injection.execute("a", target, null));
+        Assert.assertNull(target.value);
+        Assert.assertFalse(injection.execute("b", new Target(), null));
+
+        // The map is read on every call
+        values.put("b", "B");
+        target = new Target();
+        Assert.assertTrue(injection.execute("b", target, null));
+        Assert.assertEquals("B", target.value);
+    }
+
+    @Test
+    public void testNamedLookupsAreBounded() throws Exception {
+        CountingNamedBinding named = new CountingNamedBinding();
+        PropertyInjection injection = new PropertyInjection(String.class, Guice.createInjector(), Target.class.getMethod("withValue", String.class));
+        injection.addStrategy(named);
+
+        for (int i = 0; i < 4 * PropertyInjection.MAX_NAMED_LOOKUPS; i++) {
+            Assert.assertFalse(injection.execute("missing" + i, new Target(), null));
+        }
+        // The first names were evicted and are looked up again
+        Assert.assertFalse(injection.execute("missing0", new Target(), null));
+        Assert.assertEquals(4 * PropertyInjection.MAX_NAMED_LOOKUPS + 1, named.resolves);
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(String.class).annotatedWith(Names.named("a")).toInstance("A");
+            }
+        });
+        Method method = Target.class.getMethod("withValue", String.class);
+
+        NamedBinding named = new NamedBinding();
+        PropertyInjection injection = new PropertyInjection(String.class, injector, method);
+        injection
+            .addStrategy(named)
+            .addStrategy(new NamedMapBinding())
+            .addStrategy(new NamedComponentManagerBinding("value"));
+        injection.plan();
+
+        // Only the named binding can ever apply to a String property
+        Assert.assertEquals(ImmutableList.<BindingReslove>of(named), injection.getStrategies());
+        Target target = new Target();
+        Assert.assertTrue(injection.execute("a", target, null));
+        Assert.assertEquals("A", target.value);
+
+        // Without any named String binding there is nothing left to try
+        injection = new PropertyInjection(String.class, Guice.createInjector(), method);
+        injection.addStrategy(new NamedBinding()).addStrategy(new NamedMapBinding());
+        Assert.assertTrue(injection.plan().getStrategies().isEmpty());
+        Assert.assertFalse(injection.execute("a", new Target(), null));
+    }
+
+    @Test
+    public void testPlanWithChildInjector() throws Exception {
+        Injector parent = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(String.class).annotatedWith(Names.named("a")).toInstance("A");
+            }
+        });
+        Injector child = parent.createChildInjector();
+        Method method = Target.class.getMethod("withValue", String.class);
+
+        // The named binding is only in the parent but is still visible to the child
+        NamedBinding named = new NamedBinding();
+        PropertyInjection injection = new PropertyInjection(String.class, child, method);
+        injection.addStrategy(named).addStrategy(new NamedMapBinding());
+        Assert.assertEquals(ImmutableList.<BindingReslove>of(named), injection.plan().getStrategies());
+        Target target = new Target();
+        Assert.assertTrue(injection.execute("a", target, null));
+        Assert.assertEquals("A", target.value);
+    }
+}
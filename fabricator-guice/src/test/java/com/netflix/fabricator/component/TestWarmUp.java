@@ -0,0 +1,121 @@
+package com.netflix.fabricator.component;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.netflix.fabricator.annotations.Type;
+import com.netflix.fabricator.component.exception.ComponentCreationException;
+import com.netflix.fabricator.guice.ComponentModuleBuilder;
+import com.netflix.fabricator.guice.ComponentWarmUpService;
+import com.netflix.fabricator.properties.PropertiesConfigurationModule;
+
+public class TestWarmUp {
+    @Type("dependent")
+    public static class DependentComponent {
+        public static class Builder {
+            private SimpleComponent simple;
+            private boolean         fail;
+
+            public Builder withFail(boolean fail) {
+                this.fail = fail;
+                return this;
+            }
+
+            public Builder withSimple(SimpleComponent simple) {
+                this.simple = simple;
+                return this;
+            }
+
+            public DependentComponent build() {
+                if (fail) {
+                    throw new IllegalStateException("Failed to build");
+                }
+                return new DependentComponent(simple);
+            }
+        }
+
+        private final SimpleComponent simple;
+
+        private DependentComponent(SimpleComponent simple) {
+            this.simple = simple;
+        }
+
+        public SimpleComponent getSimple() {
+            return simple;
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("s1.simple.string",    "a");
+        props.setProperty("s2.simple.string",    "b");
+        props.setProperty("d1.dependent.simple", "s1");
+        props.setProperty("d2.dependent.simple", "s2");
+
+        Injector injector = Guice.createInjector(
+                new PropertiesConfigurationModule(props),
+                new ComponentModuleBuilder<DependentComponent>()
+                    .manager(ConcurrentComponentManager.class)
+                    .warmUp()
+                    .build(DependentComponent.class),
+                new ComponentModuleBuilder<SimpleComponent>()
+                    .manager(SynchronizedComponentManager.class)
+                    .warmUp()
+                    .build(SimpleComponent.class)
+                );
+
+        ComponentWarmUpService service = injector.getInstance(ComponentWarmUpService.class);
+        service.awaitWarm(10, TimeUnit.SECONDS);
+        Assert.assertTrue(service.isWarm());
+
+        ComponentManager<SimpleComponent>    simple    = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<SimpleComponent>>() {}));
+        ComponentManager<DependentComponent> dependent = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<DependentComponent>>() {}));
+        Assert.assertEquals(ImmutableSet.of("s1", "s2"), ImmutableSet.copyOf(simple.getIds()));
+        Assert.assertEquals(ImmutableSet.of("d1", "d2"), ImmutableSet.copyOf(dependent.getIds()));
+        Assert.assertSame(simple.find("s1"), dependent.find("d1").getSimple());
+        Assert.assertTrue(simple.find("s2").wasPostConstructCalled());
+    }
+
+    @Test
+    public void testWarmUpFailure() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("s1.simple.string",    "a");
+        props.setProperty("d1.dependent.simple", "s1");
+        props.setProperty("d1.dependent.fail",   "true");
+
+        Injector injector = Guice.createInjector(
+                new PropertiesConfigurationModule(props),
+                new ComponentModuleBuilder<DependentComponent>()
+                    .manager(ConcurrentComponentManager.class)
+                    .warmUp()
+                    .build(DependentComponent.class),
+                new ComponentModuleBuilder<SimpleComponent>()
+                    .manager(ConcurrentComponentManager.class)
+                    .warmUp()
+                    .build(SimpleComponent.class)
+                );
+
+        ComponentWarmUpService service = injector.getInstance(ComponentWarmUpService.class);
+        try {
+            service.awaitWarm(10, TimeUnit.SECONDS);
+            Assert.fail();
+        }
+        catch (ComponentCreationException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("d1.dependent"));
+        }
+        Assert.assertFalse(service.isWarm());
+
+        // Components that could be created are still available
+        ComponentManager<SimpleComponent> simple = injector.getInstance(Key.get(new TypeLiteral<ComponentManager<SimpleComponent>>() {}));
+        Assert.assertNotNull(simple.find("s1"));
+    }
+}